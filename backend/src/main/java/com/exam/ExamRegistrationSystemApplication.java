@@ -3,6 +3,7 @@ package com.exam;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * 在线考试报名系统启动类
@@ -12,6 +13,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  */
 @SpringBootApplication
 @MapperScan("com.exam.mapper")
+@EnableScheduling
 public class ExamRegistrationSystemApplication {
 
     public static void main(String[] args) {
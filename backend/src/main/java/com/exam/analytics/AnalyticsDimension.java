@@ -0,0 +1,81 @@
+package com.exam.analytics;
+
+/**
+ * 报名分析维度
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+public enum AnalyticsDimension {
+
+    /**
+     * 考试ID
+     */
+    EXAM("exam", "考试"),
+
+    /**
+     * 考试类型
+     */
+    EXAM_TYPE("examType", "考试类型"),
+
+    /**
+     * 考点所在省份
+     */
+    PROVINCE("province", "省份"),
+
+    /**
+     * 考点所在城市
+     */
+    CITY("city", "城市"),
+
+    /**
+     * 审核状态(1-待审核 2-审核通过 3-审核驳回)
+     */
+    AUDIT_STATUS("auditStatus", "审核状态"),
+
+    /**
+     * 缴费状态(1-未缴费 2-已缴费 3-已退费)
+     */
+    PAYMENT_STATUS("paymentStatus", "缴费状态"),
+
+    /**
+     * 报名日期（按天）
+     */
+    DATE("date", "报名日期");
+
+    private final String key;
+
+    private final String label;
+
+    AnalyticsDimension(String key, String label) {
+        this.key = key;
+        this.label = label;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * 是否为字典编码维度（日期维度按天偏移量存储，不做字典编码）
+     */
+    public boolean isDictionaryEncoded() {
+        return this != DATE;
+    }
+
+    /**
+     * 根据请求中的维度名解析维度
+     */
+    public static AnalyticsDimension fromKey(String key) {
+        for (AnalyticsDimension dimension : values()) {
+            if (dimension.key.equalsIgnoreCase(key)) {
+                return dimension;
+            }
+        }
+        throw new IllegalArgumentException("不支持的统计维度: " + key);
+    }
+}
@@ -0,0 +1,560 @@
+package com.exam.analytics;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 报名数据列式快照
+ * 报名记录按列存放在基本类型数组中，维度值做字典编码；每个维度值建立行索引，
+ * 稠密取值使用位图，稀疏取值使用有序行号数组，筛选时统一合并为候选行位图后并行扫描。
+ * 快照构建完成后只读，可被多个查询线程并发访问。
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+public final class RegistrationColumnStore {
+
+    /**
+     * 字典编码维度
+     */
+    private static final AnalyticsDimension[] DICTIONARY_DIMENSIONS = {
+            AnalyticsDimension.EXAM,
+            AnalyticsDimension.EXAM_TYPE,
+            AnalyticsDimension.PROVINCE,
+            AnalyticsDimension.CITY,
+            AnalyticsDimension.AUDIT_STATUS,
+            AnalyticsDimension.PAYMENT_STATUS
+    };
+
+    /**
+     * 空值在字典中的显示值
+     */
+    private static final String UNKNOWN = "未知";
+
+    /**
+     * 单个扫描任务处理的位图字数（1024字 = 65536行）
+     */
+    private static final int SCAN_THRESHOLD_WORDS = 1024;
+
+    /**
+     * 分组组合数不超过该值时使用数组计数，否则使用哈希表
+     */
+    private static final int DENSE_GROUP_LIMIT = 1 << 16;
+
+    private final int rowCount;
+
+    /**
+     * 维度字典：[维度][编码] -> 取值
+     */
+    private final String[][] dictionaries;
+
+    /**
+     * 编码列：[维度][行] -> 编码
+     */
+    private final int[][] codes;
+
+    /**
+     * 行索引：[维度][编码] -> 行集合
+     */
+    private final RowIndex[][] indexes;
+
+    /**
+     * 报名日期列（距 minDay 的天数偏移）
+     */
+    private final int[] dayOffsets;
+
+    private final long minDay;
+
+    private final int daySpan;
+
+    private final LocalDateTime buildTime;
+
+    private RegistrationColumnStore(int rowCount, String[][] dictionaries, int[][] codes, RowIndex[][] indexes,
+                                    int[] dayOffsets, long minDay, int daySpan) {
+        this.rowCount = rowCount;
+        this.dictionaries = dictionaries;
+        this.codes = codes;
+        this.indexes = indexes;
+        this.dayOffsets = dayOffsets;
+        this.minDay = minDay;
+        this.daySpan = daySpan;
+        this.buildTime = LocalDateTime.now();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public LocalDateTime getBuildTime() {
+        return buildTime;
+    }
+
+    /**
+     * 各维度的取值及行数
+     */
+    public Map<String, List<Map<String, Object>>> dimensionValues() {
+        Map<String, List<Map<String, Object>>> result = new LinkedHashMap<>();
+        for (int d = 0; d < DICTIONARY_DIMENSIONS.length; d++) {
+            List<Map<String, Object>> values = new ArrayList<>();
+            for (int code = 0; code < dictionaries[d].length; code++) {
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("value", dictionaries[d][code]);
+                item.put("count", indexes[d][code].cardinality);
+                values.add(item);
+            }
+            result.put(DICTIONARY_DIMENSIONS[d].getKey(), values);
+        }
+        return result;
+    }
+
+    /**
+     * 筛选并分组计数
+     *
+     * @param filters   维度筛选（同一维度内取值为"或"，不同维度间为"与"）
+     * @param startDate 报名开始日期（含，可选）
+     * @param endDate   报名结束日期（含，可选）
+     * @param groupBy   分组维度（为空时只返回总数）
+     * @param pool      扫描使用的 fork-join 线程池
+     * @return 分组结果，按数量降序
+     */
+    public SliceResult slice(Map<AnalyticsDimension, Collection<String>> filters,
+                             LocalDate startDate, LocalDate endDate,
+                             List<AnalyticsDimension> groupBy, ForkJoinPool pool) {
+        int words = (rowCount + 63) >>> 6;
+
+        // 1. 合并行索引得到候选行位图（null 表示全部行）
+        long[] candidate = null;
+        if (filters != null) {
+            for (Map.Entry<AnalyticsDimension, Collection<String>> entry : filters.entrySet()) {
+                AnalyticsDimension dimension = entry.getKey();
+                if (!dimension.isDictionaryEncoded() || entry.getValue() == null || entry.getValue().isEmpty()) {
+                    continue;
+                }
+                int d = dimensionSlot(dimension);
+                long[] dimensionBits = new long[words];
+                for (String value : entry.getValue()) {
+                    int code = lookup(d, value);
+                    if (code >= 0) {
+                        indexes[d][code].orInto(dimensionBits);
+                    }
+                }
+                if (candidate == null) {
+                    candidate = dimensionBits;
+                } else {
+                    for (int i = 0; i < words; i++) {
+                        candidate[i] &= dimensionBits[i];
+                    }
+                }
+            }
+        }
+
+        // 2. 日期范围转换为天偏移
+        int fromOffset = startDate == null ? Integer.MIN_VALUE : (int) Math.max(Integer.MIN_VALUE, startDate.toEpochDay() - minDay);
+        int toOffset = endDate == null ? Integer.MAX_VALUE : (int) Math.min(Integer.MAX_VALUE, endDate.toEpochDay() - minDay);
+
+        // 3. 分组键为各维度编码的混合进制组合
+        List<AnalyticsDimension> groups = groupBy == null ? Collections.emptyList() : groupBy;
+        int[][] groupColumns = new int[groups.size()][];
+        long[] radix = new long[groups.size()];
+        long combinations = 1;
+        for (int g = 0; g < groups.size(); g++) {
+            AnalyticsDimension dimension = groups.get(g);
+            if (dimension.isDictionaryEncoded()) {
+                int d = dimensionSlot(dimension);
+                groupColumns[g] = codes[d];
+                radix[g] = Math.max(1, dictionaries[d].length);
+            } else {
+                groupColumns[g] = dayOffsets;
+                radix[g] = Math.max(1, daySpan);
+            }
+            combinations *= radix[g];
+        }
+
+        ScanPlan plan = new ScanPlan(candidate, words, fromOffset, toOffset, groupColumns, radix,
+                combinations <= DENSE_GROUP_LIMIT ? (int) combinations : -1);
+        GroupCounts counts = pool.invoke(new ScanTask(plan, 0, words));
+
+        // 4. 解码分组结果
+        List<Map<String, Object>> rows = new ArrayList<>();
+        long total = counts.forEach((key, count) -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            long remaining = key;
+            for (int g = 0; g < groups.size(); g++) {
+                int code = (int) (remaining % radix[g]);
+                remaining /= radix[g];
+                row.put(groups.get(g).getKey(), decode(groups.get(g), code));
+            }
+            row.put("count", count);
+            rows.add(row);
+        });
+        rows.sort((a, b) -> Long.compare((Long) b.get("count"), (Long) a.get("count")));
+        return new SliceResult(total, rows);
+    }
+
+    private String decode(AnalyticsDimension dimension, int code) {
+        if (dimension.isDictionaryEncoded()) {
+            return dictionaries[dimensionSlot(dimension)][code];
+        }
+        return LocalDate.ofEpochDay(minDay + code).toString();
+    }
+
+    private int lookup(int d, String value) {
+        String[] dictionary = dictionaries[d];
+        String target = value == null ? UNKNOWN : value;
+        for (int code = 0; code < dictionary.length; code++) {
+            if (dictionary[code].equals(target)) {
+                return code;
+            }
+        }
+        return -1;
+    }
+
+    private static int dimensionSlot(AnalyticsDimension dimension) {
+        for (int d = 0; d < DICTIONARY_DIMENSIONS.length; d++) {
+            if (DICTIONARY_DIMENSIONS[d] == dimension) {
+                return d;
+            }
+        }
+        throw new IllegalArgumentException("维度不支持字典筛选: " + dimension.getKey());
+    }
+
+    /**
+     * 切片结果
+     */
+    public static final class SliceResult {
+
+        private final long total;
+
+        private final List<Map<String, Object>> rows;
+
+        SliceResult(long total, List<Map<String, Object>> rows) {
+            this.total = total;
+            this.rows = rows;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public List<Map<String, Object>> getRows() {
+            return rows;
+        }
+    }
+
+    /**
+     * 单个维度取值对应的行集合
+     * 稠密时为 [wordOffset, wordOffset + words.length) 范围内的位图，稀疏时为有序行号数组。
+     */
+    static final class RowIndex {
+
+        private final int cardinality;
+
+        private final int[] rows;
+
+        private final long[] words;
+
+        private final int wordOffset;
+
+        private RowIndex(int cardinality, int[] rows, long[] words, int wordOffset) {
+            this.cardinality = cardinality;
+            this.rows = rows;
+            this.words = words;
+            this.wordOffset = wordOffset;
+        }
+
+        boolean isBitmap() {
+            return words != null;
+        }
+
+        void orInto(long[] target) {
+            if (words != null) {
+                for (int i = 0; i < words.length; i++) {
+                    target[wordOffset + i] |= words[i];
+                }
+            } else {
+                for (int row : rows) {
+                    target[row >>> 6] |= 1L << row;
+                }
+            }
+        }
+    }
+
+    /**
+     * 扫描参数（所有子任务共享）
+     */
+    private static final class ScanPlan {
+
+        final long[] candidate;
+        final int words;
+        final int fromOffset;
+        final int toOffset;
+        final int[][] groupColumns;
+        final long[] radix;
+        final int denseSize;
+
+        ScanPlan(long[] candidate, int words, int fromOffset, int toOffset,
+                 int[][] groupColumns, long[] radix, int denseSize) {
+            this.candidate = candidate;
+            this.words = words;
+            this.fromOffset = fromOffset;
+            this.toOffset = toOffset;
+            this.groupColumns = groupColumns;
+            this.radix = radix;
+            this.denseSize = denseSize;
+        }
+    }
+
+    /**
+     * 按位图字区间拆分的并行扫描任务
+     */
+    private final class ScanTask extends RecursiveTask<GroupCounts> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient ScanPlan plan;
+
+        private final int fromWord;
+
+        private final int toWord;
+
+        ScanTask(ScanPlan plan, int fromWord, int toWord) {
+            this.plan = plan;
+            this.fromWord = fromWord;
+            this.toWord = toWord;
+        }
+
+        @Override
+        protected GroupCounts compute() {
+            if (toWord - fromWord > SCAN_THRESHOLD_WORDS) {
+                int mid = (fromWord + toWord) >>> 1;
+                ScanTask left = new ScanTask(plan, fromWord, mid);
+                left.fork();
+                GroupCounts right = new ScanTask(plan, mid, toWord).compute();
+                return left.join().merge(right);
+            }
+            return scan();
+        }
+
+        private GroupCounts scan() {
+            GroupCounts counts = new GroupCounts(plan.denseSize);
+            boolean dateFilter = plan.fromOffset != Integer.MIN_VALUE || plan.toOffset != Integer.MAX_VALUE;
+            int[][] columns = plan.groupColumns;
+            for (int w = fromWord; w < toWord; w++) {
+                long bits = plan.candidate == null ? -1L : plan.candidate[w];
+                if (w == plan.words - 1 && (rowCount & 63) != 0) {
+                    bits &= (1L << (rowCount & 63)) - 1;
+                }
+                while (bits != 0) {
+                    int row = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    if (dateFilter) {
+                        int day = dayOffsets[row];
+                        if (day < plan.fromOffset || day > plan.toOffset) {
+                            continue;
+                        }
+                    }
+                    long key = 0;
+                    for (int g = columns.length - 1; g >= 0; g--) {
+                        key = key * plan.radix[g] + columns[g][row];
+                    }
+                    counts.increment(key);
+                }
+            }
+            return counts;
+        }
+    }
+
+    /**
+     * 分组计数容器，组合数较小时用数组，否则用哈希表
+     */
+    private static final class GroupCounts {
+
+        private final long[] dense;
+
+        private final Map<Long, long[]> sparse;
+
+        GroupCounts(int denseSize) {
+            this.dense = denseSize > 0 ? new long[denseSize] : null;
+            this.sparse = denseSize > 0 ? null : new HashMap<>();
+        }
+
+        void increment(long key) {
+            if (dense != null) {
+                dense[(int) key]++;
+            } else {
+                sparse.computeIfAbsent(key, k -> new long[1])[0]++;
+            }
+        }
+
+        GroupCounts merge(GroupCounts other) {
+            if (dense != null) {
+                for (int i = 0; i < dense.length; i++) {
+                    dense[i] += other.dense[i];
+                }
+            } else {
+                other.sparse.forEach((key, count) -> sparse.computeIfAbsent(key, k -> new long[1])[0] += count[0]);
+            }
+            return this;
+        }
+
+        long forEach(GroupConsumer consumer) {
+            long total = 0;
+            if (dense != null) {
+                for (int key = 0; key < dense.length; key++) {
+                    if (dense[key] > 0) {
+                        consumer.accept(key, dense[key]);
+                        total += dense[key];
+                    }
+                }
+            } else {
+                for (Map.Entry<Long, long[]> entry : sparse.entrySet()) {
+                    consumer.accept(entry.getKey(), entry.getValue()[0]);
+                    total += entry.getValue()[0];
+                }
+            }
+            return total;
+        }
+    }
+
+    @FunctionalInterface
+    private interface GroupConsumer {
+        void accept(long key, long count);
+    }
+
+    /**
+     * 快照构建器（单线程使用），按流式读取的顺序逐行追加
+     */
+    public static final class Builder {
+
+        private final List<Map<String, Integer>> dictionaryMaps = new ArrayList<>();
+
+        private final List<List<String>> dictionaryValues = new ArrayList<>();
+
+        private int[][] codes = new int[DICTIONARY_DIMENSIONS.length][1024];
+
+        private long[] days = new long[1024];
+
+        private int size;
+
+        private Builder() {
+            for (int d = 0; d < DICTIONARY_DIMENSIONS.length; d++) {
+                dictionaryMaps.add(new HashMap<>());
+                dictionaryValues.add(new ArrayList<>());
+            }
+        }
+
+        public Builder add(RegistrationFact fact) {
+            if (size == days.length) {
+                int capacity = days.length << 1;
+                days = Arrays.copyOf(days, capacity);
+                for (int d = 0; d < codes.length; d++) {
+                    codes[d] = Arrays.copyOf(codes[d], capacity);
+                }
+            }
+            codes[0][size] = encode(0, fact.getExamId());
+            codes[1][size] = encode(1, fact.getExamType());
+            codes[2][size] = encode(2, fact.getProvince());
+            codes[3][size] = encode(3, fact.getCity());
+            codes[4][size] = encode(4, fact.getAuditStatus());
+            codes[5][size] = encode(5, fact.getPaymentStatus());
+            days[size] = fact.getCreateTime() == null ? 0 : fact.getCreateTime().toLocalDate().toEpochDay();
+            size++;
+            return this;
+        }
+
+        private int encode(int d, Object value) {
+            String text = value == null ? UNKNOWN : String.valueOf(value);
+            Integer code = dictionaryMaps.get(d).get(text);
+            if (code == null) {
+                code = dictionaryValues.get(d).size();
+                dictionaryMaps.get(d).put(text, code);
+                dictionaryValues.get(d).add(text);
+            }
+            return code;
+        }
+
+        public RegistrationColumnStore build() {
+            int dims = DICTIONARY_DIMENSIONS.length;
+            String[][] dictionaries = new String[dims][];
+            int[][] columns = new int[dims][];
+            RowIndex[][] indexes = new RowIndex[dims][];
+            for (int d = 0; d < dims; d++) {
+                dictionaries[d] = dictionaryValues.get(d).toArray(new String[0]);
+                columns[d] = Arrays.copyOf(codes[d], size);
+                indexes[d] = buildIndexes(columns[d], dictionaries[d].length);
+            }
+
+            long minDay = Long.MAX_VALUE;
+            long maxDay = Long.MIN_VALUE;
+            for (int row = 0; row < size; row++) {
+                minDay = Math.min(minDay, days[row]);
+                maxDay = Math.max(maxDay, days[row]);
+            }
+            if (size == 0) {
+                minDay = 0;
+                maxDay = 0;
+            }
+            int[] dayOffsets = new int[size];
+            for (int row = 0; row < size; row++) {
+                dayOffsets[row] = (int) (days[row] - minDay);
+            }
+            return new RegistrationColumnStore(size, dictionaries, columns, indexes,
+                    dayOffsets, minDay, (int) (maxDay - minDay + 1));
+        }
+
+        /**
+         * 为单个维度建立行索引：位图字节数不超过行号数组字节数时使用位图
+         */
+        private RowIndex[] buildIndexes(int[] column, int cardinality) {
+            int[] counts = new int[cardinality];
+            int[] first = new int[cardinality];
+            int[] last = new int[cardinality];
+            Arrays.fill(first, -1);
+            for (int row = 0; row < column.length; row++) {
+                int code = column[row];
+                if (first[code] < 0) {
+                    first[code] = row;
+                }
+                last[code] = row;
+                counts[code]++;
+            }
+
+            long[][] bitmaps = new long[cardinality][];
+            int[][] rowArrays = new int[cardinality][];
+            int[] offsets = new int[cardinality];
+            int[] fill = new int[cardinality];
+            for (int code = 0; code < cardinality; code++) {
+                int firstWord = first[code] >>> 6;
+                int lastWord = last[code] >>> 6;
+                int bitmapWords = lastWord - firstWord + 1;
+                if ((long) bitmapWords * 8 <= (long) counts[code] * 4) {
+                    bitmaps[code] = new long[bitmapWords];
+                    offsets[code] = firstWord;
+                } else {
+                    rowArrays[code] = new int[counts[code]];
+                }
+            }
+            for (int row = 0; row < column.length; row++) {
+                int code = column[row];
+                if (bitmaps[code] != null) {
+                    bitmaps[code][(row >>> 6) - offsets[code]] |= 1L << row;
+                } else {
+                    rowArrays[code][fill[code]++] = row;
+                }
+            }
+
+            RowIndex[] result = new RowIndex[cardinality];
+            for (int code = 0; code < cardinality; code++) {
+                result[code] = new RowIndex(counts[code], rowArrays[code], bitmaps[code], offsets[code]);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.exam.analytics;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 报名分析事实行（报名记录关联考试、考点后的扁平结构）
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Data
+public class RegistrationFact {
+
+    /**
+     * 考试ID
+     */
+    private Long examId;
+
+    /**
+     * 考试类型
+     */
+    private String examType;
+
+    /**
+     * 考点省份
+     */
+    private String province;
+
+    /**
+     * 考点城市
+     */
+    private String city;
+
+    /**
+     * 审核状态
+     */
+    private Integer auditStatus;
+
+    /**
+     * 缴费状态
+     */
+    private Integer paymentStatus;
+
+    /**
+     * 报名时间
+     */
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,40 @@
+package com.exam.common;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 预序列化的响应数据
+ * 作为 {@code Result<CachedContent>} 的 data 返回，由 {@link com.exam.config.CachedContentHttpMessageConverter} 直接写出，不再经过 Jackson 序列化
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+public final class CachedContent {
+
+    private final ByteBuffer body;
+
+    private final long version;
+
+    public CachedContent(ByteBuffer body, long version) {
+        this.body = body;
+        this.version = version;
+    }
+
+    /**
+     * JSON 字节（只读视图，每次调用返回独立的读写位置）
+     */
+    public ByteBuffer getBody() {
+        return body.duplicate();
+    }
+
+    /**
+     * 内容版本（条目版本号，用于 ETag）
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public int getLength() {
+        return body.remaining();
+    }
+}
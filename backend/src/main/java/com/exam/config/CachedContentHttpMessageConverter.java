@@ -0,0 +1,104 @@
+package com.exam.config;
+
+import com.exam.common.CachedContent;
+import com.exam.common.Result;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 预序列化内容转换器
+ * 处理声明为 {@code Result<CachedContent>} 的返回值：Result 的外层字段照常输出，
+ * data 直接写入缓存中的 JSON 字节，不经过 Jackson
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+public class CachedContentHttpMessageConverter extends AbstractGenericHttpMessageConverter<Result<?>> {
+
+    private final ObjectMapper objectMapper;
+
+    public CachedContentHttpMessageConverter(ObjectMapper objectMapper) {
+        super(MediaType.APPLICATION_JSON);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Result.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        if (!(type instanceof ParameterizedType)) {
+            return false;
+        }
+        ParameterizedType parameterized = (ParameterizedType) type;
+        return parameterized.getRawType() == Result.class
+                && parameterized.getActualTypeArguments()[0] == CachedContent.class
+                && canWrite(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        // 仅按泛型类型匹配，其余 Result 交给 Jackson
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public Result<?> read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("不支持读取预序列化内容", inputMessage);
+    }
+
+    @Override
+    protected Result<?> readInternal(Class<? extends Result<?>> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("不支持读取预序列化内容", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Result<?> result, Type type, HttpOutputMessage outputMessage) throws IOException {
+        OutputStream out = outputMessage.getBody();
+        StringBuilder head = new StringBuilder("{\"code\":").append(result.getCode());
+        if (result.getMessage() != null) {
+            head.append(",\"message\":").append(objectMapper.writeValueAsString(result.getMessage()));
+        }
+        if (result.getTimestamp() != null) {
+            head.append(",\"timestamp\":").append(result.getTimestamp());
+        }
+        Object data = result.getData();
+        if (!(data instanceof CachedContent)) {
+            out.write(head.append('}').toString().getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        out.write(head.append(",\"data\":").toString().getBytes(StandardCharsets.UTF_8));
+        ByteBuffer body = ((CachedContent) data).getBody();
+        // 通道按块从直接内存复制到响应流，不会分配与内容等长的堆数组
+        WritableByteChannel channel = Channels.newChannel(out);
+        while (body.hasRemaining()) {
+            channel.write(body);
+        }
+        out.write('}');
+    }
+}
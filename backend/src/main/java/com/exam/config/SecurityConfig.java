@@ -1,18 +1,21 @@
 package com.exam.config;
 
+import com.exam.security.AdaptiveBCryptPasswordEncoder;
 import com.exam.security.JwtAuthenticationFilter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -34,9 +37,31 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    /**
+     * BCrypt模式：fixed-固定强度，adaptive-启动时按耗时预算校准强度
+     */
+    @Value("${security.bcrypt.mode:fixed}")
+    private String bcryptMode;
+
+    @Value("${security.bcrypt.strength:10}")
+    private int bcryptStrength;
+
+    /**
+     * adaptive 模式下单次哈希的耗时预算，单位：毫秒
+     */
+    @Value("${security.bcrypt.target-millis:250}")
+    private long bcryptTargetMillis;
+
+    @Value("${security.bcrypt.min-strength:10}")
+    private int bcryptMinStrength;
+
+    @Value("${security.bcrypt.max-strength:14}")
+    private int bcryptMaxStrength;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new AdaptiveBCryptPasswordEncoder(bcryptMode, bcryptStrength, bcryptTargetMillis,
+                bcryptMinStrength, bcryptMaxStrength);
     }
 
     @Bean
@@ -49,15 +74,19 @@ public class SecurityConfig {
         http.cors().and().csrf().disable()
             .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
             .and()
+            // 未认证或访问令牌过期返回401，前端据此用刷新令牌换取新的访问令牌
+            .exceptionHandling().authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED))
+            .and()
             .authorizeRequests()
                 // Swagger/OpenAPI接口
                 .antMatchers("/swagger-ui.html", "/swagger-ui/**", "/v3/api-docs/**").permitAll()
                 // 调试接口（仅开发环境，生产环境请删除）
                 .antMatchers("/v1/debug/**").permitAll()
                 // 公开接口
-                .antMatchers("/v1/users/register", "/v1/users/login", "/v1/notices/**").permitAll()
+                .antMatchers("/v1/users/register", "/v1/users/login", "/v1/users/refresh-token", "/v1/users/check-username", "/v1/notices/**").permitAll()
                 .antMatchers("/v1/exams/available").permitAll()
-                .antMatchers("/v1/exams/{id}").permitAll()
+                .antMatchers("/v1/exams/{id}", "/v1/exams/{id}/detail", "/v1/exams/{id}/sites", "/v1/exams/{id}/sites/recommend").permitAll()
+                .antMatchers("/v1/search/exams", "/v1/search/notices").permitAll()
                 // 管理员接口
                 .antMatchers("/v1/admin/**").hasRole("ADMIN")
                 // 其他接口需要认证
@@ -1,19 +1,32 @@
 package com.exam.controller;
 
+import com.exam.common.CachedContent;
 import com.exam.common.PageResult;
 import com.exam.common.Result;
 import com.exam.dto.ExamCreateRequest;
+import com.exam.dto.ExamDetailResponse;
+import com.exam.dto.ExamSiteAvailability;
+import com.exam.dto.SiteRecommendation;
 import com.exam.dto.ExamUpdateRequest;
 import com.exam.entity.Exam;
 import com.exam.security.CustomUserDetails;
+import com.exam.service.ContentCache;
+import com.exam.service.ExamDetailCache;
 import com.exam.service.ExamService;
+import com.exam.service.ExamSiteRecommender;
+import com.exam.service.SeatAssignmentService;
+import com.exam.service.TicketGenerationService;
+import com.exam.utils.HttpCacheUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import javax.validation.Valid;
+import java.util.List;
+import java.util.Map;
 
 /**
  * 考试控制器
@@ -29,6 +42,21 @@ public class ExamController {
     @Autowired
     private ExamService examService;
 
+    @Autowired
+    private ContentCache contentCache;
+
+    @Autowired
+    private ExamDetailCache examDetailCache;
+
+    @Autowired
+    private ExamSiteRecommender examSiteRecommender;
+
+    @Autowired
+    private SeatAssignmentService seatAssignmentService;
+
+    @Autowired
+    private TicketGenerationService ticketGenerationService;
+
     /**
      * 分页查询考试列表
      */
@@ -44,27 +72,78 @@ public class ExamController {
     }
 
     /**
-     * 分页查询可报名的考试列表
+     * 分页查询可报名的考试列表（支持 If-None-Match 条件请求，版本为可报名考试索引的快照代数）
      */
     @GetMapping("/available")
     public Result<PageResult<Exam>> getAvailableExamPage(@RequestParam(defaultValue = "1") Integer current,
                                                         @RequestParam(defaultValue = "10") Integer size,
                                                         @RequestParam(required = false) String examName,
-                                                        @RequestParam(required = false) String examType) {
+                                                        @RequestParam(required = false) String examType,
+                                                        ServletWebRequest request) {
+        String etag = HttpCacheUtils.etag("exams-available", examService.getAvailableExamVersion());
+        if (HttpCacheUtils.checkNotModified(request, etag)) {
+            return null;
+        }
         PageResult<Exam> result = examService.getAvailableExamPage(current, size, examName, examType);
         return Result.success(result);
     }
 
     /**
-     * 获取考试详情
+     * 获取考试详情（命中内容缓存时直接写出预序列化的JSON；支持 If-None-Match 条件请求，版本为缓存条目版本，
+     * 先于加载比较，304 时不查库）
      */
     @GetMapping("/{id}")
-    public Result<Exam> getExamDetail(@PathVariable Long id) {
-        Exam exam = examService.getById(id);
-        if (exam == null) {
+    public Result<CachedContent> getExamDetail(@PathVariable Long id, ServletWebRequest request) {
+        String key = ContentCache.examKey(id);
+        if (HttpCacheUtils.checkNotModified(request, HttpCacheUtils.etag("exam-" + id, contentCache.getVersion(key)))) {
+            return null;
+        }
+        CachedContent content = contentCache.get(key, () -> examService.getById(id));
+        return content == null ? Result.notFound("考试不存在") : Result.success(content);
+    }
+
+    /**
+     * 获取考试详情及全部考点余量（一次查询加载的聚合缓存；支持 If-None-Match 条件请求）
+     */
+    @GetMapping("/{id}/detail")
+    public Result<ExamDetailResponse> getExamDetailWithSites(@PathVariable Long id, ServletWebRequest request) {
+        String version = examDetailCache.getVersion(id);
+        if (version == null) {
             return Result.notFound("考试不存在");
         }
-        return Result.success(exam);
+        if (HttpCacheUtils.checkNotModified(request, HttpCacheUtils.etag("exam-detail-" + id, version))) {
+            return null;
+        }
+        ExamDetailResponse detail = examDetailCache.get(id);
+        return detail == null ? Result.notFound("考试不存在") : Result.success(detail);
+    }
+
+    /**
+     * 获取考试的考点列表（含剩余座位数，来自考试详情聚合缓存）
+     */
+    @GetMapping("/{id}/sites")
+    public Result<List<ExamSiteAvailability>> getExamSites(@PathVariable Long id, ServletWebRequest request) {
+        String version = examDetailCache.getVersion(id);
+        if (version == null) {
+            return Result.notFound("考试不存在");
+        }
+        if (HttpCacheUtils.checkNotModified(request, HttpCacheUtils.etag("exam-sites-" + id, version))) {
+            return null;
+        }
+        ExamDetailResponse detail = examDetailCache.get(id);
+        return detail == null ? Result.notFound("考试不存在") : Result.success(detail.getSites());
+    }
+
+    /**
+     * 推荐距离考生最近且仍有余量的考点（提供经纬度，或只提供所在城市）
+     */
+    @GetMapping("/{id}/sites/recommend")
+    public Result<List<SiteRecommendation>> recommendSites(@PathVariable Long id,
+                                                           @RequestParam(required = false) Double latitude,
+                                                           @RequestParam(required = false) Double longitude,
+                                                           @RequestParam(required = false) String city,
+                                                           @RequestParam(required = false) Integer k) {
+        return Result.success(examSiteRecommender.recommend(id, latitude, longitude, city, k));
     }
 
     /**
@@ -109,6 +188,35 @@ public class ExamController {
         return success ? Result.success() : Result.error("下架失败");
     }
 
+    /**
+     * 分配考场与座位（报名结束后执行，可重复执行）
+     */
+    @PostMapping("/{id}/seat-assignment")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Result<Map<String, Object>> assignSeats(@PathVariable Long id) {
+        return Result.success("分配完成", seatAssignmentService.assign(id));
+    }
+
+    /**
+     * 生成准考证（后台执行；restart=false 时从上次中断处继续）
+     */
+    @PostMapping("/{id}/tickets")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Result<Map<String, Object>> generateTickets(@PathVariable Long id,
+                                                      @RequestParam(defaultValue = "false") boolean restart) {
+        return Result.success("已开始生成", ticketGenerationService.start(id, restart));
+    }
+
+    /**
+     * 准考证生成进度
+     */
+    @GetMapping("/{id}/tickets/progress")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Result<Map<String, Object>> getTicketProgress(@PathVariable Long id) {
+        Map<String, Object> progress = ticketGenerationService.getProgress(id);
+        return progress == null ? Result.notFound("尚未生成准考证") : Result.success(progress);
+    }
+
     /**
      * 删除考试
      */
@@ -1,20 +1,26 @@
 package com.exam.controller;
 
 import com.exam.common.Result;
+import com.exam.dto.ChunkUploadInitRequest;
+import com.exam.dto.ChunkUploadStatus;
 import com.exam.security.CustomUserDetails;
+import com.exam.service.ChunkedUploadService;
+import com.exam.service.FileDownloadService;
 import com.exam.utils.FileUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.UrlPathHelper;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.validation.Valid;
 import javax.servlet.http.HttpServletResponse;
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.OutputStream;
 
 /**
  * 文件控制器
@@ -27,9 +33,17 @@ import java.io.OutputStream;
 @RequestMapping("/v1/files")
 public class FileController {
 
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
     @Autowired
     private FileUtils fileUtils;
 
+    @Autowired
+    private FileDownloadService fileDownloadService;
+
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+
     /**
      * 上传头像
      */
@@ -77,13 +91,83 @@ public class FileController {
     }
 
     /**
-     * 下载文件
+     * 初始化分片上传（证明材料、考试文件）
+     * POST /v1/files/chunked
+     */
+    @PostMapping("/chunked")
+    public Result<ChunkUploadStatus> initChunkedUpload(@AuthenticationPrincipal CustomUserDetails userDetails,
+                                                       @Valid @RequestBody ChunkUploadInitRequest request) throws IOException {
+        return Result.success(chunkedUploadService.init(request, userDetails));
+    }
+
+    /**
+     * 查询分片上传状态（断点续传时只补传缺失的分片）
+     * GET /v1/files/chunked/{uploadId}
+     */
+    @GetMapping("/chunked/{uploadId}")
+    public Result<ChunkUploadStatus> getChunkedUpload(@AuthenticationPrincipal CustomUserDetails userDetails,
+                                                      @PathVariable String uploadId) {
+        return Result.success(chunkedUploadService.getStatus(uploadId, userDetails));
+    }
+
+    /**
+     * 上传一个分片，请求体为分片的原始字节，可通过 X-Chunk-Sha256 请求头携带分片校验值
+     * PUT /v1/files/chunked/{uploadId}/{index}
+     */
+    @PutMapping("/chunked/{uploadId}/{index}")
+    public Result<ChunkUploadStatus> uploadChunk(@AuthenticationPrincipal CustomUserDetails userDetails,
+                                                 @PathVariable String uploadId,
+                                                 @PathVariable Integer index,
+                                                 @RequestHeader(value = "X-Chunk-Sha256", required = false) String checksum,
+                                                 HttpServletRequest request) throws IOException {
+        return Result.success(chunkedUploadService.writeChunk(uploadId, index, request.getInputStream(),
+                request.getContentLengthLong(), checksum, userDetails));
+    }
+
+    /**
+     * 完成分片上传，返回文件相对路径
+     * POST /v1/files/chunked/{uploadId}/complete
+     */
+    @PostMapping("/chunked/{uploadId}/complete")
+    public Result<ChunkUploadStatus> completeChunkedUpload(@AuthenticationPrincipal CustomUserDetails userDetails,
+                                                           @PathVariable String uploadId) throws IOException {
+        return Result.success("上传成功", chunkedUploadService.complete(uploadId, userDetails));
+    }
+
+    /**
+     * 取消分片上传
+     * DELETE /v1/files/chunked/{uploadId}
+     */
+    @DeleteMapping("/chunked/{uploadId}")
+    public Result<Void> cancelChunkedUpload(@AuthenticationPrincipal CustomUserDetails userDetails,
+                                            @PathVariable String uploadId) throws IOException {
+        chunkedUploadService.cancel(uploadId, userDetails);
+        return Result.success();
+    }
+
+    /**
+     * 下载文件（支持 Range 断点续传与条件请求）
+     * GET /v1/files/download/{相对路径}
      */
     @GetMapping("/download/**")
-    public void downloadFile(HttpServletResponse response) {
-        // 这里可以实现文件下载逻辑
-        // 由于路径是通配符，需要从request中获取完整路径
-        response.setStatus(HttpServletResponse.SC_NOT_IMPLEMENTED);
+    public void downloadFile(@AuthenticationPrincipal CustomUserDetails userDetails,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // 从请求URI解码一次得到路径，与路径匹配策略无关，不对已解码的路径再次解码（否则 %252e 会变成 .）
+        String path = UrlPathHelper.defaultInstance.getPathWithinApplication(request);
+        String pattern = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String relativePath = PATH_MATCHER.extractPathWithinPattern(pattern, path);
+        fileDownloadService.downloadUpload(relativePath, userDetails, request, response);
+    }
+
+    /**
+     * 下载准考证
+     * GET /v1/files/tickets/{registrationId}
+     */
+    @GetMapping("/tickets/{registrationId}")
+    public void downloadTicket(@AuthenticationPrincipal CustomUserDetails userDetails,
+                               @PathVariable Long registrationId,
+                               HttpServletRequest request, HttpServletResponse response) throws IOException {
+        fileDownloadService.downloadTicket(registrationId, userDetails, request, response);
     }
 
     /**
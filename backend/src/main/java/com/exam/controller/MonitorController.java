@@ -0,0 +1,288 @@
+package com.exam.controller;
+
+import com.exam.common.Result;
+import com.exam.security.JwtTokenProvider;
+import com.exam.security.LoginAttemptTracker;
+import com.exam.security.PasswordHashService;
+import com.exam.security.PrincipalCache;
+import com.exam.security.TokenRevocationList;
+import com.exam.service.AvailableExamIndex;
+import com.exam.service.ExamSnapshotCache;
+import com.exam.service.RegisteredUserIndex;
+import com.exam.service.SearchIndex;
+import com.exam.service.NoticeViewCounter;
+import com.exam.service.ContentCache;
+import com.exam.service.ExamDetailCache;
+import com.exam.service.ExamSiteRecommender;
+import com.exam.service.SeatAssignmentService;
+import com.exam.service.TicketGenerationService;
+import com.exam.service.FileDownloadService;
+import com.exam.service.ChunkedUploadService;
+import com.exam.service.ExamLifecycleScheduler;
+import com.exam.service.RegistrationWarmer;
+import com.exam.service.LoginRecordWriter;
+import com.exam.service.UsernameBloomFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 运行监控控制器
+ * 提供本地缓存、线程池等运行指标的查询接口
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Slf4j
+@RestController
+@RequestMapping("/v1/admin/monitor")
+@PreAuthorize("hasRole('ADMIN')")
+public class MonitorController {
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private TokenRevocationList revocationList;
+
+    @Autowired
+    private PasswordHashService passwordHashService;
+
+    @Autowired
+    private LoginAttemptTracker loginAttemptTracker;
+
+    @Autowired
+    private LoginRecordWriter loginRecordWriter;
+
+    @Autowired
+    private UsernameBloomFilter usernameBloomFilter;
+
+    @Autowired
+    private AvailableExamIndex availableExamIndex;
+
+    @Autowired
+    private ExamSnapshotCache examSnapshotCache;
+
+    @Autowired
+    private ExamDetailCache examDetailCache;
+
+    @Autowired
+    private ExamSiteRecommender examSiteRecommender;
+
+    @Autowired
+    private SeatAssignmentService seatAssignmentService;
+
+    @Autowired
+    private TicketGenerationService ticketGenerationService;
+
+    @Autowired
+    private FileDownloadService fileDownloadService;
+
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+
+    @Autowired
+    private RegisteredUserIndex registeredUserIndex;
+
+    @Autowired
+    private SearchIndex searchIndex;
+
+    @Autowired
+    private NoticeViewCounter noticeViewCounter;
+
+    @Autowired
+    private ContentCache contentCache;
+
+    @Autowired
+    private ExamLifecycleScheduler examLifecycleScheduler;
+
+    @Autowired
+    private RegistrationWarmer registrationWarmer;
+
+    /**
+     * 认证主体缓存命中统计
+     */
+    @GetMapping("/principal-cache")
+    public Result<Map<String, Object>> getPrincipalCacheStats() {
+        return Result.success(principalCache.getStats());
+    }
+
+    /**
+     * 已验签Token缓存命中统计
+     */
+    @GetMapping("/token-cache")
+    public Result<Map<String, Object>> getTokenCacheStats() {
+        return Result.success(jwtTokenProvider.getVerifiedCacheStats());
+    }
+
+    /**
+     * 令牌吊销列表统计
+     */
+    @GetMapping("/token-revocation")
+    public Result<Map<String, Object>> getTokenRevocationStats() {
+        return Result.success(revocationList.getStats());
+    }
+
+    /**
+     * 密码哈希线程池指标
+     */
+    @GetMapping("/password-hash")
+    public Result<Map<String, Object>> getPasswordHashStats() {
+        return Result.success(passwordHashService.getStats());
+    }
+
+    /**
+     * 登录失败跟踪统计
+     */
+    @GetMapping("/login-attempts")
+    public Result<Map<String, Object>> getLoginAttemptStats() {
+        return Result.success(loginAttemptTracker.getStats());
+    }
+
+    /**
+     * 登录记录异步写入统计
+     */
+    @GetMapping("/login-records")
+    public Result<Map<String, Object>> getLoginRecordStats() {
+        return Result.success(loginRecordWriter.getStats());
+    }
+
+    /**
+     * 用户名布隆过滤器统计
+     */
+    @GetMapping("/username-filter")
+    public Result<Map<String, Object>> getUsernameFilterStats() {
+        return Result.success(usernameBloomFilter.getStats());
+    }
+
+    /**
+     * 可报名考试索引统计
+     */
+    @GetMapping("/available-exams")
+    public Result<Map<String, Object>> getAvailableExamIndexStats() {
+        return Result.success(availableExamIndex.getStats());
+    }
+
+    /**
+     * 考试快照缓存统计
+     */
+    @GetMapping("/exam-snapshots")
+    public Result<Map<String, Object>> getExamSnapshotCacheStats() {
+        return Result.success(examSnapshotCache.getStats());
+    }
+
+    /**
+     * 已报名用户索引统计
+     */
+    @GetMapping("/registered-users")
+    public Result<Map<String, Object>> getRegisteredUserIndexStats() {
+        return Result.success(registeredUserIndex.getStats());
+    }
+
+    /**
+     * 全文检索索引统计
+     */
+    @GetMapping("/search-index")
+    public Result<Map<String, Object>> getSearchIndexStats() {
+        return Result.success(searchIndex.getStats());
+    }
+
+    /**
+     * 公告浏览计数统计
+     */
+    @GetMapping("/notice-views")
+    public Result<Map<String, Object>> getNoticeViewStats() {
+        return Result.success(noticeViewCounter.getStats());
+    }
+
+    /**
+     * 内容缓存统计
+     */
+    @GetMapping("/content-cache")
+    public Result<Map<String, Object>> getContentCacheStats() {
+        return Result.success(contentCache.getStats());
+    }
+
+    /**
+     * 考试生命周期调度统计
+     */
+    @GetMapping("/exam-lifecycle")
+    public Result<Map<String, Object>> getExamLifecycleStats() {
+        return Result.success(examLifecycleScheduler.getStats());
+    }
+
+    /**
+     * 报名预热状态（各考试的预热步骤耗时与加载数量）
+     */
+    @GetMapping("/exam-warmup")
+    public Result<List<Map<String, Object>>> getExamWarmupStatuses() {
+        return Result.success(registrationWarmer.getStatuses());
+    }
+
+    /**
+     * 立即预热指定考试
+     */
+    @PostMapping("/exam-warmup/{examId}")
+    public Result<Void> warmUpExam(@PathVariable Long examId) {
+        return registrationWarmer.warmUp(examId) ? Result.success() : Result.notFound("考试不存在");
+    }
+
+    /**
+     * 考试详情聚合缓存统计
+     */
+    @GetMapping("/exam-details")
+    public Result<Map<String, Object>> getExamDetailCacheStats() {
+        return Result.success(examDetailCache.getStats());
+    }
+
+    /**
+     * 就近考点推荐统计
+     */
+    @GetMapping("/site-recommend")
+    public Result<Map<String, Object>> getSiteRecommendStats() {
+        return Result.success(examSiteRecommender.getStats());
+    }
+
+    /**
+     * 各考试最近一次考场座位分配结果
+     */
+    @GetMapping("/seat-assignment")
+    public Result<List<Map<String, Object>>> getSeatAssignmentResults() {
+        return Result.success(seatAssignmentService.getLastResults());
+    }
+
+    /**
+     * 各考试准考证生成进度
+     */
+    @GetMapping("/ticket-generation")
+    public Result<List<Map<String, Object>>> getTicketGenerationProgress() {
+        return Result.success(ticketGenerationService.getAllProgress());
+    }
+
+    /**
+     * 文件下载统计（含准考证下载次数缓冲）
+     */
+    @GetMapping("/file-download")
+    public Result<Map<String, Object>> getFileDownloadStats() {
+        return Result.success(fileDownloadService.getStats());
+    }
+
+    /**
+     * 分片上传统计
+     */
+    @GetMapping("/chunked-upload")
+    public Result<Map<String, Object>> getChunkedUploadStats() {
+        return Result.success(chunkedUploadService.getStats());
+    }
+}
@@ -1,15 +1,18 @@
 package com.exam.controller;
 
+import com.exam.common.CachedContent;
 import com.exam.common.PageResult;
 import com.exam.common.Result;
 import com.exam.entity.Notice;
+import com.exam.service.ContentCache;
 import com.exam.service.NoticeService;
+import com.exam.service.NoticeViewCounter;
+import com.exam.utils.HttpCacheUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.context.request.ServletWebRequest;
 
 /**
  * 公告控制器
@@ -25,41 +28,66 @@ public class NoticeController {
     @Autowired
     private NoticeService noticeService;
 
+    @Autowired
+    private NoticeViewCounter noticeViewCounter;
+
+    @Autowired
+    private ContentCache contentCache;
+
     /**
-     * 分页查询公告列表
+     * 分页查询公告列表（支持 If-None-Match 条件请求，版本为缓存条目版本，先于加载比较）
      */
     @GetMapping
-    public Result<PageResult<Notice>> getNoticePage(@RequestParam(defaultValue = "1") Integer current,
-                                                   @RequestParam(defaultValue = "10") Integer size,
-                                                   @RequestParam(required = false) String title,
-                                                   @RequestParam(required = false) String type) {
-        PageResult<Notice> result = noticeService.getPublishedNoticePage(current, size, type);
-        return Result.success(result);
+    public Result<CachedContent> getNoticePage(@RequestParam(defaultValue = "1") Integer current,
+                                               @RequestParam(defaultValue = "10") Integer size,
+                                               @RequestParam(required = false) String title,
+                                               @RequestParam(required = false) String type,
+                                               ServletWebRequest request) {
+        String key = contentCache.noticePageKey(current, size, type);
+        if (HttpCacheUtils.checkNotModified(request, HttpCacheUtils.etag("notices", contentCache.getVersion(key)))) {
+            return null;
+        }
+        return Result.success(contentCache.get(key, () -> noticeService.getPublishedNoticePage(current, size, type)));
     }
 
     /**
-     * 获取公告详情
+     * 获取公告详情（命中内容缓存时直接写出预序列化的JSON，浏览次数随缓存刷新；支持 If-None-Match 条件请求）
      */
     @GetMapping("/{id}")
-    public Result<Notice> getNoticeDetail(@PathVariable Long id) {
-        Notice notice = noticeService.getById(id);
-        if (notice == null || notice.getStatus() != 1) {
+    public Result<CachedContent> getNoticeDetail(@PathVariable Long id, ServletWebRequest request) {
+        String key = ContentCache.noticeKey(id);
+        if (HttpCacheUtils.checkNotModified(request, HttpCacheUtils.etag("notice-" + id, contentCache.getVersion(key)))) {
+            // 304 重新校验也计为一次浏览
+            noticeService.incrementViewCount(id);
+            return null;
+        }
+        CachedContent content = contentCache.get(key, () -> {
+            Notice notice = noticeService.getById(id);
+            if (notice == null || notice.getStatus() != 1) {
+                return null;
+            }
+            noticeViewCounter.applyPending(notice);
+            return notice;
+        });
+        if (content == null) {
             return Result.notFound("公告不存在");
         }
-        
+
         // 增加浏览次数
         noticeService.incrementViewCount(id);
-        
-        return Result.success(notice);
+        return Result.success(content);
     }
 
     /**
-     * 获取置顶公告
+     * 获取置顶公告（支持 If-None-Match 条件请求）
      */
     @GetMapping("/top")
-    public Result<List<Notice>> getTopNotices() {
-        List<Notice> notices = noticeService.getTopNotices();
-        return Result.success(notices);
+    public Result<CachedContent> getTopNotices(ServletWebRequest request) {
+        String key = ContentCache.NOTICE_TOP;
+        if (HttpCacheUtils.checkNotModified(request, HttpCacheUtils.etag("notices-top", contentCache.getVersion(key)))) {
+            return null;
+        }
+        return Result.success(contentCache.get(key, () -> noticeService.getTopNotices()));
     }
 
     /**
@@ -93,7 +121,7 @@ public class NoticeController {
     @PreAuthorize("hasRole('ADMIN')")
     public Result<Void> updateNotice(@PathVariable Long id, @RequestBody Notice notice) {
         notice.setId(id);
-        boolean success = noticeService.updateById(notice);
+        boolean success = noticeService.updateNotice(notice);
         return success ? Result.success() : Result.error("更新失败");
     }
 
@@ -103,7 +131,7 @@ public class NoticeController {
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public Result<Void> deleteNotice(@PathVariable Long id) {
-        boolean success = noticeService.removeById(id);
+        boolean success = noticeService.deleteNotice(id);
         return success ? Result.success() : Result.error("删除失败");
     }
 }
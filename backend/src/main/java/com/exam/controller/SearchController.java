@@ -0,0 +1,68 @@
+package com.exam.controller;
+
+import com.exam.common.PageResult;
+import com.exam.common.Result;
+import com.exam.entity.Exam;
+import com.exam.entity.Notice;
+import com.exam.service.SearchIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 全文检索控制器
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Slf4j
+@RestController
+@RequestMapping("/v1/search")
+public class SearchController {
+
+    @Autowired
+    private SearchIndex searchIndex;
+
+    /**
+     * 检索考试（不含草稿）
+     */
+    @GetMapping("/exams")
+    public Result<PageResult<Exam>> searchExams(@RequestParam String keyword,
+                                               @RequestParam(defaultValue = "1") Integer current,
+                                               @RequestParam(defaultValue = "10") Integer size) {
+        return Result.success(searchIndex.searchExams(keyword, current, size, false));
+    }
+
+    /**
+     * 检索已发布的公告
+     */
+    @GetMapping("/notices")
+    public Result<PageResult<Notice>> searchNotices(@RequestParam String keyword,
+                                                   @RequestParam(defaultValue = "1") Integer current,
+                                                   @RequestParam(defaultValue = "10") Integer size) {
+        return Result.success(searchIndex.searchNotices(keyword, current, size, false));
+    }
+
+    /**
+     * 管理员检索考试（含草稿）
+     */
+    @GetMapping("/admin/exams")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Result<PageResult<Exam>> searchAllExams(@RequestParam String keyword,
+                                                  @RequestParam(defaultValue = "1") Integer current,
+                                                  @RequestParam(defaultValue = "10") Integer size) {
+        return Result.success(searchIndex.searchExams(keyword, current, size, true));
+    }
+
+    /**
+     * 管理员检索公告（含已下架）
+     */
+    @GetMapping("/admin/notices")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Result<PageResult<Notice>> searchAllNotices(@RequestParam String keyword,
+                                                      @RequestParam(defaultValue = "1") Integer current,
+                                                      @RequestParam(defaultValue = "10") Integer size) {
+        return Result.success(searchIndex.searchNotices(keyword, current, size, true));
+    }
+}
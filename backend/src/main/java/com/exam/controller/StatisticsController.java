@@ -1,6 +1,8 @@
 package com.exam.controller;
 
 import com.exam.common.Result;
+import com.exam.dto.AnalyticsSliceRequest;
+import com.exam.service.RegistrationAnalyticsService;
 import com.exam.service.StatisticsService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,6 +24,9 @@ public class StatisticsController {
     @Autowired
     private StatisticsService statisticsService;
 
+    @Autowired
+    private RegistrationAnalyticsService registrationAnalyticsService;
+
     /**
      * 获取管理端仪表盘统计数据
      *
@@ -113,4 +118,39 @@ public class StatisticsController {
         log.info("获取按考试统计的详细数据");
         return statisticsService.getExamDetailStats();
     }
+
+    /**
+     * 报名数据切片统计（任意维度筛选与分组）
+     *
+     * @param request 切片请求
+     * @return Result
+     */
+    @PostMapping("/slice")
+    public Result sliceRegistrations(@RequestBody AnalyticsSliceRequest request) {
+        log.info("报名数据切片统计，filters={}, groupBy={}", request.getFilters(), request.getGroupBy());
+        return Result.success(registrationAnalyticsService.slice(request));
+    }
+
+    /**
+     * 获取切片统计的维度取值
+     *
+     * @return Result
+     */
+    @GetMapping("/slice/dimensions")
+    public Result getSliceDimensions() {
+        log.info("获取切片统计维度取值");
+        return Result.success(registrationAnalyticsService.getDimensions());
+    }
+
+    /**
+     * 立即刷新切片统计快照
+     *
+     * @return Result
+     */
+    @PostMapping("/slice/refresh")
+    public Result refreshSliceSnapshot() {
+        log.info("刷新切片统计快照");
+        int rows = registrationAnalyticsService.refreshSnapshot().getRowCount();
+        return Result.success("刷新成功", rows);
+    }
 }
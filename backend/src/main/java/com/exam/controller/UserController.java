@@ -2,18 +2,23 @@ package com.exam.controller;
 
 import com.exam.common.Result;
 import com.exam.dto.LoginRequest;
+import com.exam.dto.RefreshTokenRequest;
 import com.exam.dto.RegisterRequest;
+import com.exam.dto.TokenResponse;
 import com.exam.dto.UserUpdateRequest;
 import com.exam.entity.SysUser;
 import com.exam.security.CustomUserDetails;
 import com.exam.service.SysUserService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * 用户控制器
@@ -42,21 +47,49 @@ public class UserController {
         return Result.success("注册成功", user);
     }
 
+    /**
+     * 检查用户名是否可注册
+     */
+    @GetMapping("/check-username")
+    public Result<Map<String, Object>> checkUsername(@RequestParam String username, HttpServletRequest httpRequest) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("username", username);
+        result.put("available", userService.isUsernameAvailable(username, getClientIp(httpRequest)));
+        return Result.success(result);
+    }
+
     /**
      * 用户登录
      */
     @PostMapping("/login")
-    public Result<String> login(@Valid @RequestBody LoginRequest request, HttpServletRequest httpRequest) {
-        String token = userService.login(request);
-        
-        // 更新登录信息
+    public Result<TokenResponse> login(@Valid @RequestBody LoginRequest request, HttpServletRequest httpRequest) {
+        // 登录信息由服务层异步批量写入
         String loginIp = getClientIp(httpRequest);
-        SysUser user = userService.getByUsername(request.getUsername());
-        userService.updateLoginInfo(user.getId(), loginIp);
+        TokenResponse token = userService.login(request, loginIp);
         
         return Result.success("登录成功", token);
     }
 
+    /**
+     * 刷新访问令牌
+     */
+    @PostMapping("/refresh-token")
+    public Result<TokenResponse> refreshToken(@Valid @RequestBody RefreshTokenRequest request) {
+        return Result.success(userService.refreshToken(request.getRefreshToken()));
+    }
+
+    /**
+     * 退出登录
+     */
+    @PostMapping("/logout")
+    public Result<Void> logout(@RequestBody(required = false) RefreshTokenRequest request,
+                               HttpServletRequest httpRequest) {
+        String bearerToken = httpRequest.getHeader("Authorization");
+        String accessToken = bearerToken != null && bearerToken.startsWith("Bearer ") ? bearerToken.substring(7) : null;
+        userService.logout(accessToken, request != null ? request.getRefreshToken() : null);
+        return Result.success();
+    }
+
     /**
      * 获取当前用户信息
      */
@@ -91,6 +124,26 @@ public class UserController {
         return success ? Result.success() : Result.error("密码修改失败");
     }
 
+    /**
+     * 启用/禁用账号（管理员）
+     */
+    @PutMapping("/{id}/status")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Result<Void> updateStatus(@PathVariable Long id, @RequestParam Integer status) {
+        boolean success = userService.updateStatus(id, status);
+        return success ? Result.success() : Result.error("状态更新失败");
+    }
+
+    /**
+     * 强制用户下线（管理员）
+     */
+    @PostMapping("/{id}/force-logout")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Result<Void> forceLogout(@PathVariable Long id) {
+        boolean success = userService.forceLogout(id);
+        return success ? Result.success() : Result.error("操作失败");
+    }
+
     /**
      * 获取客户端IP地址
      */
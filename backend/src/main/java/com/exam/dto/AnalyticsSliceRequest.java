@@ -0,0 +1,38 @@
+package com.exam.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 报名数据切片统计请求DTO
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Data
+public class AnalyticsSliceRequest {
+
+    /**
+     * 筛选条件：维度 -> 取值列表（同一维度内为"或"，不同维度间为"与"）
+     * 维度取值：exam/examType/province/city/auditStatus/paymentStatus
+     */
+    private Map<String, List<String>> filters;
+
+    /**
+     * 报名开始日期（含）
+     */
+    private LocalDate startDate;
+
+    /**
+     * 报名结束日期（含）
+     */
+    private LocalDate endDate;
+
+    /**
+     * 分组维度（最多3个，可包含 date）
+     */
+    private List<String> groupBy;
+}
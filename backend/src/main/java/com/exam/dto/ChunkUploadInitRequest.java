@@ -0,0 +1,47 @@
+package com.exam.dto;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+
+/**
+ * 分片上传初始化请求DTO
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Data
+public class ChunkUploadInitRequest {
+
+    /**
+     * 文件类型：material-证明材料，exam-考试文件（管理员）
+     */
+    @NotBlank(message = "文件类型不能为空")
+    @Pattern(regexp = "^(material|exam)$", message = "文件类型不正确")
+    private String type;
+
+    /**
+     * 原始文件名
+     */
+    @NotBlank(message = "文件名不能为空")
+    private String fileName;
+
+    /**
+     * 文件大小（字节）
+     */
+    @NotNull(message = "文件大小不能为空")
+    private Long fileSize;
+
+    /**
+     * 考试ID（上传考试文件时必填）
+     */
+    private Long examId;
+
+    /**
+     * 整个文件的 SHA-256（十六进制，可选，提供时组装完成后校验）
+     */
+    @Pattern(regexp = "^[0-9a-fA-F]{64}$", message = "文件校验值格式不正确")
+    private String sha256;
+}
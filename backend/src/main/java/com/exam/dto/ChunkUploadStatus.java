@@ -0,0 +1,55 @@
+package com.exam.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 分片上传状态（断点续传时据此只补传缺失的分片）
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Data
+public class ChunkUploadStatus {
+
+    /**
+     * 上传ID
+     */
+    private String uploadId;
+
+    /**
+     * 原始文件名
+     */
+    private String fileName;
+
+    /**
+     * 文件大小（字节）
+     */
+    private Long fileSize;
+
+    /**
+     * 分片大小（字节，最后一片可能更小）
+     */
+    private Integer chunkSize;
+
+    /**
+     * 分片总数
+     */
+    private Integer chunkCount;
+
+    /**
+     * 已接收的分片数
+     */
+    private Integer receivedCount;
+
+    /**
+     * 尚未接收的分片序号（从0开始）
+     */
+    private List<Integer> missingChunks;
+
+    /**
+     * 组装完成后的文件相对路径
+     */
+    private String filePath;
+}
@@ -0,0 +1,31 @@
+package com.exam.dto;
+
+import com.exam.entity.Exam;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 考试详情聚合（考试及其全部考点的余量）
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Data
+public class ExamDetailResponse {
+
+    /**
+     * 考试ID
+     */
+    private Long examId;
+
+    /**
+     * 考试信息
+     */
+    private Exam exam;
+
+    /**
+     * 考点列表（按考点ID排序）
+     */
+    private List<ExamSiteAvailability> sites;
+}
@@ -0,0 +1,80 @@
+package com.exam.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * 考点余量（考试详情聚合中的考点信息，不含联系人等管理字段）
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Data
+public class ExamSiteAvailability {
+
+    /**
+     * 考点ID
+     */
+    private Long id;
+
+    /**
+     * 考试ID
+     */
+    private Long examId;
+
+    /**
+     * 考点名称
+     */
+    private String siteName;
+
+    /**
+     * 省份
+     */
+    private String province;
+
+    /**
+     * 城市
+     */
+    private String city;
+
+    /**
+     * 区/县
+     */
+    private String district;
+
+    /**
+     * 详细地址
+     */
+    private String address;
+
+    /**
+     * 容纳人数
+     */
+    private Integer capacity;
+
+    /**
+     * 当前报名人数
+     */
+    private Integer currentCount;
+
+    /**
+     * 剩余座位数
+     */
+    private Integer remainingSeats;
+
+    /**
+     * 经度
+     */
+    private BigDecimal longitude;
+
+    /**
+     * 纬度
+     */
+    private BigDecimal latitude;
+
+    /**
+     * 状态(1-启用 2-禁用)
+     */
+    private Integer status;
+}
@@ -0,0 +1,39 @@
+package com.exam.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 待写入的登录记录（最后登录时间、IP及是否清除失败次数）
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoginRecord {
+
+    /**
+     * 用户ID
+     */
+    private Long userId;
+
+    /**
+     * 登录时间
+     */
+    private LocalDateTime loginTime;
+
+    /**
+     * 登录IP
+     */
+    private String loginIp;
+
+    /**
+     * 是否清除登录失败次数与已过期的锁定时间
+     */
+    private boolean resetFailCount;
+}
@@ -0,0 +1,21 @@
+package com.exam.dto;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotBlank;
+
+/**
+ * 刷新令牌请求DTO
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Data
+public class RefreshTokenRequest {
+
+    /**
+     * 刷新令牌
+     */
+    @NotBlank(message = "刷新令牌不能为空")
+    private String refreshToken;
+}
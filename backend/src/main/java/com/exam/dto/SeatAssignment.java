@@ -0,0 +1,33 @@
+package com.exam.dto;
+
+import lombok.Data;
+
+/**
+ * 考场座位分配（报名ID、考点及分配结果）
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Data
+public class SeatAssignment {
+
+    /**
+     * 报名ID
+     */
+    private Long id;
+
+    /**
+     * 考点ID
+     */
+    private Long examSiteId;
+
+    /**
+     * 考场号
+     */
+    private String examRoom;
+
+    /**
+     * 座位号
+     */
+    private String seatNo;
+}
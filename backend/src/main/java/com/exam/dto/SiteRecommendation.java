@@ -0,0 +1,20 @@
+package com.exam.dto;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * 推荐考点（附带与考生位置的距离）
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class SiteRecommendation extends ExamSiteAvailability {
+
+    /**
+     * 与考生位置的球面距离，单位：千米（按城市推荐且考点无坐标时为空）
+     */
+    private Double distanceKm;
+}
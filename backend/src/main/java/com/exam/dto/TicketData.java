@@ -0,0 +1,58 @@
+package com.exam.dto;
+
+import lombok.Data;
+
+/**
+ * 准考证渲染数据（报名、考生与考点信息）
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Data
+public class TicketData {
+
+    /**
+     * 报名ID
+     */
+    private Long registrationId;
+
+    /**
+     * 准考证号
+     */
+    private String admissionTicketNo;
+
+    /**
+     * 考场号
+     */
+    private String examRoom;
+
+    /**
+     * 座位号
+     */
+    private String seatNo;
+
+    /**
+     * 报考科目
+     */
+    private String subject;
+
+    /**
+     * 身份证号(AES加密)
+     */
+    private String idCard;
+
+    /**
+     * 考生姓名
+     */
+    private String realName;
+
+    /**
+     * 考点名称
+     */
+    private String siteName;
+
+    /**
+     * 考点地址
+     */
+    private String siteAddress;
+}
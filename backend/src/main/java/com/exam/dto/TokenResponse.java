@@ -0,0 +1,37 @@
+package com.exam.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 登录/刷新令牌响应DTO
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenResponse {
+
+    /**
+     * 访问令牌(短期有效，携带用户ID、角色与安全版本号)
+     */
+    private String accessToken;
+
+    /**
+     * 刷新令牌(长期有效，仅用于换取新的访问令牌)
+     */
+    private String refreshToken;
+
+    /**
+     * 访问令牌有效期，单位：秒
+     */
+    private Long expiresIn;
+
+    /**
+     * 令牌类型
+     */
+    private String tokenType;
+}
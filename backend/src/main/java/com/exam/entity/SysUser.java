@@ -135,6 +135,12 @@ public class SysUser implements Serializable {
     @TableField("lock_until")
     private LocalDateTime lockUntil;
 
+    /**
+     * 令牌安全版本号(禁用/改密时递增，旧令牌随之失效)
+     */
+    @TableField("token_version")
+    private Integer tokenVersion;
+
     /**
      * 创建时间
      */
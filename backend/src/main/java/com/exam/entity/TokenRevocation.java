@@ -0,0 +1,58 @@
+package com.exam.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 令牌吊销表实体类
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@TableName("token_revocation")
+public class TokenRevocation implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 主键ID
+     */
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 令牌ID(单个令牌吊销)
+     */
+    @TableField("jti")
+    private String jti;
+
+    /**
+     * 用户ID
+     */
+    @TableField("user_id")
+    private Long userId;
+
+    /**
+     * 强制下线: 低于该版本号的令牌全部失效
+     */
+    @TableField("token_version")
+    private Integer tokenVersion;
+
+    /**
+     * 过期时间(令牌到期后记录失效)
+     */
+    @TableField("expire_time")
+    private LocalDateTime expireTime;
+
+    /**
+     * 创建时间
+     */
+    @TableField(value = "create_time", fill = FieldFill.INSERT)
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,34 @@
+package com.exam.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 考试变更事件
+ * 考试创建、修改、发布、下架、删除及状态随时间推进时发布，监听方应在事务提交后处理（@TransactionalEventListener）
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Getter
+public class ExamChangedEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 变更类型（REGISTRATION_OPENED/REGISTRATION_CLOSED/FINISHED 由生命周期调度器按时间触发）
+     */
+    public enum Action {
+        CREATED, UPDATED, PUBLISHED, UNPUBLISHED, DELETED, REGISTRATION_OPENED, REGISTRATION_CLOSED, FINISHED
+    }
+
+    private final Long examId;
+
+    private final Action action;
+
+    public ExamChangedEvent(Object source, Long examId, Action action) {
+        super(source);
+        this.examId = examId;
+        this.action = action;
+    }
+}
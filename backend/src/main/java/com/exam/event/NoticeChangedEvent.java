@@ -0,0 +1,34 @@
+package com.exam.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 公告变更事件
+ * 公告创建、修改、删除时发布，监听方应在事务提交后处理（@TransactionalEventListener）
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Getter
+public class NoticeChangedEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 变更类型
+     */
+    public enum Action {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final Long noticeId;
+
+    private final Action action;
+
+    public NoticeChangedEvent(Object source, Long noticeId, Action action) {
+        super(source);
+        this.noticeId = noticeId;
+        this.action = action;
+    }
+}
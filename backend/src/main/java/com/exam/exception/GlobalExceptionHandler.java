@@ -2,6 +2,7 @@ package com.exam.exception;
 
 import com.exam.common.Result;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -27,6 +28,16 @@ import java.util.Set;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    /**
+     * 服务繁忙（资源池已满，快速拒绝）
+     */
+    @ExceptionHandler(ServiceUnavailableException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public Result<Void> handleServiceUnavailableException(ServiceUnavailableException e) {
+        log.warn("服务繁忙: {}", e.getMessage());
+        return Result.error(e.getCode(), e.getMessage());
+    }
+
     /**
      * 业务异常
      */
@@ -37,6 +48,16 @@ public class GlobalExceptionHandler {
         return Result.error(e.getCode(), e.getMessage());
     }
 
+    /**
+     * 唯一索引冲突（并发写入时由数据库兜底）
+     */
+    @ExceptionHandler(DuplicateKeyException.class)
+    @ResponseStatus(HttpStatus.OK)
+    public Result<Void> handleDuplicateKeyException(DuplicateKeyException e) {
+        log.warn("唯一索引冲突: {}", e.getMessage());
+        return Result.error(409, "数据已存在，请勿重复提交");
+    }
+
     /**
      * 参数校验异常 - @RequestBody
      */
@@ -0,0 +1,21 @@
+package com.exam.exception;
+
+/**
+ * 服务繁忙异常
+ * 资源池已满时快速拒绝请求，由全局异常处理器返回 HTTP 503
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+public class ServiceUnavailableException extends BusinessException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ServiceUnavailableException(String message) {
+        super(503, message);
+    }
+
+    public ServiceUnavailableException(String message, Throwable cause) {
+        super(503, message, cause);
+    }
+}
@@ -3,6 +3,7 @@ package com.exam.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.exam.dto.ExamDetailResponse;
 import com.exam.entity.Exam;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
@@ -61,4 +62,26 @@ public interface ExamMapper extends BaseMapper<Exam> {
      * @return 更新行数
      */
     int decrementCurrentCount(@Param("examId") Long examId);
+
+    /**
+     * 按时间推进考试状态（条件更新，多节点同时执行时只有一个节点成功）
+     * 
+     * @param examId     考试ID
+     * @param fromStatus 当前状态
+     * @param toStatus   目标状态(3-报名中 4-报名结束 5-已结束)
+     * @param now        判断时刻
+     * @return 更新行数
+     */
+    int transitionStatus(@Param("examId") Long examId,
+                         @Param("fromStatus") Integer fromStatus,
+                         @Param("toStatus") Integer toStatus,
+                         @Param("now") LocalDateTime now);
+
+    /**
+     * 一次查询考试及其全部考点（LEFT JOIN，考点按ID排序）
+     * 
+     * @param examId 考试ID
+     * @return 考试详情聚合，考试不存在时返回 null
+     */
+    ExamDetailResponse selectDetailWithSites(@Param("examId") Long examId);
 }
@@ -8,6 +8,7 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 公告表Mapper接口
@@ -55,4 +56,12 @@ public interface NoticeMapper extends BaseMapper<Notice> {
      * @return 更新行数
      */
     int incrementViewCount(@Param("noticeId") Long noticeId);
+
+    /**
+     * 批量累加浏览次数（不修改更新时间）
+     * 
+     * @param deltas 公告ID -> 浏览次数增量
+     * @return 更新行数
+     */
+    int batchIncrementViewCount(@Param("deltas") Map<Long, Long> deltas);
 }
@@ -3,11 +3,16 @@ package com.exam.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.exam.analytics.RegistrationFact;
+import com.exam.dto.SeatAssignment;
+import com.exam.dto.TicketData;
 import com.exam.entity.Registration;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 报名表Mapper接口
@@ -76,4 +81,79 @@ public interface RegistrationMapper extends BaseMapper<Registration> {
      * @return 更新行数
      */
     int updateDownloadCount(@Param("registrationId") Long registrationId);
+
+    /**
+     * 批量累加准考证下载次数（CASE 语句一次更新多行），并记录首次下载时间
+     * 
+     * @param deltas 报名ID -> 下载次数增量
+     * @return 更新行数
+     */
+    int batchIncrementDownloadCount(@Param("deltas") Map<Long, Long> deltas);
+
+    /**
+     * 流式读取报名分析事实行（关联考试类型与考点省市，按考试ID排序）
+     *
+     * @param handler 逐行处理器
+     */
+    void streamAnalyticsFacts(ResultHandler<RegistrationFact> handler);
+
+    /**
+     * 统计考试的报名人数
+     *
+     * @param examId 考试ID
+     * @return 报名人数
+     */
+    int countByExamId(@Param("examId") Long examId);
+
+    /**
+     * 流式读取考试的已报名用户ID
+     *
+     * @param examId  考试ID
+     * @param handler 逐行处理器
+     */
+    void streamUserIdsByExamId(@Param("examId") Long examId, ResultHandler<Long> handler);
+
+    /**
+     * 流式查询考试中审核通过且已缴费的报名（按考点、报名ID排序），用于分配考场座位
+     * 
+     * @param examId  考试ID
+     * @param handler 逐行处理
+     */
+    void streamSeatCandidates(@Param("examId") Long examId, ResultHandler<SeatAssignment> handler);
+
+    /**
+     * 批量写入考场号与座位号（CASE 语句一次更新多行）
+     * 
+     * @param assignments 分配结果
+     * @return 更新行数
+     */
+    int batchUpdateSeats(@Param("assignments") List<SeatAssignment> assignments);
+
+    /**
+     * 清除已不符合条件（取消审核或退费）报名的考场座位
+     * 
+     * @param examId 考试ID
+     * @return 更新行数
+     */
+    int clearIneligibleSeats(@Param("examId") Long examId);
+
+    /**
+     * 统计考试中已分配座位、可生成准考证的报名数
+     * 
+     * @param examId 考试ID
+     * @return 报名数
+     */
+    int countTicketCandidates(@Param("examId") Long examId);
+
+    /**
+     * 按报名ID分批查询准考证渲染数据（键集分页，只返回已分配座位的已缴费报名）
+     * 
+     * @param examId  考试ID
+     * @param afterId 上一批最后一个报名ID
+     * @param limit   批大小
+     * @return 渲染数据
+     */
+    List<TicketData> selectTicketBatch(@Param("examId") Long examId,
+                                       @Param("afterId") Long afterId,
+                                       @Param("limit") int limit);
 }
@@ -1,9 +1,15 @@
 package com.exam.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.exam.dto.LoginRecord;
 import com.exam.entity.SysUser;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 
 /**
  * 用户表Mapper接口
@@ -46,4 +52,51 @@ public interface SysUserMapper extends BaseMapper<SysUser> {
      * @return 更新行数
      */
     int resetLoginFailCount(@Param("userId") Long userId);
+
+    /**
+     * 锁定账号
+     * 
+     * @param userId 用户ID
+     * @param lockUntil 锁定截止时间
+     * @param failCount 触发锁定时的失败次数
+     * @return 更新行数
+     */
+    int lockUser(@Param("userId") Long userId,
+                 @Param("lockUntil") LocalDateTime lockUntil,
+                 @Param("failCount") Integer failCount);
+
+    /**
+     * 批量写回登录失败次数
+     * 
+     * @param counts 用户名 -> 失败次数
+     * @return 更新行数
+     */
+    int batchUpdateLoginFailCount(@Param("counts") Map<String, Integer> counts);
+
+    /**
+     * 批量写入登录记录（最后登录时间、IP，按需清除失败次数）
+     * 
+     * @param records 登录记录
+     * @return 更新行数
+     */
+    int batchUpdateLoginRecord(@Param("records") List<LoginRecord> records);
+
+    /**
+     * 一次查询统计用户名、手机号、身份证号的重复数量
+     * 
+     * @param username 用户名
+     * @param phone 手机号(已加密)，可为空
+     * @param idCard 身份证号(已加密)，可为空
+     * @return usernameCount、phoneCount、idCardCount
+     */
+    Map<String, Object> countDuplicates(@Param("username") String username,
+                                        @Param("phone") String phone,
+                                        @Param("idCard") String idCard);
+
+    /**
+     * 流式读取全部用户名（用于构建用户名布隆过滤器）
+     * 
+     * @param handler 逐行处理器
+     */
+    void streamUsernames(ResultHandler<String> handler);
 }
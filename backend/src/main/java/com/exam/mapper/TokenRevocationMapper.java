@@ -0,0 +1,15 @@
+package com.exam.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.exam.entity.TokenRevocation;
+import org.apache.ibatis.annotations.Mapper;
+
+/**
+ * 令牌吊销表Mapper接口
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Mapper
+public interface TokenRevocationMapper extends BaseMapper<TokenRevocation> {
+}
@@ -0,0 +1,141 @@
+package com.exam.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 自适应 BCrypt 密码编码器
+ * fixed 模式使用配置的固定强度；adaptive 模式在启动时实测各强度的哈希耗时，
+ * 选取不超过耗时预算的最大强度（不低于最小强度）。
+ * 已存储哈希的强度低于当前强度时 {@link #upgradeEncoding(String)} 返回 true，由登录流程重新加密；
+ * 各节点校准结果可能不同，只升不降，避免多节点间来回重新加密。
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Slf4j
+public class AdaptiveBCryptPasswordEncoder implements PasswordEncoder {
+
+    public static final String MODE_FIXED = "fixed";
+
+    public static final String MODE_ADAPTIVE = "adaptive";
+
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}$");
+
+    /**
+     * 每个强度的采样次数，取中位数
+     */
+    private static final int SAMPLES = 3;
+
+    private final String mode;
+
+    private final int strength;
+
+    private final long targetMillis;
+
+    private final BCryptPasswordEncoder delegate;
+
+    /**
+     * 各强度实测耗时（毫秒），fixed 模式为空
+     */
+    private final Map<Integer, Long> calibration;
+
+    public AdaptiveBCryptPasswordEncoder(String mode, int fixedStrength, long targetMillis,
+                                         int minStrength, int maxStrength) {
+        this.mode = MODE_ADAPTIVE.equalsIgnoreCase(mode) ? MODE_ADAPTIVE : MODE_FIXED;
+        this.targetMillis = targetMillis;
+        this.calibration = new LinkedHashMap<>();
+        if (MODE_ADAPTIVE.equals(this.mode)) {
+            this.strength = calibrate(targetMillis, minStrength, maxStrength, calibration);
+            log.info("BCrypt强度校准完成，目标耗时{}ms，选定强度{}，实测耗时{}", targetMillis, strength, calibration);
+        } else {
+            this.strength = fixedStrength;
+            log.info("BCrypt使用固定强度{}", strength);
+        }
+        this.delegate = new BCryptPasswordEncoder(strength);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        // BCrypt 哈希自带强度，任意强度的哈希都可以校验
+        return delegate.matches(rawPassword, encodedPassword);
+    }
+
+    /**
+     * 哈希强度低于当前强度时需要重新加密，强度更高的哈希保持不变
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int cost = costOf(encodedPassword);
+        return cost > 0 && cost < strength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    /**
+     * 校准信息
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("mode", mode);
+        stats.put("strength", strength);
+        stats.put("targetMillis", targetMillis);
+        stats.put("calibrationMillis", calibration);
+        return stats;
+    }
+
+    /**
+     * 解析哈希中的强度，无法识别时返回 -1
+     */
+    static int costOf(String encodedPassword) {
+        if (encodedPassword == null) {
+            return -1;
+        }
+        Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+        return matcher.matches() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+
+    private static int calibrate(long targetMillis, int minStrength, int maxStrength, Map<Integer, Long> result) {
+        int chosen = minStrength;
+        for (int cost = minStrength; cost <= maxStrength; cost++) {
+            long millis = measure(cost, cost == minStrength);
+            result.put(cost, millis);
+            if (millis > targetMillis) {
+                break;
+            }
+            chosen = cost;
+        }
+        return chosen;
+    }
+
+    private static long measure(int cost, boolean warmUp) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(cost);
+        if (warmUp) {
+            // 预热一次，避免首次调用的类加载与JIT影响
+            encoder.encode("calibration");
+        }
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode("calibration");
+            samples[i] = (System.nanoTime() - start) / 1_000_000;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2];
+    }
+}
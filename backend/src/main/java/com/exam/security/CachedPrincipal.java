@@ -0,0 +1,80 @@
+package com.exam.security;
+
+import com.exam.entity.SysUser;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 认证主体快照
+ * 仅保存构建 {@link CustomUserDetails} 所需的字段，不包含密码及个人敏感信息。
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+public final class CachedPrincipal implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+
+    private final String username;
+
+    private final String role;
+
+    private final Integer status;
+
+    private final LocalDateTime lockUntil;
+
+    public CachedPrincipal(Long id, String username, String role, Integer status, LocalDateTime lockUntil) {
+        this.id = id;
+        this.username = username;
+        this.role = role;
+        this.status = status;
+        this.lockUntil = lockUntil;
+    }
+
+    public static CachedPrincipal from(SysUser user) {
+        return new CachedPrincipal(user.getId(), user.getUsername(), user.getRole(), user.getStatus(), user.getLockUntil());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public Integer getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getLockUntil() {
+        return lockUntil;
+    }
+
+    /**
+     * 账号是否正常（状态为1）
+     */
+    public boolean isEnabled() {
+        return status != null && status == 1;
+    }
+
+    /**
+     * 构建认证用户详情
+     */
+    public CustomUserDetails toUserDetails() {
+        SysUser user = new SysUser();
+        user.setId(id);
+        user.setUsername(username);
+        user.setRole(role);
+        user.setStatus(status);
+        user.setLockUntil(lockUntil);
+        return new CustomUserDetails(user);
+    }
+}
@@ -50,7 +50,7 @@ public class CustomUserDetails implements UserDetails {
 
     @Override
     public boolean isAccountNonLocked() {
-        // 检查账号是否被锁定
+        // 检查账号是否被锁定（认证过滤器会用内存中的锁定状态填充 lockUntil）
         if (user.getLockUntil() != null) {
             return user.getLockUntil().isBefore(java.time.LocalDateTime.now());
         }
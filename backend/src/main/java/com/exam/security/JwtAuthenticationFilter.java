@@ -2,12 +2,11 @@ package com.exam.security;
 
 import com.exam.entity.SysUser;
 import com.exam.service.SysUserService;
+import io.jsonwebtoken.Claims;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -18,6 +17,7 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.time.LocalDateTime;
 
 /**
  * JWT认证过滤器
@@ -37,6 +37,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private SysUserService userService;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private LoginAttemptTracker loginAttemptTracker;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, 
                                   HttpServletResponse response, 
@@ -45,15 +51,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
             
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromToken(jwt);
-                
-                // 检查用户是否存在且状态正常
-                SysUser user = userService.getByUsername(username);
-                if (user != null && user.getStatus() == 1) {
-                    // 创建简单的认证对象
-                    CustomUserDetails userDetails = new CustomUserDetails(user);
-                    
+            // 每个请求只验签、解析一次Token
+            Claims claims = StringUtils.hasText(jwt) ? tokenProvider.parseToken(jwt) : null;
+            if (claims != null) {
+                CustomUserDetails userDetails = resolveUserDetails(claims);
+                if (userDetails != null) {
                     UsernamePasswordAuthenticationToken authentication = 
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                     authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -68,6 +70,49 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * 根据Token构建认证用户
+     * 访问令牌直接由Claims构建，不查询数据库；刷新令牌不能用于访问接口；已吊销的令牌不予认证；
+     * 旧版令牌（不含用户ID）仍按用户名从本地缓存/数据库加载。
+     */
+    private CustomUserDetails resolveUserDetails(Claims claims) {
+        String type = claims.get(JwtTokenProvider.CLAIM_TYPE, String.class);
+        if (JwtTokenProvider.TYPE_REFRESH.equals(type)) {
+            return null;
+        }
+
+        // 已注销或被强制下线的令牌（纯内存判断，不查询数据库）
+        if (tokenProvider.isRevoked(claims)) {
+            return null;
+        }
+
+        if (JwtTokenProvider.TYPE_ACCESS.equals(type)) {
+            SysUser user = new SysUser();
+            user.setId(claims.get(JwtTokenProvider.CLAIM_USER_ID, Long.class));
+            user.setUsername(claims.getSubject());
+            user.setRole(claims.get(JwtTokenProvider.CLAIM_ROLE, String.class));
+            user.setTokenVersion(claims.get(JwtTokenProvider.CLAIM_VERSION, Integer.class));
+            // 访问令牌仅签发给正常状态的账号，禁用后在刷新时拒绝
+            user.setStatus(1);
+            // 锁定状态取自内存中的登录失败跟踪器
+            user.setLockUntil(loginAttemptTracker.getLockUntil(user.getUsername()));
+            return new CustomUserDetails(user);
+        }
+
+        // 检查用户是否存在且状态正常（优先读取本地缓存）
+        CachedPrincipal principal = principalCache.get(claims.getSubject(), userService::getByUsername);
+        // 旧版令牌不含用户ID，加载用户后再检查注销时设置的版本号下限
+        if (principal != null && principal.isEnabled() && !tokenProvider.isRevoked(claims, principal.getId())) {
+            CustomUserDetails userDetails = principal.toUserDetails();
+            LocalDateTime lockUntil = loginAttemptTracker.getLockUntil(principal.getUsername());
+            if (lockUntil != null) {
+                userDetails.getUser().setLockUntil(lockUntil);
+            }
+            return userDetails;
+        }
+        return null;
+    }
+
     /**
      * 从请求中获取JWT Token
      */
@@ -1,14 +1,25 @@
 package com.exam.security;
 
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import com.exam.entity.SysUser;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * JWT Token 提供者
@@ -20,12 +31,64 @@ import java.util.Date;
 @Component
 public class JwtTokenProvider {
 
+    public static final String CLAIM_USER_ID = "uid";
+
+    public static final String CLAIM_ROLE = "role";
+
+    public static final String CLAIM_VERSION = "ver";
+
+    public static final String CLAIM_TYPE = "typ";
+
+    public static final String TYPE_ACCESS = "access";
+
+    public static final String TYPE_REFRESH = "refresh";
+
+    @Autowired
+    private TokenRevocationList revocationList;
+
     @Value("${jwt.secret}")
     private String secret;
 
+    /**
+     * 刷新令牌（及旧版令牌）有效期，单位：秒
+     */
     @Value("${jwt.expiration}")
     private Long expiration;
 
+    /**
+     * 访问令牌有效期，单位：秒
+     */
+    @Value("${jwt.access-expiration:900}")
+    private Long accessExpiration;
+
+    @Value("${jwt.verified-cache.enabled:true}")
+    private boolean verifiedCacheEnabled;
+
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private int verifiedCacheMaxSize;
+
+    /**
+     * 签名密钥与解析器只构建一次，线程安全可复用
+     */
+    private SecretKey signingKey;
+
+    private JwtParser jwtParser;
+
+    /**
+     * 已验签Token缓存，key为Token的SHA-256摘要，条目在Token过期时失效。
+     * Claims 是可变对象，缓存只保存声明值的只读快照，命中时为每个调用方创建新的 Claims。
+     */
+    private LRUCache<String, VerifiedClaims> verifiedCache;
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        verifiedCache = CacheUtil.newLRUCache(verifiedCacheMaxSize);
+    }
+
     /**
      * 生成JWT Token
      */
@@ -42,6 +105,149 @@ public class JwtTokenProvider {
                 .compact();
     }
 
+    /**
+     * 生成访问令牌，携带用户ID、角色与安全版本号，认证时无需查询数据库
+     */
+    public String generateAccessToken(SysUser user) {
+        Date now = new Date();
+        Date expiryDate = new Date(now.getTime() + accessExpiration * 1000);
+
+        return Jwts.builder()
+                .setId(IdUtil.fastSimpleUUID())
+                .setSubject(user.getUsername())
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_ROLE, user.getRole())
+                .claim(CLAIM_VERSION, tokenVersionOf(user))
+                .claim(CLAIM_TYPE, TYPE_ACCESS)
+                .setIssuedAt(now)
+                .setExpiration(expiryDate)
+                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .compact();
+    }
+
+    /**
+     * 生成刷新令牌，仅用于换取新的访问令牌
+     */
+    public String generateRefreshToken(SysUser user) {
+        Date now = new Date();
+        Date expiryDate = new Date(now.getTime() + expiration * 1000);
+
+        return Jwts.builder()
+                .setId(IdUtil.fastSimpleUUID())
+                .setSubject(user.getUsername())
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_VERSION, tokenVersionOf(user))
+                .claim(CLAIM_TYPE, TYPE_REFRESH)
+                .setIssuedAt(now)
+                .setExpiration(expiryDate)
+                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .compact();
+    }
+
+    /**
+     * 访问令牌有效期，单位：秒
+     */
+    public Long getAccessExpiration() {
+        return accessExpiration;
+    }
+
+    /**
+     * 令牌是否已被吊销（注销或强制下线）
+     */
+    public boolean isRevoked(Claims claims) {
+        return isRevoked(claims, claims.get(CLAIM_USER_ID, Long.class));
+    }
+
+    /**
+     * 令牌是否已吊销，userId 由调用方提供（旧版令牌不含用户ID，加载用户后再检查用户版本号下限）
+     */
+    public boolean isRevoked(Claims claims, Long userId) {
+        return revocationList.isRevoked(claims.getId(), userId,
+                claims.get(CLAIM_VERSION, Integer.class),
+                claims.getExpiration().getTime());
+    }
+
+    /**
+     * 吊销单个令牌
+     */
+    public void revoke(Claims claims) {
+        revocationList.revoke(claims.getId(), claims.get(CLAIM_USER_ID, Long.class), claims.getExpiration().getTime());
+    }
+
+    /**
+     * 吊销用户的全部旧版令牌（不含 jti 与版本号，无法单独吊销）
+     * 以用户当前版本号设置下限：不带版本号的旧版令牌全部失效，当前版本的新令牌不受影响
+     */
+    public void revokeLegacy(Long userId, int currentVersion, Claims claims) {
+        revocationList.revokeUserBefore(userId, currentVersion, claims.getExpiration().getTime());
+    }
+
+    /**
+     * 使用户低于指定版本号的访问令牌立即失效（刷新令牌由数据库版本号校验）
+     */
+    public void revokeUserBefore(Long userId, int version) {
+        revocationList.revokeUserBefore(userId, version, System.currentTimeMillis() + accessExpiration * 1000);
+    }
+
+    /**
+     * 用户当前的令牌安全版本号
+     */
+    public static int tokenVersionOf(SysUser user) {
+        return user.getTokenVersion() == null ? 0 : user.getTokenVersion();
+    }
+
+    /**
+     * 解析并验证Token，每个请求只需调用一次
+     *
+     * @param token JWT Token
+     * @return 验证通过的Claims，无效或过期时返回 null
+     */
+    public Claims parseToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        if (!verifiedCacheEnabled) {
+            return verify(token);
+        }
+
+        String digest = DigestUtil.sha256Hex(token);
+        VerifiedClaims cached = verifiedCache.get(digest, false);
+        if (cached != null) {
+            // 缓存条目按过期时间失效，这里再做一次兜底判断
+            if (cached.expMillis > System.currentTimeMillis()) {
+                return Jwts.claims(cached.values);
+            }
+            verifiedCache.remove(digest);
+            return null;
+        }
+
+        Claims claims = verify(token);
+        if (claims != null && claims.getExpiration() != null) {
+            long expMillis = claims.getExpiration().getTime();
+            long ttl = expMillis - System.currentTimeMillis();
+            if (ttl > 0) {
+                verifiedCache.put(digest, new VerifiedClaims(claims, expMillis), ttl);
+            }
+        }
+        return claims;
+    }
+
+    /**
+     * 已验签Token缓存统计
+     */
+    public Map<String, Object> getVerifiedCacheStats() {
+        long hits = verifiedCache.getHitCount();
+        long misses = verifiedCache.getMissCount();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", verifiedCacheEnabled);
+        stats.put("size", verifiedCache.size());
+        stats.put("maxSize", verifiedCacheMaxSize);
+        stats.put("hitCount", hits);
+        stats.put("missCount", misses);
+        stats.put("hitRate", hits + misses == 0 ? 0D : (double) hits / (hits + misses));
+        return stats;
+    }
+
     /**
      * 从Token中获取用户名
      */
@@ -87,18 +293,40 @@ public class JwtTokenProvider {
      * 从Token中获取Claims
      */
     private Claims getClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return jwtParser.parseClaimsJws(token).getBody();
+    }
+
+    /**
+     * 验签并解析Token，失败时返回 null
+     */
+    private Claims verify(String token) {
+        try {
+            return getClaimsFromToken(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.warn("JWT Token验证失败: {}", e.getMessage());
+            return null;
+        }
     }
 
     /**
      * 获取签名密钥
      */
     private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
+    }
+
+    /**
+     * 已验签Token的声明快照（不可变，可在请求间共享）
+     */
+    private static final class VerifiedClaims {
+
+        private final Map<String, Object> values;
+
+        private final long expMillis;
+
+        private VerifiedClaims(Claims claims, long expMillis) {
+            this.values = Collections.unmodifiableMap(new LinkedHashMap<>(claims));
+            this.expMillis = expMillis;
+        }
     }
 }
@@ -0,0 +1,305 @@
+package com.exam.security;
+
+import com.exam.mapper.SysUserMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 登录失败跟踪器
+ * 按用户名和IP维护内存中的滑动窗口失败计数，只有触发锁定时才写库（sys_user.lock_until），
+ * 撞库等密码错误高峰不会直接变成数据库写压力。
+ * 锁定状态同时保存在内存中，登录与认证优先读取内存；开启持久化刷新后定期把失败次数批量写回，
+ * 便于多节点部署时查看与排查。
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Slf4j
+@Component
+public class LoginAttemptTracker {
+
+    @Autowired
+    private SysUserMapper userMapper;
+
+    /**
+     * 滑动窗口长度，单位：秒
+     */
+    @Value("${security.login-attempt.window-seconds:900}")
+    private long windowSeconds;
+
+    /**
+     * 窗口内同一用户名允许的失败次数，达到后锁定
+     */
+    @Value("${security.login-attempt.max-failures:5}")
+    private int maxFailures;
+
+    /**
+     * 窗口内同一IP允许的失败次数，达到后拒绝该IP的登录请求
+     */
+    @Value("${security.login-attempt.ip-max-failures:50}")
+    private int ipMaxFailures;
+
+    /**
+     * 锁定时长，单位：分钟
+     */
+    @Value("${security.login-attempt.lock-minutes:30}")
+    private long lockMinutes;
+
+    /**
+     * 是否定期把失败次数写回数据库
+     */
+    @Value("${security.login-attempt.flush-enabled:false}")
+    private boolean flushEnabled;
+
+    /**
+     * 用户名探测（注册页可用性检查）限流窗口，单位：秒
+     */
+    @Value("${security.username-probe.window-seconds:60}")
+    private long probeWindowSeconds;
+
+    /**
+     * 窗口内同一IP允许的用户名探测次数
+     */
+    @Value("${security.username-probe.max-requests:30}")
+    private int probeMaxRequests;
+
+    private final Map<String, FailureWindow> userWindows = new ConcurrentHashMap<>();
+
+    private final Map<String, FailureWindow> ipWindows = new ConcurrentHashMap<>();
+
+    private final Map<String, FailureWindow> probeWindows = new ConcurrentHashMap<>();
+
+    /**
+     * 内存锁定状态：用户名 -> 锁定截止时间（毫秒）
+     */
+    private final Map<String, Long> userLocks = new ConcurrentHashMap<>();
+
+    /**
+     * 待写回数据库的失败次数
+     */
+    private final Map<String, Integer> dirtyCounts = new ConcurrentHashMap<>();
+
+    private final AtomicLong failureCount = new AtomicLong();
+
+    private final AtomicLong lockoutCount = new AtomicLong();
+
+    private final AtomicLong probeRejectedCount = new AtomicLong();
+
+    /**
+     * 记录一次用户名不存在的登录失败，只计入IP窗口
+     * 不存在的用户名不建立用户窗口，避免随机用户名撞库使 userWindows 无限增长
+     */
+    public void recordIpFailure(String ip) {
+        recordFailure(null, ip);
+    }
+
+    /**
+     * 记录一次登录失败
+     *
+     * @param username 用户名（仅限已存在的用户，为 null 时只计入IP窗口）
+     * @param ip       登录IP
+     * @return 本次失败触发锁定时返回锁定截止时间，否则返回 null
+     */
+    public LocalDateTime recordFailure(String username, String ip) {
+        failureCount.incrementAndGet();
+        long now = System.currentTimeMillis();
+        if (ip != null) {
+            ipWindows.computeIfAbsent(ip, key -> new FailureWindow(ipMaxFailures)).record(now, windowMillis());
+        }
+        if (username == null) {
+            return null;
+        }
+
+        FailureWindow window = userWindows.computeIfAbsent(username, key -> new FailureWindow(maxFailures));
+        int failures = window.record(now, windowMillis());
+        if (flushEnabled) {
+            dirtyCounts.put(username, failures);
+        }
+        if (failures < maxFailures) {
+            return null;
+        }
+
+        long lockUntil = now + lockMinutes * 60_000L;
+        userLocks.put(username, lockUntil);
+        userWindows.remove(username);
+        dirtyCounts.remove(username);
+        lockoutCount.incrementAndGet();
+        log.warn("用户{}在{}秒内登录失败{}次，锁定{}分钟", username, windowSeconds, failures, lockMinutes);
+        return toLocalDateTime(lockUntil);
+    }
+
+    /**
+     * 登录成功，清除该用户的失败记录
+     */
+    public void recordSuccess(String username) {
+        userWindows.remove(username);
+        userLocks.remove(username);
+        dirtyCounts.remove(username);
+    }
+
+    /**
+     * 内存中的锁定截止时间，未锁定返回 null
+     */
+    public LocalDateTime getLockUntil(String username) {
+        if (username == null || userLocks.isEmpty()) {
+            return null;
+        }
+        Long lockUntil = userLocks.get(username);
+        if (lockUntil == null) {
+            return null;
+        }
+        if (lockUntil <= System.currentTimeMillis()) {
+            userLocks.remove(username, lockUntil);
+            return null;
+        }
+        return toLocalDateTime(lockUntil);
+    }
+
+    /**
+     * 用户是否处于锁定状态（先查内存，再看数据库中的锁定时间）
+     */
+    public boolean isLocked(String username, LocalDateTime persistedLockUntil) {
+        if (getLockUntil(username) != null) {
+            return true;
+        }
+        return persistedLockUntil != null && persistedLockUntil.isAfter(LocalDateTime.now());
+    }
+
+    /**
+     * IP 在窗口内的失败次数是否已达上限
+     */
+    public boolean isIpBlocked(String ip) {
+        if (ip == null) {
+            return false;
+        }
+        FailureWindow window = ipWindows.get(ip);
+        return window != null && window.count(System.currentTimeMillis(), windowMillis()) >= ipMaxFailures;
+    }
+
+    /**
+     * 记录一次用户名探测，同一IP在窗口内超过上限时返回 false，防止公开接口被用来枚举用户名
+     */
+    public boolean tryUsernameProbe(String ip) {
+        if (ip == null) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        long window = probeWindowSeconds * 1000L;
+        FailureWindow probes = probeWindows.computeIfAbsent(ip, key -> new FailureWindow(probeMaxRequests));
+        if (probes.count(now, window) >= probeMaxRequests) {
+            probeRejectedCount.incrementAndGet();
+            return false;
+        }
+        probes.record(now, window);
+        return true;
+    }
+
+    /**
+     * 清理过期的窗口与锁定状态
+     */
+    @Scheduled(fixedDelayString = "${security.login-attempt.purge-interval:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        long window = windowMillis();
+        userWindows.values().removeIf(w -> w.count(now, window) == 0);
+        ipWindows.values().removeIf(w -> w.count(now, window) == 0);
+        long probeWindow = probeWindowSeconds * 1000L;
+        probeWindows.values().removeIf(w -> w.count(now, probeWindow) == 0);
+        userLocks.values().removeIf(lockUntil -> lockUntil <= now);
+    }
+
+    /**
+     * 批量写回失败次数（可选）
+     */
+    @Scheduled(fixedDelayString = "${security.login-attempt.flush-interval:30000}")
+    public void flush() {
+        if (!flushEnabled || dirtyCounts.isEmpty()) {
+            return;
+        }
+        Map<String, Integer> batch = new HashMap<>();
+        Iterator<Map.Entry<String, Integer>> iterator = dirtyCounts.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Integer> entry = iterator.next();
+            batch.put(entry.getKey(), entry.getValue());
+            iterator.remove();
+        }
+        try {
+            userMapper.batchUpdateLoginFailCount(batch);
+        } catch (Exception e) {
+            log.warn("写回登录失败次数失败: {}", e.getMessage());
+        }
+    }
+
+    public int getMaxFailures() {
+        return maxFailures;
+    }
+
+    /**
+     * 跟踪器统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("trackedUsers", userWindows.size());
+        stats.put("trackedIps", ipWindows.size());
+        stats.put("trackedProbeIps", probeWindows.size());
+        stats.put("probeRejectedCount", probeRejectedCount.get());
+        stats.put("lockedUsers", userLocks.size());
+        stats.put("failureCount", failureCount.get());
+        stats.put("lockoutCount", lockoutCount.get());
+        stats.put("windowSeconds", windowSeconds);
+        stats.put("maxFailures", maxFailures);
+        stats.put("ipMaxFailures", ipMaxFailures);
+        return stats;
+    }
+
+    private long windowMillis() {
+        return windowSeconds * 1000L;
+    }
+
+    private static LocalDateTime toLocalDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    /**
+     * 滑动窗口：环形数组保存最近 capacity 次失败的时间，统计窗口内的次数
+     */
+    private static final class FailureWindow {
+
+        private final long[] times;
+
+        private int next;
+
+        private FailureWindow(int capacity) {
+            this.times = new long[Math.max(1, capacity)];
+        }
+
+        private synchronized int record(long now, long window) {
+            times[next] = now;
+            next = (next + 1) % times.length;
+            return count(now, window);
+        }
+
+        private synchronized int count(long now, long window) {
+            long from = now - window;
+            int count = 0;
+            for (long time : times) {
+                if (time > from) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+}
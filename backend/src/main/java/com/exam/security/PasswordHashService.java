@@ -0,0 +1,174 @@
+package com.exam.security;
+
+import com.exam.exception.BusinessException;
+import com.exam.exception.ServiceUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * 密码哈希服务
+ * BCrypt 加密与校验在独立的有界线程池中执行，线程数限制了登录/注册占用的CPU，
+ * 队列已满时直接返回 503，避免登录高峰拖垮缴费等其它接口。
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Slf4j
+@Component
+public class PasswordHashService {
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    /**
+     * 哈希线程数，0 表示按CPU核数的一半
+     */
+    @Value("${security.password-hash.threads:0}")
+    private int threads;
+
+    @Value("${security.password-hash.queue-capacity:200}")
+    private int queueCapacity;
+
+    /**
+     * 等待哈希结果的最长时间，单位：毫秒
+     */
+    @Value("${security.password-hash.timeout:5000}")
+    private long timeoutMillis;
+
+    private ThreadPoolExecutor executor;
+
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    private final AtomicLong timeoutCount = new AtomicLong();
+
+    private final AtomicLong rehashCount = new AtomicLong();
+
+    private final AtomicLong totalQueueWaitMillis = new AtomicLong();
+
+    private final LongAccumulator maxQueueWaitMillis = new LongAccumulator(Math::max, 0);
+
+    @PostConstruct
+    public void init() {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger index = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "password-hash-" + index.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        log.info("密码哈希线程池初始化完成，threads={}, queueCapacity={}", poolSize, queueCapacity);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * 加密密码
+     */
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * 校验密码
+     */
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * 已存储的哈希是否需要按当前强度重新加密
+     */
+    public boolean upgradeEncoding(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * 按当前强度重新加密（登录成功后透明升级/降级哈希）
+     */
+    public String rehash(CharSequence rawPassword) {
+        String encoded = encode(rawPassword);
+        rehashCount.incrementAndGet();
+        return encoded;
+    }
+
+    /**
+     * 线程池运行指标
+     */
+    public Map<String, Object> getStats() {
+        long completed = executor.getCompletedTaskCount();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("poolSize", executor.getPoolSize());
+        stats.put("activeCount", executor.getActiveCount());
+        stats.put("queueSize", executor.getQueue().size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("completedCount", completed);
+        stats.put("rejectedCount", rejectedCount.get());
+        stats.put("timeoutCount", timeoutCount.get());
+        stats.put("avgQueueWaitMillis", completed == 0 ? 0D : (double) totalQueueWaitMillis.get() / completed);
+        stats.put("maxQueueWaitMillis", maxQueueWaitMillis.get());
+        stats.put("rehashCount", rehashCount.get());
+        if (passwordEncoder instanceof AdaptiveBCryptPasswordEncoder) {
+            stats.put("bcrypt", ((AdaptiveBCryptPasswordEncoder) passwordEncoder).getStats());
+        }
+        return stats;
+    }
+
+    private <T> T execute(Callable<T> task) {
+        long submitTime = System.currentTimeMillis();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long wait = System.currentTimeMillis() - submitTime;
+                totalQueueWaitMillis.addAndGet(wait);
+                maxQueueWaitMillis.accumulate(wait);
+                return task.call();
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCount.incrementAndGet();
+            throw new ServiceUnavailableException("系统繁忙，请稍后再试");
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timeoutCount.incrementAndGet();
+            throw new ServiceUnavailableException("系统繁忙，请稍后再试");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new ServiceUnavailableException("请求已中断", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new BusinessException("密码处理失败", cause);
+        }
+    }
+}
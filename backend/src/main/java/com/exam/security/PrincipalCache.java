@@ -0,0 +1,138 @@
+package com.exam.security;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import com.exam.entity.SysUser;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 认证主体本地缓存
+ * JWT 认证过滤器按用户名缓存用户的ID、角色、状态与锁定时间，避免每个请求都查询 sys_user。
+ * 容量与过期时间有上限，用户信息、密码或状态变更时按用户名失效。
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Slf4j
+@Component
+public class PrincipalCache {
+
+    @Value("${security.principal-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${security.principal-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${security.principal-cache.ttl:300}")
+    private long ttlSeconds;
+
+    private LRUCache<String, CachedPrincipal> cache;
+
+    /**
+     * 失效次数，用于丢弃加载期间发生失效的结果，避免把旧数据写回缓存
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final AtomicLong loadCount = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        cache = CacheUtil.newLRUCache(maxSize, ttlSeconds * 1000);
+        log.info("认证主体缓存初始化完成，enabled={}, maxSize={}, ttl={}s", enabled, maxSize, ttlSeconds);
+    }
+
+    /**
+     * 获取认证主体，未命中时通过 loader 加载
+     *
+     * @param username 用户名
+     * @param loader   用户加载函数
+     * @return 认证主体，用户不存在时返回 null
+     */
+    public CachedPrincipal get(String username, Function<String, SysUser> loader) {
+        if (!enabled) {
+            return load(username, loader);
+        }
+
+        CachedPrincipal principal = cache.get(username, false);
+        if (principal != null) {
+            return principal;
+        }
+
+        long version = invalidations.get();
+        principal = load(username, loader);
+        if (principal != null && version == invalidations.get()) {
+            cache.put(username, principal);
+        }
+        return principal;
+    }
+
+    /**
+     * 写入认证主体（用于预热）
+     */
+    public void put(SysUser user) {
+        if (enabled && user != null && user.getUsername() != null) {
+            cache.put(user.getUsername(), CachedPrincipal.from(user));
+        }
+    }
+
+    /**
+     * 立即失效指定用户
+     */
+    public void invalidate(String username) {
+        if (username == null) {
+            return;
+        }
+        invalidations.incrementAndGet();
+        cache.remove(username);
+    }
+
+    /**
+     * 在当前事务提交后失效指定用户（无事务时立即失效），避免并发请求在提交前把旧数据重新写回缓存
+     */
+    public void invalidateAfterCommit(String username) {
+        invalidate(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(username);
+                }
+            });
+        }
+    }
+
+    /**
+     * 缓存统计
+     */
+    public Map<String, Object> getStats() {
+        long hits = cache.getHitCount();
+        long misses = cache.getMissCount();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("size", cache.size());
+        stats.put("maxSize", maxSize);
+        stats.put("ttlSeconds", ttlSeconds);
+        stats.put("hitCount", hits);
+        stats.put("missCount", misses);
+        stats.put("loadCount", loadCount.get());
+        stats.put("invalidationCount", invalidations.get());
+        stats.put("hitRate", hits + misses == 0 ? 0D : (double) hits / (hits + misses));
+        return stats;
+    }
+
+    private CachedPrincipal load(String username, Function<String, SysUser> loader) {
+        loadCount.incrementAndGet();
+        SysUser user = loader.apply(username);
+        return user == null ? null : CachedPrincipal.from(user);
+    }
+}
@@ -0,0 +1,300 @@
+package com.exam.security;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.exam.entity.TokenRevocation;
+import com.exam.mapper.TokenRevocationMapper;
+import com.exam.utils.BloomFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * 令牌吊销列表
+ * 按令牌过期时间划分时间桶，每个桶由布隆过滤器加精确集合组成：绝大多数未吊销的令牌在布隆过滤器处即可排除，
+ * 命中时再由精确集合确认。桶的时间窗口结束后整体丢弃，内存随令牌过期自动回收。
+ * 另外维护用户维度的最低版本号，用于强制下线时让该用户已签发的访问令牌立即失效。
+ * 吊销记录持久化到 token_revocation 表，启动时加载并定期同步其它节点写入的记录。
+ * 自增ID按插入顺序分配而非提交顺序，同步时除ID游标之后的记录外，还会重新扫描最近一段时间内创建的记录，
+ * 已应用过的记录按ID跳过，避免遗漏晚提交的小ID记录。
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Slf4j
+@Component
+public class TokenRevocationList {
+
+    @Autowired
+    private TokenRevocationMapper revocationMapper;
+
+    /**
+     * 时间桶跨度，单位：分钟
+     */
+    @Value("${security.revocation.bucket-minutes:360}")
+    private long bucketMinutes;
+
+    /**
+     * 每个时间桶的预期吊销数量
+     */
+    @Value("${security.revocation.bucket-capacity:50000}")
+    private long bucketCapacity;
+
+    @Value("${security.revocation.fpp:0.01}")
+    private double fpp;
+
+    /**
+     * 同步时重新扫描的时间窗口，单位：秒，需覆盖事务提交延迟与节点间时钟偏差
+     */
+    @Value("${security.revocation.sync-overlap-seconds:300}")
+    private long syncOverlapSeconds;
+
+    private long bucketMillis;
+
+    /**
+     * 时间桶，key 为过期时间所在窗口序号
+     */
+    private final ConcurrentSkipListMap<Long, Bucket> buckets = new ConcurrentSkipListMap<>();
+
+    /**
+     * 用户最低有效版本号，低于该版本的令牌视为已吊销
+     */
+    private final Map<Long, VersionFloor> versionFloors = new ConcurrentHashMap<>();
+
+    /**
+     * 上次从数据库同步的记录ID
+     */
+    private volatile long lastSyncedId;
+
+    /**
+     * 已应用的记录ID -> 应用时间（毫秒），用于重叠窗口内去重，超过两倍窗口后清除
+     */
+    private final Map<Long, Long> appliedIds = new HashMap<>();
+
+    @PostConstruct
+    public void init() {
+        bucketMillis = bucketMinutes * 60_000L;
+        try {
+            int loaded = sync();
+            log.info("令牌吊销列表加载完成，共{}条有效记录", loaded);
+        } catch (Exception e) {
+            log.error("令牌吊销列表加载失败", e);
+        }
+    }
+
+    /**
+     * 令牌是否已吊销
+     *
+     * @param jti       令牌ID，可为空（旧版令牌）
+     * @param userId    用户ID，可为空
+     * @param version   令牌携带的安全版本号，可为空
+     * @param expMillis 令牌过期时间
+     */
+    public boolean isRevoked(String jti, Long userId, Integer version, long expMillis) {
+        if (userId != null && !versionFloors.isEmpty()) {
+            VersionFloor floor = versionFloors.get(userId);
+            if (floor != null && floor.expireMillis > System.currentTimeMillis()
+                    && (version == null || version < floor.version)) {
+                return true;
+            }
+        }
+
+        if (jti == null) {
+            return false;
+        }
+        Bucket bucket = buckets.get(expMillis / bucketMillis);
+        return bucket != null && bucket.contains(jti);
+    }
+
+    /**
+     * 吊销单个令牌（写库并加入内存）
+     */
+    public void revoke(String jti, Long userId, long expMillis) {
+        if (jti == null || expMillis <= System.currentTimeMillis()) {
+            return;
+        }
+
+        TokenRevocation revocation = new TokenRevocation();
+        revocation.setJti(jti);
+        revocation.setUserId(userId);
+        revocation.setExpireTime(toLocalDateTime(expMillis));
+        try {
+            revocationMapper.insert(revocation);
+        } catch (DuplicateKeyException e) {
+            log.debug("令牌已吊销: {}", jti);
+        }
+        addToken(jti, expMillis);
+    }
+
+    /**
+     * 使用户低于指定版本号的令牌失效，记录保留到最后一个访问令牌过期为止。
+     * 内存状态在事务提交后生效。
+     */
+    public void revokeUserBefore(Long userId, int version, long expMillis) {
+        TokenRevocation revocation = new TokenRevocation();
+        revocation.setUserId(userId);
+        revocation.setTokenVersion(version);
+        revocation.setExpireTime(toLocalDateTime(expMillis));
+        revocationMapper.insert(revocation);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addVersionFloor(userId, version, expMillis);
+                }
+            });
+        } else {
+            addVersionFloor(userId, version, expMillis);
+        }
+    }
+
+    /**
+     * 同步其它节点新写入的吊销记录
+     */
+    @Scheduled(fixedDelayString = "${security.revocation.sync-interval:30000}",
+            initialDelayString = "${security.revocation.sync-interval:30000}")
+    public void scheduledSync() {
+        try {
+            sync();
+        } catch (Exception e) {
+            log.warn("同步令牌吊销记录失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 清理过期的时间桶、版本号下限和数据库记录
+     */
+    @Scheduled(cron = "${security.revocation.purge-cron:0 5 * * * ?}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        // 窗口结束时间早于当前时间的桶中所有令牌均已过期
+        buckets.headMap(now / bucketMillis).clear();
+        versionFloors.values().removeIf(floor -> floor.expireMillis <= now);
+
+        int deleted = revocationMapper.delete(new LambdaQueryWrapper<TokenRevocation>()
+                .lt(TokenRevocation::getExpireTime, LocalDateTime.now()));
+        if (deleted > 0) {
+            log.info("清理过期令牌吊销记录{}条", deleted);
+        }
+    }
+
+    /**
+     * 吊销列表统计
+     */
+    public Map<String, Object> getStats() {
+        long tokens = 0;
+        long bytes = 0;
+        for (Bucket bucket : buckets.values()) {
+            tokens += bucket.exact.size();
+            bytes += bucket.bloom.getSizeInBytes();
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("bucketCount", buckets.size());
+        stats.put("bucketMinutes", bucketMinutes);
+        stats.put("revokedTokens", tokens);
+        stats.put("bloomBytes", bytes);
+        stats.put("versionFloors", versionFloors.size());
+        stats.put("lastSyncedId", lastSyncedId);
+        stats.put("syncOverlapSeconds", syncOverlapSeconds);
+        return stats;
+    }
+
+    /**
+     * 同步ID游标之后以及重叠窗口内创建的记录
+     *
+     * @return 本次新应用的记录数
+     */
+    private synchronized int sync() {
+        long now = System.currentTimeMillis();
+        long cursor = lastSyncedId;
+        LocalDateTime since = LocalDateTime.now().minusSeconds(syncOverlapSeconds);
+        List<TokenRevocation> records = revocationMapper.selectList(new LambdaQueryWrapper<TokenRevocation>()
+                .gt(TokenRevocation::getExpireTime, LocalDateTime.now())
+                .and(wrapper -> wrapper.gt(TokenRevocation::getId, cursor)
+                        .or().ge(TokenRevocation::getCreateTime, since))
+                .orderByAsc(TokenRevocation::getId));
+        int applied = 0;
+        for (TokenRevocation record : records) {
+            if (appliedIds.putIfAbsent(record.getId(), now) != null) {
+                continue;
+            }
+            long expMillis = record.getExpireTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            if (record.getJti() != null) {
+                addToken(record.getJti(), expMillis);
+            } else if (record.getTokenVersion() != null) {
+                addVersionFloor(record.getUserId(), record.getTokenVersion(), expMillis);
+            }
+            lastSyncedId = Math.max(lastSyncedId, record.getId());
+            applied++;
+        }
+        long retainFrom = now - syncOverlapSeconds * 2000L;
+        appliedIds.values().removeIf(appliedAt -> appliedAt < retainFrom);
+        return applied;
+    }
+
+    private void addToken(String jti, long expMillis) {
+        buckets.computeIfAbsent(expMillis / bucketMillis, key -> new Bucket(bucketCapacity, fpp)).add(jti);
+    }
+
+    private void addVersionFloor(Long userId, int version, long expMillis) {
+        versionFloors.merge(userId, new VersionFloor(version, expMillis),
+                (old, floor) -> old.version >= floor.version
+                        ? new VersionFloor(old.version, Math.max(old.expireMillis, floor.expireMillis))
+                        : new VersionFloor(floor.version, Math.max(old.expireMillis, floor.expireMillis)));
+    }
+
+    private static LocalDateTime toLocalDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    /**
+     * 时间桶：布隆过滤器快速排除，精确集合消除误判
+     */
+    private static final class Bucket {
+
+        private final BloomFilter bloom;
+
+        private final Set<String> exact = ConcurrentHashMap.newKeySet();
+
+        private Bucket(long capacity, double fpp) {
+            this.bloom = new BloomFilter(capacity, fpp);
+        }
+
+        private void add(String jti) {
+            exact.add(jti);
+            bloom.put(jti);
+        }
+
+        private boolean contains(String jti) {
+            return bloom.mightContain(jti) && exact.contains(jti);
+        }
+    }
+
+    private static final class VersionFloor {
+
+        private final int version;
+
+        private final long expireMillis;
+
+        private VersionFloor(int version, long expireMillis) {
+            this.version = version;
+            this.expireMillis = expireMillis;
+        }
+    }
+}
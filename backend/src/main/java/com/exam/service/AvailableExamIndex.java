@@ -0,0 +1,229 @@
+package com.exam.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.exam.common.PageResult;
+import com.exam.entity.Exam;
+import com.exam.event.ExamChangedEvent;
+import com.exam.mapper.ExamMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 可报名考试内存索引
+ * 缓存已发布且报名尚未结束的考试（按考试日期排序），在报名开始/结束时刻到达时于内存中滚动可见列表，
+ * 无需查库；考试变更事件（事务提交后）或超过刷新周期（同步报名人数）时重新加载。
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Slf4j
+@Component
+public class AvailableExamIndex {
+
+    private static final Comparator<Exam> BY_EXAM_DATE = Comparator
+            .comparing(Exam::getExamDate, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Exam::getId);
+
+    @Autowired
+    private ExamMapper examMapper;
+
+    /**
+     * 最长刷新周期（用于同步报名人数），单位：秒
+     */
+    @Value("${exam.available-index.ttl:30}")
+    private long ttlSeconds;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * 变更版本号，每次失效递增
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * 快照代数，每次重新加载或滚动递增，与实例ID一起作为列表版本（ETag）
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final String instanceId = Long.toHexString(ThreadLocalRandom.current().nextLong());
+
+    private final AtomicLong loadCount = new AtomicLong();
+
+    private final AtomicLong rollCount = new AtomicLong();
+
+    /**
+     * 分页查询当前可报名的考试
+     */
+    public PageResult<Exam> page(long current, long size, String examName, String examType) {
+        List<Exam> visible = current(LocalDateTime.now()).visible;
+
+        String keyword = examName == null || examName.isEmpty() ? null : examName.toLowerCase(Locale.ROOT);
+        boolean filterType = examType != null && !examType.isEmpty();
+        List<Exam> matched;
+        if (keyword == null && !filterType) {
+            matched = visible;
+        } else {
+            matched = new ArrayList<>();
+            for (Exam exam : visible) {
+                if (keyword != null && (exam.getExamName() == null
+                        || !exam.getExamName().toLowerCase(Locale.ROOT).contains(keyword))) {
+                    continue;
+                }
+                if (filterType && !examType.equals(exam.getExamType())) {
+                    continue;
+                }
+                matched.add(exam);
+            }
+        }
+
+        long pageSize = Math.max(1, size);
+        long pageNo = Math.max(1, current);
+        int from = (int) Math.min(matched.size(), (pageNo - 1) * pageSize);
+        int to = (int) Math.min(matched.size(), from + pageSize);
+        return PageResult.of(new ArrayList<>(matched.subList(from, to)), (long) matched.size(), pageNo, pageSize);
+    }
+
+    /**
+     * 当前可报名列表的版本，列表内容（含报名人数）变化时版本随之变化
+     */
+    public String getVersion() {
+        return instanceId + "-" + current(LocalDateTime.now()).generation;
+    }
+
+    /**
+     * 考试变更后失效（事务提交后执行，无事务时立即执行）
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExamChanged(ExamChangedEvent event) {
+        invalidate();
+    }
+
+    /**
+     * 使索引失效，下次访问时重新加载
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * 索引统计
+     */
+    public Map<String, Object> getStats() {
+        Snapshot current = snapshot;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("loaded", current != null);
+        stats.put("candidateCount", current == null ? 0 : current.candidates.size());
+        stats.put("visibleCount", current == null ? 0 : current.visible.size());
+        stats.put("nextBoundary", current == null || current.nextBoundary == null ? null : current.nextBoundary.toString());
+        stats.put("loadCount", loadCount.get());
+        stats.put("rollCount", rollCount.get());
+        return stats;
+    }
+
+    private Snapshot current(LocalDateTime now) {
+        Snapshot current = snapshot;
+        if (current == null || current.version != version.get() || now.isAfter(current.expireAt)) {
+            current = reload(now);
+        } else if (current.nextBoundary != null && !now.isBefore(current.nextBoundary)) {
+            current = roll(current, now);
+        }
+        return current;
+    }
+
+    private synchronized Snapshot reload(LocalDateTime now) {
+        Snapshot current = snapshot;
+        long currentVersion = version.get();
+        if (current != null && current.version == currentVersion && !now.isAfter(current.expireAt)) {
+            return current;
+        }
+
+        // 已发布/报名中且报名尚未结束的考试，包括尚未开始报名的
+        List<Exam> candidates = examMapper.selectList(new LambdaQueryWrapper<Exam>()
+                .in(Exam::getStatus, 2, 3)
+                .ge(Exam::getRegistrationEnd, now));
+        candidates.sort(BY_EXAM_DATE);
+        loadCount.incrementAndGet();
+
+        Snapshot next = build(Collections.unmodifiableList(candidates), now, currentVersion,
+                now.plusSeconds(ttlSeconds), generation.incrementAndGet());
+        snapshot = next;
+        return next;
+    }
+
+    private synchronized Snapshot roll(Snapshot current, LocalDateTime now) {
+        if (snapshot != current) {
+            return snapshot;
+        }
+        rollCount.incrementAndGet();
+        Snapshot next = build(current.candidates, now, current.version, current.expireAt, generation.incrementAndGet());
+        snapshot = next;
+        return next;
+    }
+
+    /**
+     * 计算当前时刻可见的考试及下一个报名开始/结束时刻
+     */
+    private static Snapshot build(List<Exam> candidates, LocalDateTime now, long version,
+                                  LocalDateTime expireAt, long generation) {
+        List<Exam> visible = new ArrayList<>();
+        LocalDateTime nextBoundary = null;
+        for (Exam exam : candidates) {
+            LocalDateTime start = exam.getRegistrationStart();
+            LocalDateTime end = exam.getRegistrationEnd();
+            if (start == null || end == null) {
+                continue;
+            }
+            if (!start.isAfter(now) && !end.isBefore(now)) {
+                visible.add(exam);
+                // 报名结束时刻之后移出列表
+                nextBoundary = earlier(nextBoundary, end.plusNanos(1));
+            } else if (start.isAfter(now)) {
+                nextBoundary = earlier(nextBoundary, start);
+            }
+        }
+        return new Snapshot(candidates, Collections.unmodifiableList(visible), nextBoundary, version, expireAt, generation);
+    }
+
+    private static LocalDateTime earlier(LocalDateTime a, LocalDateTime b) {
+        return a == null || b.isBefore(a) ? b : a;
+    }
+
+    private static final class Snapshot {
+
+        private final List<Exam> candidates;
+
+        private final List<Exam> visible;
+
+        private final LocalDateTime nextBoundary;
+
+        private final long version;
+
+        private final LocalDateTime expireAt;
+
+        private final long generation;
+
+        private Snapshot(List<Exam> candidates, List<Exam> visible, LocalDateTime nextBoundary,
+                         long version, LocalDateTime expireAt, long generation) {
+            this.candidates = candidates;
+            this.visible = visible;
+            this.nextBoundary = nextBoundary;
+            this.version = version;
+            this.expireAt = expireAt;
+            this.generation = generation;
+        }
+    }
+}
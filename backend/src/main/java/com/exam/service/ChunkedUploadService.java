@@ -0,0 +1,525 @@
+package com.exam.service;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.IdUtil;
+import com.exam.dto.ChunkUploadInitRequest;
+import com.exam.dto.ChunkUploadStatus;
+import com.exam.exception.BusinessException;
+import com.exam.security.CustomUserDetails;
+import com.exam.utils.FileUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 分片断点续传上传服务
+ * 证明材料与考试文件按固定大小分片上传：初始化时在上传目录下预分配目标大小的临时文件，
+ * 每个分片的请求体直接按偏移量写入该文件（不经过 multipart 临时文件，也不在内存中拼接），
+ * 可选的 SHA-256 校验通过后落盘并记录到分片标记文件，失败的分片单独重传即可。
+ * 全部分片到齐后校验整个文件并原子移动到正式目录，不再复制内容。
+ * 上传状态（元数据与分片标记）保存在磁盘上，服务重启后仍可续传；长时间无进展的上传定时清理。
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Slf4j
+@Service
+public class ChunkedUploadService {
+
+    private static final String DATA_SUFFIX = ".part";
+
+    private static final String META_SUFFIX = ".meta";
+
+    private static final String MARKS_SUFFIX = ".marks";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+
+    @Autowired
+    private FileUtils fileUtils;
+
+    /**
+     * 分片大小，单位：字节
+     */
+    @Value("${file.upload.chunk.chunk-size:1048576}")
+    private int chunkSize;
+
+    /**
+     * 无进展的上传保留时长，单位：小时
+     */
+    @Value("${file.upload.chunk.expire-hours:24}")
+    private long expireHours;
+
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    private final AtomicLong chunkCount = new AtomicLong();
+
+    private final AtomicLong bytesReceived = new AtomicLong();
+
+    private final AtomicLong checksumFailures = new AtomicLong();
+
+    private final AtomicLong completedCount = new AtomicLong();
+
+    private final AtomicLong expiredCount = new AtomicLong();
+
+    /**
+     * 初始化分片上传
+     *
+     * @param request 文件信息
+     * @param user    当前用户
+     * @return 上传状态
+     */
+    public ChunkUploadStatus init(ChunkUploadInitRequest request, CustomUserDetails user) throws IOException {
+        Long targetId;
+        if ("exam".equals(request.getType())) {
+            if (!isAdmin(user)) {
+                throw new BusinessException(403, "无权上传考试文件");
+            }
+            if (request.getExamId() == null) {
+                throw new BusinessException(400, "考试ID不能为空");
+            }
+            targetId = request.getExamId();
+        } else {
+            targetId = user.getUserId();
+        }
+        try {
+            fileUtils.validateUpload(request.getFileName(), request.getFileSize(), request.getType());
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(400, e.getMessage());
+        }
+
+        UploadSession session = new UploadSession();
+        session.uploadId = IdUtil.fastSimpleUUID();
+        session.type = request.getType();
+        session.ownerId = user.getUserId();
+        session.targetId = targetId;
+        session.fileName = request.getFileName();
+        session.fileSize = request.getFileSize();
+        session.chunkSize = chunkSize;
+        session.chunkCount = (int) ((session.fileSize + chunkSize - 1) / chunkSize);
+        session.sha256 = request.getSha256() == null ? null : request.getSha256().toLowerCase();
+        session.received = new BitSet(session.chunkCount);
+
+        Path directory = fileUtils.getChunkDirectory();
+        Files.createDirectories(directory);
+        // 预分配目标大小（稀疏文件），分片按偏移量写入
+        try (FileChannel channel = FileChannel.open(dataFile(session.uploadId),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[1]), session.fileSize - 1);
+        }
+        Files.write(marksFile(session.uploadId), new byte[session.chunkCount]);
+        writeMeta(session);
+        session.lastAccess = System.currentTimeMillis();
+        sessions.put(session.uploadId, session);
+        log.info("分片上传初始化，uploadId={}, userId={}, fileName={}, size={}, chunks={}",
+                session.uploadId, session.ownerId, session.fileName, session.fileSize, session.chunkCount);
+        return toStatus(session);
+    }
+
+    /**
+     * 查询上传状态（断点续传前调用）
+     */
+    public ChunkUploadStatus getStatus(String uploadId, CustomUserDetails user) {
+        return toStatus(getSession(uploadId, user));
+    }
+
+    /**
+     * 写入一个分片
+     *
+     * @param uploadId      上传ID
+     * @param index         分片序号（从0开始）
+     * @param in            请求体
+     * @param contentLength 请求体长度（未知时为 -1）
+     * @param checksum      分片 SHA-256（十六进制，可选）
+     * @param user          当前用户
+     * @return 上传状态
+     */
+    public ChunkUploadStatus writeChunk(String uploadId, int index, InputStream in, long contentLength,
+                                        String checksum, CustomUserDetails user) {
+        UploadSession session = getSession(uploadId, user);
+        if (index < 0 || index >= session.chunkCount) {
+            throw new BusinessException(400, "分片序号超出范围");
+        }
+        long position = (long) index * session.chunkSize;
+        long expected = Math.min(session.chunkSize, session.fileSize - position);
+        if (contentLength >= 0 && contentLength != expected) {
+            throw new BusinessException(400, "分片大小不正确，应为" + expected + "字节");
+        }
+
+        session.lock.readLock().lock();
+        try {
+            if (session.filePath != null) {
+                throw new BusinessException("文件已上传完成");
+            }
+            // 先撤销标记再覆盖写入，写入或校验失败时该分片需要重传
+            mark(session, index, false);
+            MessageDigest digest = checksum == null ? null : sha256();
+            long written = 0;
+            byte[] buffer = BUFFER.get();
+            try (FileChannel channel = FileChannel.open(dataFile(uploadId), StandardOpenOption.WRITE)) {
+                int read;
+                while ((read = in.read(buffer, 0, (int) Math.min(buffer.length, expected - written + 1))) != -1) {
+                    if (written + read > expected) {
+                        throw new BusinessException(400, "分片大小不正确，应为" + expected + "字节");
+                    }
+                    if (digest != null) {
+                        digest.update(buffer, 0, read);
+                    }
+                    ByteBuffer data = ByteBuffer.wrap(buffer, 0, read);
+                    while (data.hasRemaining()) {
+                        channel.write(data, position + written + data.position());
+                    }
+                    written += read;
+                }
+                if (written != expected) {
+                    throw new BusinessException(400, "分片数据不完整，请重传");
+                }
+                if (digest != null && !toHex(digest.digest()).equalsIgnoreCase(checksum)) {
+                    checksumFailures.incrementAndGet();
+                    throw new BusinessException(400, "分片校验失败，请重传");
+                }
+                // 数据落盘后再记录分片已接收，重启后的续传状态与文件内容一致
+                channel.force(false);
+            } finally {
+                bytesReceived.addAndGet(written);
+            }
+            mark(session, index, true);
+            chunkCount.incrementAndGet();
+        } catch (IOException e) {
+            log.warn("分片写入失败，uploadId={}, index={}: {}", uploadId, index, e.getMessage());
+            throw new BusinessException("分片上传中断，请重试");
+        } finally {
+            session.lock.readLock().unlock();
+        }
+        return toStatus(session);
+    }
+
+    /**
+     * 完成上传：校验全部分片与文件校验值后移动到正式目录（重复调用返回同一路径）
+     *
+     * @return 上传状态（filePath 为文件相对路径）
+     */
+    public ChunkUploadStatus complete(String uploadId, CustomUserDetails user) throws IOException {
+        UploadSession session = getSession(uploadId, user);
+        session.lock.writeLock().lock();
+        try {
+            if (session.filePath != null) {
+                return toStatus(session);
+            }
+            int missing;
+            synchronized (session) {
+                missing = session.chunkCount - session.received.cardinality();
+            }
+            if (missing > 0) {
+                throw new BusinessException(400, "还有" + missing + "个分片未上传");
+            }
+            Path data = dataFile(uploadId);
+            if (session.sha256 != null && !session.sha256.equals(digestFile(data))) {
+                // 无法确定损坏的分片，全部重传
+                checksumFailures.incrementAndGet();
+                synchronized (session) {
+                    session.received.clear();
+                    Files.write(marksFile(uploadId), new byte[session.chunkCount]);
+                }
+                throw new BusinessException(400, "文件校验失败，请重新上传");
+            }
+            String extension = FileUtil.extName(session.fileName);
+            session.filePath = fileUtils.moveToUploadPath(data, session.type, session.targetId, extension);
+            Files.deleteIfExists(marksFile(uploadId));
+            Files.deleteIfExists(metaFile(uploadId));
+            completedCount.incrementAndGet();
+            return toStatus(session);
+        } finally {
+            session.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 取消上传并删除临时文件
+     */
+    public void cancel(String uploadId, CustomUserDetails user) throws IOException {
+        UploadSession session = getSession(uploadId, user);
+        session.lock.writeLock().lock();
+        try {
+            if (session.filePath == null) {
+                deleteFiles(uploadId);
+            }
+            sessions.remove(uploadId);
+        } finally {
+            session.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 定时清理长时间无进展的上传（按分片标记文件的修改时间判断，覆盖重启前遗留的上传）
+     */
+    @Scheduled(fixedDelayString = "${file.upload.chunk.cleanup-interval:3600000}")
+    public void cleanup() {
+        long expireBefore = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(expireHours);
+        sessions.values().removeIf(session -> session.filePath != null && session.lastAccess < expireBefore);
+
+        Path directory = fileUtils.getChunkDirectory();
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + MARKS_SUFFIX)) {
+            for (Path marks : stream) {
+                if (Files.getLastModifiedTime(marks).toMillis() >= expireBefore) {
+                    continue;
+                }
+                String name = marks.getFileName().toString();
+                String uploadId = name.substring(0, name.length() - MARKS_SUFFIX.length());
+                UploadSession session = sessions.remove(uploadId);
+                if (session != null && session.lastAccess >= expireBefore) {
+                    sessions.put(uploadId, session);
+                    continue;
+                }
+                deleteFiles(uploadId);
+                expiredCount.incrementAndGet();
+                log.info("清理过期的分片上传，uploadId={}", uploadId);
+            }
+        } catch (IOException e) {
+            log.warn("清理分片上传临时文件失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 上传统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("activeSessions", sessions.size());
+        stats.put("chunkCount", chunkCount.get());
+        stats.put("bytesReceived", bytesReceived.get());
+        stats.put("checksumFailures", checksumFailures.get());
+        stats.put("completedCount", completedCount.get());
+        stats.put("expiredCount", expiredCount.get());
+        stats.put("chunkSize", chunkSize);
+        return stats;
+    }
+
+    private UploadSession getSession(String uploadId, CustomUserDetails user) {
+        // 上传ID直接用作文件名，先校验格式
+        if (uploadId == null || !uploadId.matches("[0-9a-f]{32}")) {
+            throw new BusinessException(404, "上传任务不存在");
+        }
+        UploadSession session = sessions.computeIfAbsent(uploadId, this::loadSession);
+        if (session == null) {
+            throw new BusinessException(404, "上传任务不存在或已过期");
+        }
+        if (!session.ownerId.equals(user.getUserId())) {
+            throw new BusinessException(403, "无权操作该上传任务");
+        }
+        session.lastAccess = System.currentTimeMillis();
+        return session;
+    }
+
+    /**
+     * 从磁盘恢复上传状态（服务重启后续传）
+     */
+    private UploadSession loadSession(String uploadId) {
+        Properties meta = new Properties();
+        byte[] marks;
+        try (Reader reader = Files.newBufferedReader(metaFile(uploadId), StandardCharsets.UTF_8)) {
+            meta.load(reader);
+            marks = Files.readAllBytes(marksFile(uploadId));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("读取分片上传状态失败，uploadId={}: {}", uploadId, e.getMessage());
+            return null;
+        }
+        UploadSession session = new UploadSession();
+        session.uploadId = uploadId;
+        session.type = meta.getProperty("type");
+        session.ownerId = Long.valueOf(meta.getProperty("ownerId"));
+        session.targetId = Long.valueOf(meta.getProperty("targetId"));
+        session.fileName = meta.getProperty("fileName");
+        session.fileSize = Long.parseLong(meta.getProperty("fileSize"));
+        session.chunkSize = Integer.parseInt(meta.getProperty("chunkSize"));
+        session.chunkCount = Integer.parseInt(meta.getProperty("chunkCount"));
+        session.sha256 = meta.getProperty("sha256");
+        session.received = new BitSet(session.chunkCount);
+        for (int i = 0; i < Math.min(marks.length, session.chunkCount); i++) {
+            if (marks[i] != 0) {
+                session.received.set(i);
+            }
+        }
+        return session;
+    }
+
+    private void writeMeta(UploadSession session) throws IOException {
+        Properties meta = new Properties();
+        meta.setProperty("type", session.type);
+        meta.setProperty("ownerId", String.valueOf(session.ownerId));
+        meta.setProperty("targetId", String.valueOf(session.targetId));
+        meta.setProperty("fileName", session.fileName);
+        meta.setProperty("fileSize", String.valueOf(session.fileSize));
+        meta.setProperty("chunkSize", String.valueOf(session.chunkSize));
+        meta.setProperty("chunkCount", String.valueOf(session.chunkCount));
+        if (session.sha256 != null) {
+            meta.setProperty("sha256", session.sha256);
+        }
+        try (Writer writer = Files.newBufferedWriter(metaFile(session.uploadId), StandardCharsets.UTF_8)) {
+            meta.store(writer, null);
+        }
+    }
+
+    /**
+     * 更新分片标记（内存与标记文件中对应的字节）
+     */
+    private void mark(UploadSession session, int index, boolean received) throws IOException {
+        synchronized (session) {
+            if (session.received.get(index) == received) {
+                return;
+            }
+            try (FileChannel channel = FileChannel.open(marksFile(session.uploadId), StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(new byte[]{(byte) (received ? 1 : 0)}), index);
+            }
+            session.received.set(index, received);
+        }
+    }
+
+    private String digestFile(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    private ChunkUploadStatus toStatus(UploadSession session) {
+        ChunkUploadStatus status = new ChunkUploadStatus();
+        status.setUploadId(session.uploadId);
+        status.setFileName(session.fileName);
+        status.setFileSize(session.fileSize);
+        status.setChunkSize(session.chunkSize);
+        status.setChunkCount(session.chunkCount);
+        status.setFilePath(session.filePath);
+        List<Integer> missing = new ArrayList<>();
+        synchronized (session) {
+            status.setReceivedCount(session.received.cardinality());
+            for (int i = session.received.nextClearBit(0); i < session.chunkCount; i = session.received.nextClearBit(i + 1)) {
+                missing.add(i);
+            }
+        }
+        status.setMissingChunks(session.filePath == null ? missing : new ArrayList<>());
+        return status;
+    }
+
+    private void deleteFiles(String uploadId) throws IOException {
+        Files.deleteIfExists(dataFile(uploadId));
+        Files.deleteIfExists(marksFile(uploadId));
+        Files.deleteIfExists(metaFile(uploadId));
+    }
+
+    private Path dataFile(String uploadId) {
+        return fileUtils.getChunkDirectory().resolve(uploadId + DATA_SUFFIX);
+    }
+
+    private Path metaFile(String uploadId) {
+        return fileUtils.getChunkDirectory().resolve(uploadId + META_SUFFIX);
+    }
+
+    private Path marksFile(String uploadId) {
+        return fileUtils.getChunkDirectory().resolve(uploadId + MARKS_SUFFIX);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static boolean isAdmin(CustomUserDetails user) {
+        return "ADMIN".equalsIgnoreCase(user.getRole());
+    }
+
+    /**
+     * 分片上传任务
+     */
+    private static final class UploadSession {
+
+        private String uploadId;
+
+        private String type;
+
+        private Long ownerId;
+
+        /**
+         * 文件归属ID（证明材料为用户ID，考试文件为考试ID）
+         */
+        private Long targetId;
+
+        private String fileName;
+
+        private long fileSize;
+
+        private int chunkSize;
+
+        private int chunkCount;
+
+        private String sha256;
+
+        /**
+         * 已接收的分片，由 synchronized(this) 保护
+         */
+        private BitSet received;
+
+        /**
+         * 组装完成后的相对路径
+         */
+        private volatile String filePath;
+
+        private volatile long lastAccess;
+
+        /**
+         * 分片写入持有读锁（可并发），完成与取消持有写锁
+         */
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    }
+}
@@ -0,0 +1,262 @@
+package com.exam.service;
+
+import com.exam.common.CachedContent;
+import com.exam.event.ExamChangedEvent;
+import com.exam.event.NoticeChangedEvent;
+import com.exam.exception.BusinessException;
+import com.exam.utils.OffHeapLruCache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 公告与考试内容缓存
+ * 公告详情、置顶公告、考试详情的响应数据按 Jackson 序列化后的 JSON 字节保存在堆外内存中，
+ * 命中时由 {@link com.exam.config.CachedContentHttpMessageConverter} 直接拼入 Result 写出（不查库、不序列化、不产生堆上的大对象）。
+ * 并发未命中共享同一次加载，加载期间发生失效的结果不写回缓存。
+ * 每个条目有独立于内容的版本号（ETag 来源）：内容变更事件在事务提交后失效条目并换发新版本，版本与内容同时过期，
+ * 过期后重新换发，兼顾其它节点的变更与报名人数、浏览次数的刷新。条件请求先比较版本，命中 304 时不加载也不序列化。
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Slf4j
+@Component
+public class ContentCache {
+
+    public static final String NOTICE_TOP = "notice:top";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${content-cache.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 堆外内存预算，单位：字节
+     */
+    @Value("${content-cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    /**
+     * 单条内容上限，单位：字节
+     */
+    @Value("${content-cache.max-entry-bytes:1048576}")
+    private long maxEntryBytes;
+
+    /**
+     * 过期时间，单位：秒
+     */
+    @Value("${content-cache.ttl:60}")
+    private long ttlSeconds;
+
+    private OffHeapLruCache<String> cache;
+
+    /**
+     * 公告列表代数，公告变更时递增，旧代数的分页缓存不再命中，随 LRU 淘汰
+     */
+    private final AtomicLong noticeGeneration = new AtomicLong();
+
+    /**
+     * 条目版本，失效时移除；加载结果只在版本未变时写入缓存，避免把旧内容写回
+     */
+    private final Map<String, KeyVersion> versions = new ConcurrentHashMap<>();
+
+    /**
+     * 版本号序列，起点随机，各节点换发的版本号不会相同（不同节点的 ETag 不会误判为未修改）
+     */
+    private final AtomicLong versionSequence = new AtomicLong(new SecureRandom().nextLong() >>> 1);
+
+    /**
+     * 正在加载的条目，并发未命中的请求共享同一次加载
+     */
+    private final Map<String, CompletableFuture<CachedContent>> loading = new ConcurrentHashMap<>();
+
+    private final AtomicLong loadCount = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        cache = new OffHeapLruCache<>(maxBytes, maxEntryBytes);
+        log.info("内容缓存初始化完成，enabled={}, maxBytes={}, ttl={}s", enabled, maxBytes, ttlSeconds);
+    }
+
+    public static String noticeKey(Long noticeId) {
+        return "notice:" + noticeId;
+    }
+
+    public String noticePageKey(long current, long size, String type) {
+        return "notice:page:" + noticeGeneration.get() + ":" + current + ":" + size + ":" + (type == null ? "" : type);
+    }
+
+    public static String examKey(Long examId) {
+        return "exam:" + examId;
+    }
+
+    /**
+     * 条目的当前版本（不存在或已过期时换发新版本），用于在加载内容前判断条件请求
+     */
+    public long getVersion(String key) {
+        long now = System.currentTimeMillis();
+        KeyVersion current = versions.get(key);
+        if (current != null && current.expireAt > now) {
+            return current.value;
+        }
+        return versions.compute(key, (k, existing) -> existing != null && existing.expireAt > now
+                ? existing : new KeyVersion(versionSequence.incrementAndGet(), now + ttlSeconds * 1000)).value;
+    }
+
+    /**
+     * 读取缓存内容，未命中时调用 loader 生成数据并序列化缓存
+     * 同一条目并发未命中时只有一个请求执行 loader，其余请求等待其结果；加载期间发生失效的结果不写回缓存
+     *
+     * @param loader 返回响应数据，返回 null 表示内容不存在（不缓存）
+     * @return 预序列化内容，内容不存在时返回 null
+     */
+    public CachedContent get(String key, Supplier<Object> loader) {
+        long version = getVersion(key);
+        if (!enabled) {
+            return load(key, loader, version, false);
+        }
+        OffHeapLruCache.Entry entry = cache.get(key, System.currentTimeMillis());
+        if (entry != null && entry.getVersion() == version) {
+            return new CachedContent(entry.content(), version);
+        }
+
+        CompletableFuture<CachedContent> future = new CompletableFuture<>();
+        CompletableFuture<CachedContent> running = loading.putIfAbsent(key, future);
+        if (running != null) {
+            return await(running);
+        }
+        try {
+            CachedContent content = load(key, loader, version, true);
+            future.complete(content);
+            return content;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    public void invalidate(String key) {
+        versions.remove(key);
+        // 之后的请求不再等待失效前开始的加载
+        loading.remove(key);
+        cache.remove(key);
+    }
+
+    /**
+     * 考试变更后失效（事务提交后执行）
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExamChanged(ExamChangedEvent event) {
+        invalidate(examKey(event.getExamId()));
+    }
+
+    /**
+     * 公告变更后失效（事务提交后执行）
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNoticeChanged(NoticeChangedEvent event) {
+        invalidate(noticeKey(event.getNoticeId()));
+        invalidate(NOTICE_TOP);
+        noticeGeneration.incrementAndGet();
+    }
+
+    /**
+     * 缓存统计
+     */
+    public Map<String, Object> getStats() {
+        long hits = cache.getHitCount();
+        long misses = cache.getMissCount();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("size", cache.size());
+        stats.put("usedBytes", cache.getUsedBytes());
+        stats.put("maxBytes", maxBytes);
+        stats.put("ttlSeconds", ttlSeconds);
+        stats.put("hitCount", hits);
+        stats.put("missCount", misses);
+        stats.put("evictCount", cache.getEvictCount());
+        stats.put("loadCount", loadCount.get());
+        stats.put("loadingCount", loading.size());
+        stats.put("versionCount", versions.size());
+        stats.put("hitRate", hits + misses == 0 ? 0D : (double) hits / (hits + misses));
+        return stats;
+    }
+
+    /**
+     * 清理已过期的版本（分页等条目的键会随公告代数变化，旧键的版本不再被访问）
+     */
+    @Scheduled(fixedDelayString = "${content-cache.version-purge-interval:60000}")
+    public void purgeExpiredVersions() {
+        long now = System.currentTimeMillis();
+        versions.values().removeIf(version -> version.expireAt <= now);
+    }
+
+    /**
+     * 执行 loader 并序列化，加载期间版本未变时写入缓存（与版本同时过期）
+     */
+    private CachedContent load(String key, Supplier<Object> loader, long version, boolean cacheable) {
+        loadCount.incrementAndGet();
+        Object body = loader.get();
+        if (body == null) {
+            return null;
+        }
+        byte[] bytes = serialize(body);
+        KeyVersion current = versions.get(key);
+        if (!cacheable || current == null || current.value != version) {
+            return new CachedContent(ByteBuffer.wrap(bytes).asReadOnlyBuffer(), version);
+        }
+        OffHeapLruCache.Entry entry = cache.put(key, bytes, version, current.expireAt);
+        return new CachedContent(entry.content(), version);
+    }
+
+    private static CachedContent await(CompletableFuture<CachedContent> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private byte[] serialize(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new BusinessException("响应序列化失败", e);
+        }
+    }
+
+    private static final class KeyVersion {
+
+        private final long value;
+
+        private final long expireAt;
+
+        private KeyVersion(long value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+    }
+}
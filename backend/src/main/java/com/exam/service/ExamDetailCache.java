@@ -0,0 +1,311 @@
+package com.exam.service;
+
+import com.exam.dto.ExamDetailResponse;
+import com.exam.dto.ExamSiteAvailability;
+import com.exam.dto.SiteRecommendation;
+import com.exam.entity.Exam;
+import com.exam.event.ExamChangedEvent;
+import com.exam.mapper.ExamMapper;
+import com.exam.utils.GeoKdTree;
+import com.exam.utils.TransactionUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * 考试详情聚合缓存
+ * 考试及其全部考点由一次 LEFT JOIN 查询加载，报名人数保存在原子计数器中：
+ * 本节点报名/取消报名在事务提交后增减计数，选择考点时无需逐个考点查询余量。
+ * 考试变更事件（事务提交后）时失效；其它节点的报名依赖过期后重新加载同步。
+ * 每个考试维护变更计数，失效与报名人数变更时递增，加载期间计数发生变化的结果只返回不缓存，避免旧数据写回。
+ * 每个聚合按考点坐标建立 k-d 树（随聚合重新加载而重建），就近推荐时按实时余量过滤已满考点。
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Slf4j
+@Component
+public class ExamDetailCache {
+
+    @Autowired
+    private ExamMapper examMapper;
+
+    /**
+     * 过期时间（用于同步其它节点的报名人数），单位：秒
+     */
+    @Value("${exam.detail-cache.ttl:30}")
+    private long ttlSeconds;
+
+    private final Map<Long, Aggregate> cache = new ConcurrentHashMap<>();
+
+    /**
+     * 考试ID -> 变更计数（失效与报名人数变更），条目不删除，避免加载期间计数被重置
+     */
+    private final Map<Long, AtomicLong> changeCounters = new ConcurrentHashMap<>();
+
+    private final String instanceId = Long.toHexString(ThreadLocalRandom.current().nextLong());
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong loadCount = new AtomicLong();
+
+    private final AtomicLong seatUpdateCount = new AtomicLong();
+
+    /**
+     * 获取考试详情聚合（每次返回独立副本，报名人数为当前计数），考试不存在时返回 null
+     */
+    public ExamDetailResponse get(Long examId) {
+        Aggregate aggregate = aggregateOf(examId);
+        return aggregate == null ? null : aggregate.toResponse();
+    }
+
+    /**
+     * 考试详情聚合的版本（加载代数与报名人数变更次数），考试不存在时返回 null
+     */
+    public String getVersion(Long examId) {
+        Aggregate aggregate = aggregateOf(examId);
+        return aggregate == null ? null : instanceId + "-" + aggregate.generation + "-" + aggregate.changes.get();
+    }
+
+    /**
+     * 距离给定位置最近且仍有余量的 k 个启用考点（按距离升序，无坐标的考点不参与），考试不存在时返回 null
+     */
+    public List<SiteRecommendation> nearestAvailable(Long examId, double latitude, double longitude, int k) {
+        Aggregate aggregate = aggregateOf(examId);
+        if (aggregate == null) {
+            return null;
+        }
+        List<GeoKdTree.Neighbor> neighbors = aggregate.geoIndex.nearest(latitude, longitude, k,
+                treeIndex -> aggregate.isAvailable(aggregate.geoSites[treeIndex]));
+        List<SiteRecommendation> result = new ArrayList<>(neighbors.size());
+        for (GeoKdTree.Neighbor neighbor : neighbors) {
+            SiteRecommendation recommendation = aggregate.copySite(aggregate.geoSites[neighbor.getIndex()],
+                    new SiteRecommendation());
+            recommendation.setDistanceKm(Math.round(neighbor.getDistanceKm() * 10) / 10.0);
+            result.add(recommendation);
+        }
+        return result;
+    }
+
+    /**
+     * 占用一个座位（事务提交后生效）
+     */
+    public void seatTakenAfterCommit(Long examId, Long siteId) {
+        TransactionUtils.afterCommit(() -> adjust(examId, siteId, 1));
+    }
+
+    /**
+     * 释放一个座位（事务提交后生效）
+     */
+    public void seatReleasedAfterCommit(Long examId, Long siteId) {
+        TransactionUtils.afterCommit(() -> adjust(examId, siteId, -1));
+    }
+
+    /**
+     * 考试变更后失效（事务提交后执行）
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExamChanged(ExamChangedEvent event) {
+        invalidate(event.getExamId());
+    }
+
+    public void invalidate(Long examId) {
+        if (examId != null) {
+            changeCounter(examId).incrementAndGet();
+            cache.remove(examId);
+        }
+    }
+
+    /**
+     * 清理过期条目
+     */
+    @Scheduled(fixedDelayString = "${exam.detail-cache.purge-interval:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        cache.values().removeIf(aggregate -> aggregate.expireAt <= now);
+    }
+
+    /**
+     * 缓存统计
+     */
+    public Map<String, Object> getStats() {
+        int sites = 0;
+        for (Aggregate aggregate : cache.values()) {
+            sites += aggregate.sites.size();
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("examCount", cache.size());
+        stats.put("siteCount", sites);
+        stats.put("ttlSeconds", ttlSeconds);
+        stats.put("hitCount", hitCount.get());
+        stats.put("loadCount", loadCount.get());
+        stats.put("seatUpdateCount", seatUpdateCount.get());
+        return stats;
+    }
+
+    private void adjust(Long examId, Long siteId, int delta) {
+        if (examId == null) {
+            return;
+        }
+        // 先递增计数再读取缓存：正在加载的聚合可能读到变更前的人数，不能写入缓存
+        changeCounter(examId).incrementAndGet();
+        Aggregate aggregate = cache.get(examId);
+        if (aggregate != null) {
+            aggregate.adjust(siteId, delta);
+            seatUpdateCount.incrementAndGet();
+        }
+    }
+
+    private Aggregate aggregateOf(Long examId) {
+        if (examId == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        Aggregate aggregate = cache.get(examId);
+        if (aggregate != null && aggregate.expireAt > now) {
+            hitCount.incrementAndGet();
+            return aggregate;
+        }
+
+        AtomicLong counter = changeCounter(examId);
+        long version = counter.get();
+        ExamDetailResponse detail = examMapper.selectDetailWithSites(examId);
+        loadCount.incrementAndGet();
+        if (detail == null || detail.getExam() == null) {
+            cache.remove(examId);
+            return null;
+        }
+        aggregate = new Aggregate(detail, generation.incrementAndGet(), now + ttlSeconds * 1000);
+        if (version == counter.get()) {
+            cache.put(examId, aggregate);
+        }
+        return aggregate;
+    }
+
+    private AtomicLong changeCounter(Long examId) {
+        return changeCounters.computeIfAbsent(examId, key -> new AtomicLong());
+    }
+
+    /**
+     * 单个考试的聚合：考试与考点信息不可变，报名人数为原子计数
+     */
+    private static final class Aggregate {
+
+        private final Exam exam;
+
+        private final List<ExamSiteAvailability> sites;
+
+        /**
+         * 考点ID -> 下标
+         */
+        private final Map<Long, Integer> siteIndex;
+
+        private final AtomicIntegerArray siteCounts;
+
+        private final AtomicInteger examCount;
+
+        private final AtomicLong changes = new AtomicLong();
+
+        /**
+         * 有坐标考点的 k-d 树
+         */
+        private final GeoKdTree geoIndex;
+
+        /**
+         * 树中下标 -> 考点下标
+         */
+        private final int[] geoSites;
+
+        private final long generation;
+
+        private final long expireAt;
+
+        private Aggregate(ExamDetailResponse detail, long generation, long expireAt) {
+            this.exam = detail.getExam();
+            this.sites = detail.getSites() == null
+                    ? Collections.emptyList() : Collections.unmodifiableList(detail.getSites());
+            this.siteIndex = new HashMap<>(sites.size() * 2);
+            this.siteCounts = new AtomicIntegerArray(sites.size());
+            for (int i = 0; i < sites.size(); i++) {
+                ExamSiteAvailability site = sites.get(i);
+                siteIndex.put(site.getId(), i);
+                siteCounts.set(i, site.getCurrentCount() == null ? 0 : site.getCurrentCount());
+            }
+            this.geoSites = IntStream.range(0, sites.size())
+                    .filter(i -> sites.get(i).getLatitude() != null && sites.get(i).getLongitude() != null)
+                    .toArray();
+            double[] latitudes = new double[geoSites.length];
+            double[] longitudes = new double[geoSites.length];
+            for (int i = 0; i < geoSites.length; i++) {
+                latitudes[i] = sites.get(geoSites[i]).getLatitude().doubleValue();
+                longitudes[i] = sites.get(geoSites[i]).getLongitude().doubleValue();
+            }
+            this.geoIndex = new GeoKdTree(latitudes, longitudes);
+            this.examCount = new AtomicInteger(exam.getCurrentCount() == null ? 0 : exam.getCurrentCount());
+            this.generation = generation;
+            this.expireAt = expireAt;
+        }
+
+        private void adjust(Long siteId, int delta) {
+            examCount.addAndGet(delta);
+            Integer index = siteId == null ? null : siteIndex.get(siteId);
+            if (index != null) {
+                siteCounts.addAndGet(index, delta);
+            }
+            changes.incrementAndGet();
+        }
+
+        private boolean isAvailable(int index) {
+            ExamSiteAvailability site = sites.get(index);
+            int capacity = site.getCapacity() == null ? 0 : site.getCapacity();
+            return Integer.valueOf(1).equals(site.getStatus()) && siteCounts.get(index) < capacity;
+        }
+
+        /**
+         * 复制考点信息并填入当前报名人数与剩余座位数
+         */
+        private <T extends ExamSiteAvailability> T copySite(int index, T copy) {
+            BeanUtils.copyProperties(sites.get(index), copy);
+            int count = Math.max(0, siteCounts.get(index));
+            int capacity = copy.getCapacity() == null ? 0 : copy.getCapacity();
+            copy.setCurrentCount(count);
+            copy.setRemainingSeats(Math.max(0, capacity - count));
+            return copy;
+        }
+
+        private ExamDetailResponse toResponse() {
+            Exam examCopy = new Exam();
+            BeanUtils.copyProperties(exam, examCopy);
+            examCopy.setCurrentCount(Math.max(0, examCount.get()));
+
+            List<ExamSiteAvailability> siteCopies = new ArrayList<>(sites.size());
+            for (int i = 0; i < sites.size(); i++) {
+                siteCopies.add(copySite(i, new ExamSiteAvailability()));
+            }
+
+            ExamDetailResponse response = new ExamDetailResponse();
+            response.setExamId(exam.getId());
+            response.setExam(examCopy);
+            response.setSites(siteCopies);
+            return response;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.exam.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.exam.entity.Exam;
+import com.exam.event.ExamChangedEvent;
+import com.exam.mapper.ExamMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 考试生命周期调度器
+ * 为每场考试计算下一个状态切换时刻（报名开始 2→3、报名结束 3→4、考试结束 4→5），放入按时间排序的延迟队列，
+ * 到点由单独线程执行条件更新（UPDATE ... WHERE status = 原状态），多节点同时触发时只有一个节点更新成功；
+ * 每个节点都会发布本地的考试变更事件，使本节点缓存失效并预加载报名数据；事件交由单独线程按顺序发布，
+ * 监听方的耗时处理（如预加载报名数据）不会推迟后续考试的状态切换。
+ * 启动时及定期从 exam 表重建队列，已过期的切换立即执行。
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Slf4j
+@Component
+public class ExamLifecycleScheduler {
+
+    @Autowired
+    private ExamMapper examMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final DelayQueue<Transition> queue = new DelayQueue<>();
+
+    /**
+     * 每场考试只保留下一个切换
+     */
+    private final Map<Long, Transition> pending = new ConcurrentHashMap<>();
+
+    private final AtomicLong firedCount = new AtomicLong();
+
+    private final AtomicLong appliedCount = new AtomicLong();
+
+    private volatile Thread worker;
+
+    private final ExecutorService publisher = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "exam-lifecycle-event");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 应用启动完成后重建队列并启动调度线程
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+        Thread thread = new Thread(this::run, "exam-lifecycle");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        Thread thread = worker;
+        worker = null;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        publisher.shutdownNow();
+    }
+
+    /**
+     * 定期从数据库重建，纳入其它节点对考试的修改
+     */
+    @Scheduled(fixedDelayString = "${exam.lifecycle.resync-interval:600000}",
+            initialDelayString = "${exam.lifecycle.resync-interval:600000}")
+    public void rebuild() {
+        List<Exam> exams = examMapper.selectList(new LambdaQueryWrapper<Exam>().in(Exam::getStatus, 2, 3, 4));
+        LocalDateTime now = LocalDateTime.now();
+        for (Exam exam : exams) {
+            schedule(exam, now);
+        }
+        log.info("考试生命周期队列重建完成，待切换{}场", pending.size());
+    }
+
+    /**
+     * 考试变更后重新计算下一个切换（事务提交后执行）
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExamChanged(ExamChangedEvent event) {
+        Long examId = event.getExamId();
+        Exam exam = event.getAction() == ExamChangedEvent.Action.DELETED ? null : examMapper.selectById(examId);
+        if (exam == null) {
+            cancel(examId);
+        } else {
+            schedule(exam, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * 调度统计
+     */
+    public Map<String, Object> getStats() {
+        Transition next = queue.peek();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("pendingCount", pending.size());
+        stats.put("nextExamId", next == null ? null : next.examId);
+        stats.put("nextStatus", next == null ? null : next.toStatus);
+        stats.put("nextFireTime", next == null ? null : next.fireTime.toString());
+        stats.put("firedCount", firedCount.get());
+        stats.put("appliedCount", appliedCount.get());
+        stats.put("running", worker != null && worker.isAlive());
+        return stats;
+    }
+
+    private void schedule(Exam exam, LocalDateTime now) {
+        Transition next = nextTransition(exam, now);
+        Transition old = next == null ? pending.remove(exam.getId()) : pending.put(exam.getId(), next);
+        if (old != null) {
+            queue.remove(old);
+        }
+        if (next != null) {
+            queue.add(next);
+        }
+    }
+
+    private void cancel(Long examId) {
+        Transition old = pending.remove(examId);
+        if (old != null) {
+            queue.remove(old);
+        }
+    }
+
+    private void run() {
+        while (worker == Thread.currentThread()) {
+            Transition transition;
+            try {
+                transition = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (!pending.remove(transition.examId, transition)) {
+                // 已被更新的切换替代
+                continue;
+            }
+            try {
+                fire(transition);
+            } catch (Exception e) {
+                log.error("考试状态切换失败，examId={}, {}->{}", transition.examId,
+                        transition.fromStatus, transition.toStatus, e);
+            }
+        }
+    }
+
+    private void fire(Transition transition) {
+        firedCount.incrementAndGet();
+        int updated = examMapper.transitionStatus(transition.examId, transition.fromStatus,
+                transition.toStatus, LocalDateTime.now());
+        if (updated > 0) {
+            appliedCount.incrementAndGet();
+            log.info("考试状态已切换，examId={}, {}->{}", transition.examId, transition.fromStatus, transition.toStatus);
+        }
+        // 无论本节点是否更新成功都发布事件：使本节点缓存失效，并由监听方重新计算下一个切换
+        publish(new ExamChangedEvent(this, transition.examId, actionOf(transition.toStatus)));
+    }
+
+    /**
+     * 在发布线程上执行监听方，调度线程立即返回处理下一个切换
+     */
+    void publish(ExamChangedEvent event) {
+        publisher.execute(() -> {
+            try {
+                eventPublisher.publishEvent(event);
+            } catch (Exception e) {
+                log.error("发布考试变更事件失败，examId={}, action={}", event.getExamId(), event.getAction(), e);
+            }
+        });
+    }
+
+    /**
+     * 计算考试的下一个状态切换，已过期的切换触发时刻为当前时刻
+     */
+    static Transition nextTransition(Exam exam, LocalDateTime now) {
+        Integer status = exam.getStatus();
+        if (status == null || exam.getId() == null) {
+            return null;
+        }
+        LocalDateTime start = exam.getRegistrationStart();
+        LocalDateTime end = exam.getRegistrationEnd();
+        switch (status) {
+            case 2:
+                if (start == null || end == null) {
+                    return null;
+                }
+                // 报名已结束时直接切换为报名结束
+                return end.isAfter(now) ? new Transition(exam.getId(), 2, 3, later(start, now))
+                        : new Transition(exam.getId(), 2, 4, now);
+            case 3:
+                return end == null ? null : new Transition(exam.getId(), 3, 4, later(end, now));
+            case 4:
+                if (exam.getExamDate() == null) {
+                    return null;
+                }
+                return new Transition(exam.getId(), 4, 5, later(exam.getExamDate().plusDays(1).atStartOfDay(), now));
+            default:
+                return null;
+        }
+    }
+
+    private static LocalDateTime later(LocalDateTime time, LocalDateTime now) {
+        return time.isAfter(now) ? time : now;
+    }
+
+    private static ExamChangedEvent.Action actionOf(int toStatus) {
+        switch (toStatus) {
+            case 3:
+                return ExamChangedEvent.Action.REGISTRATION_OPENED;
+            case 4:
+                return ExamChangedEvent.Action.REGISTRATION_CLOSED;
+            default:
+                return ExamChangedEvent.Action.FINISHED;
+        }
+    }
+
+    /**
+     * 状态切换
+     */
+    static final class Transition implements Delayed {
+
+        final Long examId;
+
+        final int fromStatus;
+
+        final int toStatus;
+
+        final LocalDateTime fireTime;
+
+        private final long fireAtMillis;
+
+        Transition(Long examId, int fromStatus, int toStatus, LocalDateTime fireTime) {
+            this.examId = examId;
+            this.fromStatus = fromStatus;
+            this.toStatus = toStatus;
+            this.fireTime = fireTime;
+            long millis = fireTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            // 向上取整到毫秒，保证不会早于边界时刻触发
+            this.fireAtMillis = fireTime.getNano() % 1_000_000 == 0 ? millis : millis + 1;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(fireAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            if (other instanceof Transition) {
+                return Long.compare(fireAtMillis, ((Transition) other).fireAtMillis);
+            }
+            return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+        }
+    }
+}
@@ -24,6 +24,11 @@ public interface ExamService extends IService<Exam> {
      */
     PageResult<Exam> getAvailableExamPage(Integer current, Integer size, String examName, String examType);
 
+    /**
+     * 可报名考试列表的当前版本（用于 ETag）
+     */
+    String getAvailableExamVersion();
+
     /**
      * 创建考试
      */
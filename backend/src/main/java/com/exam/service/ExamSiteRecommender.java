@@ -0,0 +1,125 @@
+package com.exam.service;
+
+import com.exam.dto.ExamDetailResponse;
+import com.exam.dto.ExamSiteAvailability;
+import com.exam.dto.SiteRecommendation;
+import com.exam.exception.BusinessException;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 就近考点推荐
+ * 按考生坐标（或所在城市）在考试详情聚合的 k-d 树中查找最近且仍有余量的 K 个考点，
+ * 已满考点实时过滤，考生会被自然分流到附近的其它考点，而不是集中在列表中的第一个考点。
+ * 只提供城市时以该城市考点坐标的中心点作为位置；城市内考点均无坐标时按剩余座位数排序。
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Service
+public class ExamSiteRecommender {
+
+    @Autowired
+    private ExamDetailCache examDetailCache;
+
+    @Value("${exam.site-recommend.default-k:5}")
+    private int defaultK;
+
+    @Value("${exam.site-recommend.max-k:20}")
+    private int maxK;
+
+    private final AtomicLong geoQueryCount = new AtomicLong();
+
+    private final AtomicLong cityQueryCount = new AtomicLong();
+
+    /**
+     * 推荐考点
+     *
+     * @param examId    考试ID
+     * @param latitude  考生纬度（可选）
+     * @param longitude 考生经度（可选）
+     * @param city      考生所在城市（未提供坐标时使用）
+     * @param k         推荐数量（可选）
+     * @return 推荐考点列表，按距离升序
+     */
+    public List<SiteRecommendation> recommend(Long examId, Double latitude, Double longitude, String city, Integer k) {
+        int limit = k == null || k <= 0 ? defaultK : Math.min(k, maxK);
+        if (latitude != null && longitude != null) {
+            if (Math.abs(latitude) > 90 || Math.abs(longitude) > 180) {
+                throw new BusinessException(400, "经纬度超出范围");
+            }
+            geoQueryCount.incrementAndGet();
+            return nearest(examId, latitude, longitude, limit);
+        }
+        if (city == null || city.trim().isEmpty()) {
+            throw new BusinessException(400, "请提供所在位置或城市");
+        }
+
+        cityQueryCount.incrementAndGet();
+        ExamDetailResponse detail = examDetailCache.get(examId);
+        if (detail == null) {
+            throw new BusinessException(404, "考试不存在");
+        }
+        String cityName = city.trim();
+        double latSum = 0;
+        double lonSum = 0;
+        int located = 0;
+        List<ExamSiteAvailability> citySites = new ArrayList<>();
+        for (ExamSiteAvailability site : detail.getSites()) {
+            if (!cityName.equals(site.getCity())) {
+                continue;
+            }
+            citySites.add(site);
+            if (site.getLatitude() != null && site.getLongitude() != null) {
+                latSum += site.getLatitude().doubleValue();
+                lonSum += site.getLongitude().doubleValue();
+                located++;
+            }
+        }
+        if (located > 0) {
+            return nearest(examId, latSum / located, lonSum / located, limit);
+        }
+
+        // 城市内考点均无坐标，按剩余座位数推荐
+        List<SiteRecommendation> result = new ArrayList<>();
+        citySites.stream()
+                .filter(site -> Integer.valueOf(1).equals(site.getStatus()) && site.getRemainingSeats() > 0)
+                .sorted(Comparator.comparing(ExamSiteAvailability::getRemainingSeats).reversed())
+                .limit(limit)
+                .forEach(site -> {
+                    SiteRecommendation recommendation = new SiteRecommendation();
+                    BeanUtils.copyProperties(site, recommendation);
+                    result.add(recommendation);
+                });
+        return result;
+    }
+
+    /**
+     * 推荐统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("geoQueryCount", geoQueryCount.get());
+        stats.put("cityQueryCount", cityQueryCount.get());
+        stats.put("defaultK", defaultK);
+        stats.put("maxK", maxK);
+        return stats;
+    }
+
+    private List<SiteRecommendation> nearest(Long examId, double latitude, double longitude, int limit) {
+        List<SiteRecommendation> result = examDetailCache.nearestAvailable(examId, latitude, longitude, limit);
+        if (result == null) {
+            throw new BusinessException(404, "考试不存在");
+        }
+        return result;
+    }
+}
@@ -0,0 +1,121 @@
+package com.exam.service;
+
+import com.exam.entity.Exam;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 考试快照（不可变）
+ * 报名校验所需的考试状态、报名时间等字段，在报名期间基本不变，可安全地在多线程间共享
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+public final class ExamSnapshot implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+
+    private final String examName;
+
+    private final String examType;
+
+    private final LocalDate examDate;
+
+    private final Integer status;
+
+    private final LocalDateTime registrationStart;
+
+    private final LocalDateTime registrationEnd;
+
+    private final BigDecimal fee;
+
+    private final Integer totalQuota;
+
+    /**
+     * 加载时的报名人数，仅作近似参考
+     */
+    private final Integer currentCount;
+
+    private ExamSnapshot(Exam exam) {
+        this.id = exam.getId();
+        this.examName = exam.getExamName();
+        this.examType = exam.getExamType();
+        this.examDate = exam.getExamDate();
+        this.status = exam.getStatus();
+        this.registrationStart = exam.getRegistrationStart();
+        this.registrationEnd = exam.getRegistrationEnd();
+        this.fee = exam.getFee();
+        this.totalQuota = exam.getTotalQuota();
+        this.currentCount = exam.getCurrentCount();
+    }
+
+    public static ExamSnapshot from(Exam exam) {
+        return exam == null ? null : new ExamSnapshot(exam);
+    }
+
+    /**
+     * 考试是否处于可报名状态（已发布或报名中）
+     */
+    public boolean isOpenStatus() {
+        return status != null && (status == 2 || status == 3);
+    }
+
+    /**
+     * 指定时刻是否早于报名开始时间
+     */
+    public boolean isBeforeRegistration(LocalDateTime time) {
+        return registrationStart != null && time.isBefore(registrationStart);
+    }
+
+    /**
+     * 指定时刻是否晚于报名结束时间
+     */
+    public boolean isAfterRegistration(LocalDateTime time) {
+        return registrationEnd != null && time.isAfter(registrationEnd);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getExamName() {
+        return examName;
+    }
+
+    public String getExamType() {
+        return examType;
+    }
+
+    public LocalDate getExamDate() {
+        return examDate;
+    }
+
+    public Integer getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getRegistrationStart() {
+        return registrationStart;
+    }
+
+    public LocalDateTime getRegistrationEnd() {
+        return registrationEnd;
+    }
+
+    public BigDecimal getFee() {
+        return fee;
+    }
+
+    public Integer getTotalQuota() {
+        return totalQuota;
+    }
+
+    public Integer getCurrentCount() {
+        return currentCount;
+    }
+}
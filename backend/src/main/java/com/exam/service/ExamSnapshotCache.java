@@ -0,0 +1,129 @@
+package com.exam.service;
+
+import com.exam.entity.Exam;
+import com.exam.event.ExamChangedEvent;
+import com.exam.mapper.ExamMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 考试快照缓存
+ * 报名提交、可报名判断等校验路径读取不可变的考试快照，避免每次报名都查询 exam 表。
+ * 本节点的考试变更在事务提交后立即失效；其它节点的变更依赖较短的过期时间。
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Slf4j
+@Component
+public class ExamSnapshotCache {
+
+    @Autowired
+    private ExamMapper examMapper;
+
+    /**
+     * 过期时间，单位：秒
+     */
+    @Value("${exam.snapshot-cache.ttl:10}")
+    private long ttlSeconds;
+
+    private final Map<Long, Entry> cache = new ConcurrentHashMap<>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * 失效次数，用于丢弃加载期间发生失效的结果，避免把旧数据写回缓存
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * 获取考试快照，考试不存在时返回 null
+     */
+    public ExamSnapshot get(Long examId) {
+        if (examId == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        Entry entry = cache.get(examId);
+        if (entry != null && entry.expireAt > now) {
+            hitCount.incrementAndGet();
+            return entry.snapshot;
+        }
+
+        missCount.incrementAndGet();
+        long version = invalidations.get();
+        Exam exam = examMapper.selectById(examId);
+        ExamSnapshot snapshot = ExamSnapshot.from(exam);
+        if (snapshot != null) {
+            if (version == invalidations.get()) {
+                cache.put(examId, new Entry(snapshot, now + ttlSeconds * 1000));
+            }
+        } else {
+            cache.remove(examId);
+        }
+        return snapshot;
+    }
+
+    /**
+     * 考试变更后失效（事务提交后执行）
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExamChanged(ExamChangedEvent event) {
+        invalidate(event.getExamId());
+    }
+
+    public void invalidate(Long examId) {
+        if (examId != null) {
+            invalidations.incrementAndGet();
+            cache.remove(examId);
+        }
+    }
+
+    /**
+     * 清理过期条目
+     */
+    @Scheduled(fixedDelayString = "${exam.snapshot-cache.purge-interval:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        cache.values().removeIf(entry -> entry.expireAt <= now);
+    }
+
+    /**
+     * 缓存统计
+     */
+    public Map<String, Object> getStats() {
+        long hits = hitCount.get();
+        long misses = missCount.get();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", cache.size());
+        stats.put("ttlSeconds", ttlSeconds);
+        stats.put("hitCount", hits);
+        stats.put("missCount", misses);
+        stats.put("invalidationCount", invalidations.get());
+        stats.put("hitRate", hits + misses == 0 ? 0D : (double) hits / (hits + misses));
+        return stats;
+    }
+
+    private static final class Entry {
+
+        private final ExamSnapshot snapshot;
+
+        private final long expireAt;
+
+        private Entry(ExamSnapshot snapshot, long expireAt) {
+            this.snapshot = snapshot;
+            this.expireAt = expireAt;
+        }
+    }
+}
@@ -0,0 +1,390 @@
+package com.exam.service;
+
+import com.exam.entity.Registration;
+import com.exam.exception.BusinessException;
+import com.exam.mapper.RegistrationMapper;
+import com.exam.security.CustomUserDetails;
+import com.exam.utils.FileUtils;
+import com.exam.utils.HttpCacheUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 文件下载服务
+ * 上传目录下的头像、证明材料、考试文件与预生成的准考证统一从这里下载：先做路径与归属校验，
+ * 再按文件大小与修改时间生成 ETag / Last-Modified 处理条件请求（304），支持单段 Range（206/416）与 If-Range 断点续传。
+ * 文件内容不经过堆内存：Tomcat 支持 sendfile 时只登记文件与区间，由连接器在请求线程返回后用 sendfile 零拷贝发送，
+ * 打印准考证高峰期不会为每个下载占用一个请求线程；否则用 FileChannel.transferTo 写出，并限制同时进行的流式下载数。
+ * 准考证下载次数交给 {@link TicketDownloadCounter} 异步批量写回。
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Slf4j
+@Service
+public class FileDownloadService {
+
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    /**
+     * Range 无法满足（返回 416）
+     */
+    static final long[] UNSATISFIABLE = new long[0];
+
+    /**
+     * 私有文件：只允许浏览器缓存，使用前必须携带 ETag 重新校验
+     */
+    private static final String PRIVATE_REVALIDATE = CacheControl.noCache().cachePrivate().getHeaderValue();
+
+    @Autowired
+    private FileUtils fileUtils;
+
+    @Autowired
+    private RegistrationMapper registrationMapper;
+
+    @Autowired
+    private TicketDownloadCounter ticketDownloadCounter;
+
+    /**
+     * 连接器支持时使用 sendfile 发送
+     */
+    @Value("${file.download.sendfile:true}")
+    private boolean sendfile;
+
+    /**
+     * 同时进行的流式下载（不使用 sendfile 时每个下载占用一个请求线程）上限
+     */
+    @Value("${file.download.max-concurrent-streams:64}")
+    private int maxConcurrentStreams;
+
+    private Semaphore streamPermits;
+
+    private final AtomicLong requestCount = new AtomicLong();
+
+    private final AtomicLong notModifiedCount = new AtomicLong();
+
+    private final AtomicLong partialCount = new AtomicLong();
+
+    private final AtomicLong sendfileCount = new AtomicLong();
+
+    private final AtomicLong streamCount = new AtomicLong();
+
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    private final AtomicLong abortedCount = new AtomicLong();
+
+    private final AtomicLong bytesSent = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        streamPermits = new Semaphore(maxConcurrentStreams);
+    }
+
+    /**
+     * 下载上传目录下的文件
+     * 头像与证明材料只允许上传者本人或管理员下载，考试文件登录即可下载，准考证按报名归属校验
+     *
+     * @param relativePath 相对上传目录的路径
+     * @param user         当前用户
+     */
+    public void downloadUpload(String relativePath, CustomUserDetails user,
+                               HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path file = fileUtils.resolveUploadFile(relativePath);
+        // 按规范化后的实际文件分类，与实际发送的文件保持一致
+        String type = fileUtils.getUploadType(file);
+        if (file == null || type == null) {
+            throw new BusinessException(403, "无权下载该文件");
+        }
+        String fileName = file.getFileName().toString();
+        switch (type) {
+            case "avatar":
+            case "material":
+                Long ownerId = FileUtils.parseOwnerId(fileName, type);
+                if (!isAdmin(user) && (ownerId == null || !ownerId.equals(user.getUserId()))) {
+                    throw new BusinessException(403, "无权下载该文件");
+                }
+                send(file, fileName, request, response);
+                break;
+            case "exam":
+                send(file, fileName, request, response);
+                break;
+            default:
+                // 准考证：tickets/{考试ID}/{报名ID}.pdf
+                Long registrationId = parseTicketRegistrationId(fileName);
+                String examDir = file.getParent().getFileName().toString();
+                Registration registration = registrationId == null ? null : registrationMapper.selectById(registrationId);
+                if (registration == null || !examDir.equals(String.valueOf(registration.getExamId()))) {
+                    throw new BusinessException(404, "文件不存在");
+                }
+                sendTicket(registration, user, request, response);
+        }
+    }
+
+    /**
+     * 下载报名的准考证
+     *
+     * @param registrationId 报名ID
+     * @param user           当前用户
+     */
+    public void downloadTicket(Long registrationId, CustomUserDetails user,
+                               HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Registration registration = registrationMapper.selectById(registrationId);
+        if (registration == null) {
+            throw new BusinessException(404, "报名记录不存在");
+        }
+        sendTicket(registration, user, request, response);
+    }
+
+    /**
+     * 下载统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("requestCount", requestCount.get());
+        stats.put("notModifiedCount", notModifiedCount.get());
+        stats.put("partialCount", partialCount.get());
+        stats.put("sendfileCount", sendfileCount.get());
+        stats.put("streamCount", streamCount.get());
+        stats.put("rejectedCount", rejectedCount.get());
+        stats.put("abortedCount", abortedCount.get());
+        stats.put("bytesSent", bytesSent.get());
+        stats.put("activeStreams", maxConcurrentStreams - streamPermits.availablePermits());
+        stats.put("maxConcurrentStreams", maxConcurrentStreams);
+        stats.put("sendfileEnabled", sendfile);
+        stats.put("ticketCounter", ticketDownloadCounter.getStats());
+        return stats;
+    }
+
+    private void sendTicket(Registration registration, CustomUserDetails user,
+                            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!isAdmin(user) && !registration.getUserId().equals(user.getUserId())) {
+            throw new BusinessException(403, "无权下载该准考证");
+        }
+        if (!Integer.valueOf(2).equals(registration.getAuditStatus())
+                || !Integer.valueOf(2).equals(registration.getPaymentStatus())) {
+            throw new BusinessException("报名审核通过并完成缴费后才能下载准考证");
+        }
+        Path file = fileUtils.getTicketFile(registration.getExamId(), registration.getId());
+        String ticketNo = registration.getAdmissionTicketNo();
+        String fileName = "准考证_" + (ticketNo != null ? ticketNo : registration.getId()) + ".pdf";
+        boolean started;
+        try {
+            started = send(file, fileName, request, response);
+        } catch (BusinessException e) {
+            if (Integer.valueOf(404).equals(e.getCode())) {
+                throw new BusinessException(404, "准考证尚未生成，请稍后再试");
+            }
+            throw e;
+        }
+        // 只统计从头开始的下载，断点续传的后续分段不重复计数
+        if (started && !isAdmin(user)) {
+            ticketDownloadCounter.increment(registration.getId());
+        }
+    }
+
+    /**
+     * 发送文件
+     *
+     * @return 从文件开头发送了内容（完整下载或首个分段）时返回 true
+     */
+    boolean send(Path file, String fileName, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        requestCount.incrementAndGet();
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            throw new BusinessException(404, "文件不存在");
+        }
+        if (!attributes.isRegularFile()) {
+            throw new BusinessException(404, "文件不存在");
+        }
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        String etag = HttpCacheUtils.etag("file", Long.toHexString(length) + "-" + Long.toHexString(lastModified));
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, PRIVATE_REVALIDATE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            notModifiedCount.incrementAndGet();
+            return false;
+        }
+
+        long[] range = null;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && ifRangeMatches(request, etag, lastModified)) {
+            range = parseRange(rangeHeader, length);
+            if (range == UNSATISFIABLE) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return false;
+            }
+        }
+        long start = range == null ? 0 : range[0];
+        long count = range == null ? length : range[1] - range[0] + 1;
+
+        boolean useSendfile = sendfile && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT));
+        boolean head = "HEAD".equalsIgnoreCase(request.getMethod());
+        if (!useSendfile && !head && !streamPermits.tryAcquire()) {
+            rejectedCount.incrementAndGet();
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, "5");
+            return false;
+        }
+
+        MediaType mediaType = MediaTypeFactory.getMediaType(fileName).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        ContentDisposition disposition = ContentDisposition
+                .builder("image".equals(mediaType.getType()) ? "inline" : "attachment")
+                .filename(fileName, StandardCharsets.UTF_8)
+                .build();
+        response.setContentType(mediaType.toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, disposition.toString());
+        if (range != null) {
+            partialCount.incrementAndGet();
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + range[0] + "-" + range[1] + "/" + length);
+        }
+        response.setContentLengthLong(count);
+        if (head) {
+            return false;
+        }
+
+        if (useSendfile) {
+            // 连接器在请求处理结束后按登记的区间发送文件
+            request.setAttribute(SENDFILE_FILENAME, file.toRealPath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + count);
+            sendfileCount.incrementAndGet();
+            bytesSent.addAndGet(count);
+            return start == 0;
+        }
+
+        streamCount.incrementAndGet();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long end = start + count;
+            try {
+                while (position < end) {
+                    long transferred = channel.transferTo(position, end - position, out);
+                    if (transferred <= 0) {
+                        break;
+                    }
+                    position += transferred;
+                }
+                response.flushBuffer();
+            } catch (IOException e) {
+                // 客户端中断下载（断点续传时会带 Range 重新请求）
+                abortedCount.incrementAndGet();
+                log.debug("文件下载中断: {}, {}", fileName, e.getMessage());
+            } finally {
+                bytesSent.addAndGet(position - start);
+            }
+        } finally {
+            streamPermits.release();
+        }
+        return start == 0;
+    }
+
+    /**
+     * 解析单段 Range 请求头
+     *
+     * @return 闭区间 [start, end]；格式不支持或包含多段时返回 null（按完整文件响应）；无法满足时返回 {@link #UNSATISFIABLE}
+     */
+    static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            if (dash == 0) {
+                long suffix = Long.parseLong(spec.substring(1));
+                if (suffix <= 0 || length == 0) {
+                    return UNSATISFIABLE;
+                }
+                return new long[]{Math.max(0, length - suffix), length - 1};
+            }
+            long start = Long.parseLong(spec.substring(0, dash));
+            String endSpec = spec.substring(dash + 1);
+            long end = endSpec.isEmpty() ? Long.MAX_VALUE : Long.parseLong(endSpec);
+            if (start < 0 || end < start) {
+                return null;
+            }
+            if (start >= length) {
+                return UNSATISFIABLE;
+            }
+            return new long[]{start, Math.min(end, length - 1)};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * If-Range 与当前文件一致（或未携带）时才按 Range 响应，文件已变化则返回完整文件
+     */
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static Long parseTicketRegistrationId(String fileName) {
+        if (!fileName.endsWith(".pdf")) {
+            return null;
+        }
+        try {
+            return Long.valueOf(fileName.substring(0, fileName.length() - ".pdf".length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean isAdmin(CustomUserDetails user) {
+        return "ADMIN".equalsIgnoreCase(user.getRole());
+    }
+}
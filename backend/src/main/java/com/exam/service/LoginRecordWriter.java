@@ -0,0 +1,122 @@
+package com.exam.service;
+
+import com.exam.dto.LoginRecord;
+import com.exam.mapper.SysUserMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 登录记录异步写入服务
+ * 登录成功后的最后登录时间、IP及失败次数清零不再同步写库，而是按用户合并（只保留最新一次），
+ * 每隔几百毫秒批量更新一次，降低登录高峰期的响应时间与写放大。
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Slf4j
+@Service
+public class LoginRecordWriter {
+
+    @Autowired
+    private SysUserMapper userMapper;
+
+    /**
+     * 单条 UPDATE 语句最多包含的用户数
+     */
+    @Value("${user.login-record.batch-size:500}")
+    private int batchSize;
+
+    private final Map<Long, LoginRecord> pending = new ConcurrentHashMap<>();
+
+    private final AtomicLong recordCount = new AtomicLong();
+
+    private final AtomicLong writtenCount = new AtomicLong();
+
+    private final AtomicLong batchCount = new AtomicLong();
+
+    /**
+     * 记录一次成功登录
+     *
+     * @param userId         用户ID
+     * @param loginIp        登录IP
+     * @param resetFailCount 是否需要清除数据库中的失败次数与锁定时间
+     */
+    public void record(Long userId, String loginIp, boolean resetFailCount) {
+        recordCount.incrementAndGet();
+        LoginRecord record = new LoginRecord(userId, LocalDateTime.now(), loginIp, resetFailCount);
+        // 同一用户只保留最新的登录时间与IP，清零标记只要出现过就保留
+        pending.merge(userId, record, (old, latest) -> {
+            latest.setResetFailCount(old.isResetFailCount() || latest.isResetFailCount());
+            return latest;
+        });
+    }
+
+    /**
+     * 定时批量写入
+     */
+    @Scheduled(fixedDelayString = "${user.login-record.flush-interval:200}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<LoginRecord> batch = new ArrayList<>(Math.min(pending.size(), batchSize));
+        for (Long userId : pending.keySet()) {
+            LoginRecord record = pending.remove(userId);
+            if (record == null) {
+                continue;
+            }
+            batch.add(record);
+            if (batch.size() >= batchSize) {
+                write(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    /**
+     * 停机前写入剩余记录
+     */
+    @PreDestroy
+    public void destroy() {
+        flush();
+    }
+
+    /**
+     * 写入统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("pending", pending.size());
+        stats.put("recordCount", recordCount.get());
+        stats.put("writtenCount", writtenCount.get());
+        stats.put("batchCount", batchCount.get());
+        return stats;
+    }
+
+    private void write(List<LoginRecord> batch) {
+        try {
+            userMapper.batchUpdateLoginRecord(batch);
+            writtenCount.addAndGet(batch.size());
+            batchCount.incrementAndGet();
+        } catch (Exception e) {
+            // 登录记录属于辅助信息，写入失败只记录日志，不重试
+            log.warn("批量写入登录记录失败，共{}条: {}", batch.size(), e.getMessage());
+        }
+    }
+}
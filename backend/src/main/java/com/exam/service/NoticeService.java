@@ -35,7 +35,17 @@ public interface NoticeService extends IService<Notice> {
     Notice createNotice(Notice notice);
 
     /**
-     * 增加浏览次数
+     * 更新公告
+     */
+    boolean updateNotice(Notice notice);
+
+    /**
+     * 删除公告
+     */
+    boolean deleteNotice(Long noticeId);
+
+    /**
+     * 增加浏览次数（异步批量写回）
      */
     boolean incrementViewCount(Long noticeId);
 }
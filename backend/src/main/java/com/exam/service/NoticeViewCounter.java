@@ -0,0 +1,174 @@
+package com.exam.service;
+
+import com.exam.entity.Notice;
+import com.exam.mapper.NoticeMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 公告浏览次数缓冲计数器
+ * 浏览时只在内存中累加（每个公告一个 LongAdder），定时用一条 UPDATE ... CASE 批量写回增量，
+ * 置顶公告在报名高峰期不会因逐次 UPDATE 成为行锁热点。返回给读者的浏览次数会加上尚未写回的增量。
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Slf4j
+@Service
+public class NoticeViewCounter {
+
+    @Autowired
+    private NoticeMapper noticeMapper;
+
+    /**
+     * 单条 UPDATE 语句最多包含的公告数
+     */
+    @Value("${notice.view-counter.batch-size:500}")
+    private int batchSize;
+
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+
+    private final AtomicLong viewCount = new AtomicLong();
+
+    private final AtomicLong writtenCount = new AtomicLong();
+
+    private final AtomicLong batchCount = new AtomicLong();
+
+    /**
+     * 记录一次浏览
+     */
+    public void increment(Long noticeId) {
+        viewCount.incrementAndGet();
+        counters.computeIfAbsent(noticeId, key -> new Counter()).views.increment();
+    }
+
+    /**
+     * 尚未写回数据库的浏览次数
+     */
+    public long pending(Long noticeId) {
+        Counter counter = counters.get(noticeId);
+        return counter == null ? 0 : Math.max(0, counter.views.sum() - counter.flushed);
+    }
+
+    /**
+     * 把尚未写回的浏览次数加到公告上（用于返回给读者）
+     */
+    public void applyPending(Notice notice) {
+        if (notice == null || notice.getId() == null) {
+            return;
+        }
+        long pending = pending(notice.getId());
+        if (pending > 0) {
+            long base = notice.getViewCount() == null ? 0 : notice.getViewCount();
+            notice.setViewCount((int) Math.min(Integer.MAX_VALUE, base + pending));
+        }
+    }
+
+    public void applyPending(Collection<Notice> notices) {
+        if (notices != null && !counters.isEmpty()) {
+            notices.forEach(this::applyPending);
+        }
+    }
+
+    /**
+     * 定时批量写回
+     */
+    @Scheduled(fixedDelayString = "${notice.view-counter.flush-interval:5000}")
+    public synchronized void flush() {
+        Map<Long, Long> batch = new LinkedHashMap<>();
+        Map<Long, Long> totals = new HashMap<>();
+        for (Map.Entry<Long, Counter> entry : counters.entrySet()) {
+            Counter counter = entry.getValue();
+            // 计数只增不减，本次读到的总数之后的浏览会留到下一次写回
+            long total = counter.views.sum();
+            long delta = total - counter.flushed;
+            if (delta <= 0) {
+                continue;
+            }
+            batch.put(entry.getKey(), delta);
+            totals.put(entry.getKey(), total);
+            if (batch.size() >= batchSize) {
+                write(batch, totals);
+                batch = new LinkedHashMap<>();
+                totals = new HashMap<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch, totals);
+        }
+    }
+
+    /**
+     * 停机前写回剩余计数
+     */
+    @PreDestroy
+    public void destroy() {
+        flush();
+    }
+
+    /**
+     * 删除公告后丢弃其计数
+     */
+    public void remove(Long noticeId) {
+        counters.remove(noticeId);
+    }
+
+    /**
+     * 计数统计
+     */
+    public Map<String, Object> getStats() {
+        long pending = 0;
+        for (Counter counter : counters.values()) {
+            pending += Math.max(0, counter.views.sum() - counter.flushed);
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("trackedNotices", counters.size());
+        stats.put("pendingViews", pending);
+        stats.put("viewCount", viewCount.get());
+        stats.put("writtenCount", writtenCount.get());
+        stats.put("batchCount", batchCount.get());
+        return stats;
+    }
+
+    private void write(Map<Long, Long> batch, Map<Long, Long> totals) {
+        try {
+            noticeMapper.batchIncrementViewCount(batch);
+        } catch (Exception e) {
+            // 写回失败时保留增量，下次重试
+            log.warn("批量写回公告浏览次数失败，共{}条: {}", batch.size(), e.getMessage());
+            return;
+        }
+        long written = 0;
+        for (Map.Entry<Long, Long> entry : totals.entrySet()) {
+            Counter counter = counters.get(entry.getKey());
+            if (counter != null) {
+                counter.flushed = entry.getValue();
+            }
+            written += batch.get(entry.getKey());
+        }
+        writtenCount.addAndGet(written);
+        batchCount.incrementAndGet();
+    }
+
+    private static final class Counter {
+
+        private final LongAdder views = new LongAdder();
+
+        /**
+         * 已写回数据库的累计次数，只由写回线程修改
+         */
+        private volatile long flushed;
+    }
+}
@@ -0,0 +1,276 @@
+package com.exam.service;
+
+import com.exam.event.ExamChangedEvent;
+import com.exam.mapper.RegistrationMapper;
+import com.exam.utils.LongHashSet;
+import com.exam.utils.TransactionUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 已报名用户索引
+ * 按考试维护已报名用户ID的 long 集合（考试发布时或首次访问时从 registration 表流式加载），
+ * 报名提交时先在内存中筛查重复报名：集合中不存在则直接插入，由 uk_user_exam 唯一索引兜底；
+ * 集合中存在时再查库确认（兼顾其它节点的取消报名）。
+ * 集合在后台线程加载，不占用报名请求的线程与事务；加载完成前一律视为"可能已报名"走查库，
+ * 加载期间提交的报名与取消先缓冲，加载完成后按顺序补到集合中。
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Slf4j
+@Component
+public class RegisteredUserIndex {
+
+    @Autowired
+    private RegistrationMapper registrationMapper;
+
+    private final Map<Long, ExamUsers> sets = new ConcurrentHashMap<>();
+
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "registered-user-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong screenCount = new AtomicLong();
+
+    private final AtomicLong suspectCount = new AtomicLong();
+
+    private final AtomicLong loadCount = new AtomicLong();
+
+    private final AtomicLong notLoadedCount = new AtomicLong();
+
+    @PreDestroy
+    public void destroy() {
+        loader.shutdownNow();
+    }
+
+    /**
+     * 用户是否可能已报名该考试（返回 false 时一定未在本节点记录，返回 true 时需查库确认）
+     * 集合尚未加载完成时返回 true，并在后台触发加载
+     */
+    public boolean mightContain(Long examId, Long userId) {
+        screenCount.incrementAndGet();
+        ExamUsers users = usersOf(examId);
+        boolean found;
+        synchronized (users) {
+            if (users.set == null) {
+                notLoadedCount.incrementAndGet();
+                return true;
+            }
+            found = users.set.contains(userId);
+        }
+        if (found) {
+            suspectCount.incrementAndGet();
+        }
+        return found;
+    }
+
+    /**
+     * 记录报名（事务提交后生效）
+     */
+    public void addAfterCommit(Long examId, Long userId) {
+        TransactionUtils.afterCommit(() -> add(examId, userId));
+    }
+
+    /**
+     * 移除报名（事务提交后生效）
+     */
+    public void removeAfterCommit(Long examId, Long userId) {
+        TransactionUtils.afterCommit(() -> remove(examId, userId));
+    }
+
+    /**
+     * 预加载考试的已报名用户并等待加载完成（已加载时不重复加载）
+     *
+     * @return 已报名用户数
+     */
+    public int preload(Long examId) {
+        ExamUsers users = usersOf(examId);
+        // 后台线程尚未开始时在当前线程执行，已在执行时等待其完成
+        users.task.run();
+        try {
+            users.task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("预加载已报名用户被中断", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("预加载已报名用户失败", e.getCause());
+        }
+        synchronized (users) {
+            return users.set.size();
+        }
+    }
+
+    public void add(Long examId, Long userId) {
+        apply(examId, userId, true);
+    }
+
+    public void remove(Long examId, Long userId) {
+        apply(examId, userId, false);
+    }
+
+    private void apply(Long examId, Long userId, boolean add) {
+        ExamUsers users = sets.get(examId);
+        if (users == null) {
+            return;
+        }
+        synchronized (users) {
+            if (users.set == null) {
+                // 加载中：流式读取可能早于本次提交，缓冲后在加载完成时补上
+                users.pending.add(new PendingChange(userId, add));
+            } else if (add) {
+                users.set.add(userId);
+            } else {
+                users.set.remove(userId);
+            }
+        }
+    }
+
+    /**
+     * 考试发布、报名开始时预加载，撤销发布、删除或报名结束时释放
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExamChanged(ExamChangedEvent event) {
+        switch (event.getAction()) {
+            case PUBLISHED:
+                sets.remove(event.getExamId());
+                usersOf(event.getExamId());
+                break;
+            case REGISTRATION_OPENED:
+                usersOf(event.getExamId());
+                break;
+            case UNPUBLISHED:
+            case DELETED:
+            case REGISTRATION_CLOSED:
+            case FINISHED:
+                sets.remove(event.getExamId());
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 索引统计
+     */
+    public Map<String, Object> getStats() {
+        long users = 0;
+        long bytes = 0;
+        int loading = 0;
+        for (ExamUsers examUsers : sets.values()) {
+            synchronized (examUsers) {
+                if (examUsers.set == null) {
+                    loading++;
+                    continue;
+                }
+                users += examUsers.set.size();
+                bytes += examUsers.set.getSizeInBytes();
+            }
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("examCount", sets.size());
+        stats.put("loadingCount", loading);
+        stats.put("userCount", users);
+        stats.put("sizeInBytes", bytes);
+        stats.put("screenCount", screenCount.get());
+        stats.put("suspectCount", suspectCount.get());
+        stats.put("loadCount", loadCount.get());
+        stats.put("notLoadedCount", notLoadedCount.get());
+        return stats;
+    }
+
+    /**
+     * 获取考试的集合占位，首次访问时登记占位并交给后台线程加载（不在 ConcurrentHashMap 的计算函数中查库）
+     */
+    private ExamUsers usersOf(Long examId) {
+        ExamUsers users = sets.get(examId);
+        if (users != null) {
+            return users;
+        }
+        ExamUsers created = new ExamUsers(examId);
+        users = sets.putIfAbsent(examId, created);
+        if (users != null) {
+            return users;
+        }
+        loader.execute(created.task);
+        return created;
+    }
+
+    private LongHashSet load(ExamUsers users) {
+        long start = System.currentTimeMillis();
+        try {
+            LongHashSet set = new LongHashSet(registrationMapper.countByExamId(users.examId));
+            registrationMapper.streamUserIdsByExamId(users.examId, context -> set.add(context.getResultObject()));
+            synchronized (users) {
+                for (PendingChange change : users.pending) {
+                    if (change.add) {
+                        set.add(change.userId);
+                    } else {
+                        set.remove(change.userId);
+                    }
+                }
+                users.pending = null;
+                users.set = set;
+            }
+            loadCount.incrementAndGet();
+            log.info("加载考试{}已报名用户{}人，占用{}KB，耗时{}ms",
+                    users.examId, set.size(), set.getSizeInBytes() / 1024, System.currentTimeMillis() - start);
+            return set;
+        } catch (RuntimeException e) {
+            // 移除占位，下次访问时重新加载
+            sets.remove(users.examId, users);
+            log.error("加载考试{}已报名用户失败", users.examId, e);
+            throw e;
+        }
+    }
+
+    /**
+     * 单场考试的已报名用户，set 为 null 表示加载中（由自身监视器保护）
+     */
+    private final class ExamUsers {
+
+        private final Long examId;
+
+        private final FutureTask<LongHashSet> task;
+
+        private LongHashSet set;
+
+        private List<PendingChange> pending = new ArrayList<>();
+
+        private ExamUsers(Long examId) {
+            this.examId = examId;
+            this.task = new FutureTask<>(() -> load(this));
+        }
+    }
+
+    /**
+     * 加载期间缓冲的报名/取消
+     */
+    private static final class PendingChange {
+
+        private final long userId;
+
+        private final boolean add;
+
+        private PendingChange(long userId, boolean add) {
+            this.userId = userId;
+            this.add = add;
+        }
+    }
+}
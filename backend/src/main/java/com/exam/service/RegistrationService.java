@@ -10,6 +10,7 @@ import com.exam.mapper.*;
 import com.exam.utils.AESUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -44,6 +45,15 @@ public class RegistrationService {
     @Autowired
     private PaymentOrderService paymentOrderService;
 
+    @Autowired
+    private ExamSnapshotCache examSnapshotCache;
+
+    @Autowired
+    private RegisteredUserIndex registeredUserIndex;
+
+    @Autowired
+    private ExamDetailCache examDetailCache;
+
     /**
      * 考生提交报名
      *
@@ -55,31 +65,34 @@ public class RegistrationService {
         try {
             log.info("考生提交报名，userId={}, examId={}", request.getUserId(), request.getExamId());
 
-            // 1. 验证考试是否存在
-            Exam exam = examMapper.selectById(request.getExamId());
+            // 1. 验证考试是否存在（读取考试快照）
+            ExamSnapshot exam = examSnapshotCache.get(request.getExamId());
             if (exam == null) {
                 return Result.error("考试不存在");
             }
 
             // 2. 检查考试状态
-            if (exam.getStatus() != 2 && exam.getStatus() != 3) {
+            if (!exam.isOpenStatus()) {
                 return Result.error("该考试暂未开放报名");
             }
 
             // 3. 检查报名时间
             LocalDateTime now = LocalDateTime.now();
-            if (now.isBefore(exam.getRegistrationStart())) {
+            if (exam.isBeforeRegistration(now)) {
                 return Result.error("报名尚未开始");
             }
-            if (now.isAfter(exam.getRegistrationEnd())) {
+            if (exam.isAfterRegistration(now)) {
                 return Result.error("报名已结束");
             }
 
-            // 4. 检查是否重复报名（通过唯一索引 uk_user_exam）
-            Registration existing = registrationMapper.selectByUserIdAndExamId(
-                    request.getUserId(), request.getExamId());
-            if (existing != null) {
-                return Result.error("您已报名该考试，请勿重复报名");
+            // 4. 检查是否重复报名（内存筛查，命中时查库确认；最终以唯一索引 uk_user_exam 为准）
+            if (registeredUserIndex.mightContain(request.getExamId(), request.getUserId())) {
+                Registration existing = registrationMapper.selectByUserIdAndExamId(
+                        request.getUserId(), request.getExamId());
+                if (existing != null) {
+                    return Result.error("您已报名该考试，请勿重复报名");
+                }
+                registeredUserIndex.remove(request.getExamId(), request.getUserId());
             }
 
             // 5. 检查考点容量
@@ -107,7 +120,14 @@ public class RegistrationService {
             registration.setAuditStatus(1); // 待审核
             registration.setPaymentStatus(1); // 未缴费
 
-            registrationMapper.insert(registration);
+            try {
+                registrationMapper.insert(registration);
+            } catch (DuplicateKeyException e) {
+                registeredUserIndex.add(request.getExamId(), request.getUserId());
+                return Result.error("您已报名该考试，请勿重复报名");
+            }
+            registeredUserIndex.addAfterCommit(request.getExamId(), request.getUserId());
+            examDetailCache.seatTakenAfterCommit(request.getExamId(), request.getExamSiteId());
 
             log.info("报名提交成功，registrationId={}", registration.getId());
             return Result.success("报名提交成功，请等待审核", registration);
@@ -361,6 +381,8 @@ public class RegistrationService {
 
             // 删除报名记录（触发器会自动更新考试和考点的报名人数）
             registrationMapper.deleteById(registrationId);
+            registeredUserIndex.removeAfterCommit(registration.getExamId(), registration.getUserId());
+            examDetailCache.seatReleasedAfterCommit(registration.getExamId(), registration.getExamSiteId());
 
             log.info("取消报名成功，registrationId={}", registrationId);
             return Result.success("取消报名成功");
@@ -0,0 +1,242 @@
+package com.exam.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.exam.common.Result;
+import com.exam.dto.ExamDetailResponse;
+import com.exam.dto.ExamSiteAvailability;
+import com.exam.entity.Exam;
+import com.exam.mapper.ExamMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 报名开放前预热
+ * 在考试报名开始前的一段时间内，把该考试的快照与详情、考点及容量、已报名用户集合
+ * 提前加载到内存（同时把相关数据页读入 InnoDB 缓冲池），
+ * 报名开放后的第一波请求直接命中内存。每个节点各自预热本地缓存，预热状态与各步骤耗时供管理员查看。
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Slf4j
+@Component
+public class RegistrationWarmer {
+
+    @Autowired
+    private ExamMapper examMapper;
+
+    @Autowired
+    private ExamDetailCache examDetailCache;
+
+    @Autowired
+    private ExamSnapshotCache examSnapshotCache;
+
+    @Autowired
+    private ContentCache contentCache;
+
+    @Autowired
+    private RegisteredUserIndex registeredUserIndex;
+
+    /**
+     * 提前预热的时间，单位：秒
+     */
+    @Value("${exam.warmup.lead-seconds:300}")
+    private long leadSeconds;
+
+    private ExecutorService executor;
+
+    private final Map<Long, WarmupStatus> statuses = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "registration-warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 定时扫描即将开放报名的考试
+     */
+    @Scheduled(fixedDelayString = "${exam.warmup.scan-interval:30000}")
+    public void scan() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Exam> upcoming = examMapper.selectList(new LambdaQueryWrapper<Exam>()
+                .eq(Exam::getStatus, 2)
+                .gt(Exam::getRegistrationStart, now)
+                .le(Exam::getRegistrationStart, now.plusSeconds(leadSeconds)));
+        for (Exam exam : upcoming) {
+            WarmupStatus status = statuses.get(exam.getId());
+            // 报名开始时间调整后需要重新预热
+            if (status == null || !exam.getRegistrationStart().equals(status.registrationStart)) {
+                submit(exam);
+            }
+        }
+        // 清理报名已开始一天以上的记录
+        statuses.values().removeIf(status -> status.registrationStart != null
+                && status.registrationStart.isBefore(now.minusDays(1)));
+    }
+
+    /**
+     * 立即预热指定考试（管理员手动触发）
+     *
+     * @return 考试不存在时返回 false
+     */
+    public boolean warmUp(Long examId) {
+        Exam exam = examMapper.selectById(examId);
+        if (exam == null) {
+            return false;
+        }
+        submit(exam);
+        return true;
+    }
+
+    /**
+     * 各考试的预热状态
+     */
+    public List<Map<String, Object>> getStatuses() {
+        List<WarmupStatus> list = new ArrayList<>(statuses.values());
+        list.sort(Comparator.comparing((WarmupStatus status) -> status.registrationStart,
+                Comparator.nullsLast(Comparator.naturalOrder())));
+        List<Map<String, Object>> result = new ArrayList<>(list.size());
+        for (WarmupStatus status : list) {
+            result.add(status.toMap());
+        }
+        return result;
+    }
+
+    private void submit(Exam exam) {
+        WarmupStatus status = new WarmupStatus(exam);
+        statuses.put(exam.getId(), status);
+        executor.execute(() -> run(status));
+    }
+
+    private void run(WarmupStatus status) {
+        Long examId = status.examId;
+        status.state = "RUNNING";
+        status.startTime = LocalDateTime.now();
+        long start = System.currentTimeMillis();
+        try {
+            step(status, "exam", () -> {
+                examSnapshotCache.invalidate(examId);
+                examSnapshotCache.get(examId);
+                contentCache.invalidate(ContentCache.examKey(examId));
+                Exam exam = examMapper.selectById(examId);
+                contentCache.get(ContentCache.examKey(examId), () -> exam == null ? null : Result.success(exam));
+                return exam == null ? 0 : 1;
+            });
+            step(status, "sites", () -> {
+                examDetailCache.invalidate(examId);
+                ExamDetailResponse detail = examDetailCache.get(examId);
+                if (detail == null) {
+                    return 0;
+                }
+                long remaining = 0;
+                for (ExamSiteAvailability site : detail.getSites()) {
+                    remaining += site.getRemainingSeats();
+                }
+                status.remainingSeats = remaining;
+                return detail.getSites().size();
+            });
+            step(status, "registeredUsers", () -> registeredUserIndex.preload(examId));
+            status.state = "DONE";
+            log.info("考试{}报名预热完成，耗时{}ms，各步骤{}", examId, System.currentTimeMillis() - start, status.stepMillis);
+        } catch (Exception e) {
+            status.state = "FAILED";
+            status.error = e.getMessage();
+            log.error("考试{}报名预热失败", examId, e);
+        } finally {
+            status.totalMillis = System.currentTimeMillis() - start;
+            status.finishTime = LocalDateTime.now();
+        }
+    }
+
+    private static void step(WarmupStatus status, String name, WarmupStep step) {
+        long start = System.currentTimeMillis();
+        long count = step.run();
+        status.stepMillis.put(name, System.currentTimeMillis() - start);
+        status.stepCounts.put(name, count);
+    }
+
+    @FunctionalInterface
+    private interface WarmupStep {
+
+        /**
+         * @return 加载的记录数
+         */
+        long run();
+    }
+
+    private static final class WarmupStatus {
+
+        private final Long examId;
+
+        private final String examName;
+
+        private final LocalDateTime registrationStart;
+
+        private volatile String state = "PENDING";
+
+        private volatile LocalDateTime startTime;
+
+        private volatile LocalDateTime finishTime;
+
+        private volatile long totalMillis;
+
+        private volatile long remainingSeats;
+
+        private volatile String error;
+
+        private final Map<String, Long> stepMillis = Collections.synchronizedMap(new LinkedHashMap<>());
+
+        private final Map<String, Long> stepCounts = Collections.synchronizedMap(new LinkedHashMap<>());
+
+        private WarmupStatus(Exam exam) {
+            this.examId = exam.getId();
+            this.examName = exam.getExamName();
+            this.registrationStart = exam.getRegistrationStart();
+        }
+
+        private Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("examId", examId);
+            map.put("examName", examName);
+            map.put("registrationStart", registrationStart == null ? null : registrationStart.toString());
+            map.put("state", state);
+            map.put("startTime", startTime == null ? null : startTime.toString());
+            map.put("finishTime", finishTime == null ? null : finishTime.toString());
+            map.put("totalMillis", totalMillis);
+            synchronized (stepMillis) {
+                map.put("stepMillis", new LinkedHashMap<>(stepMillis));
+            }
+            synchronized (stepCounts) {
+                map.put("stepCounts", new LinkedHashMap<>(stepCounts));
+            }
+            map.put("remainingSeats", remainingSeats);
+            map.put("error", error);
+            return map;
+        }
+    }
+}
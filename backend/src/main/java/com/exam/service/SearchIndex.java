@@ -0,0 +1,286 @@
+package com.exam.service;
+
+import com.exam.common.PageResult;
+import com.exam.entity.Exam;
+import com.exam.entity.Notice;
+import com.exam.event.ExamChangedEvent;
+import com.exam.event.NoticeChangedEvent;
+import com.exam.mapper.ExamMapper;
+import com.exam.mapper.NoticeMapper;
+import com.exam.utils.NgramIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongPredicate;
+
+/**
+ * 考试与公告全文检索
+ * 对考试名称、考试类型、公告标题与正文（去除HTML）建立内存 bigram 倒排索引，替代 LIKE '%关键词%' 全表扫描。
+ * 检索得到排序后的ID，再从索引维护的文档缓存中取出实体，无需回表。
+ * 本节点的变更在事务提交后增量更新；其它节点的变更通过定期重建纳入。
+ * 重建期间的变更在更新当前索引的同时记录ID，新索引发布前按ID重新读取并补到新索引中，切换时不丢失。
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Slf4j
+@Component
+public class SearchIndex {
+
+    private static final float WEIGHT_TITLE = 3F;
+
+    private static final float WEIGHT_TYPE = 2F;
+
+    private static final float WEIGHT_BODY = 1F;
+
+    @Autowired
+    private ExamMapper examMapper;
+
+    @Autowired
+    private NoticeMapper noticeMapper;
+
+    /**
+     * 重建时整体替换，查询不会看到半成品索引
+     */
+    private volatile NgramIndex examIndex = new NgramIndex();
+
+    private volatile NgramIndex noticeIndex = new NgramIndex();
+
+    private volatile Map<Long, Exam> exams = new ConcurrentHashMap<>();
+
+    private volatile Map<Long, Notice> notices = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    /**
+     * 保护增量更新与索引切换
+     */
+    private final Object swapLock = new Object();
+
+    /**
+     * 重建期间变更的考试/公告ID，非重建期间为 null（由 swapLock 保护）
+     */
+    private Set<Long> pendingExamIds;
+
+    private Set<Long> pendingNoticeIds;
+
+    private final AtomicLong searchCount = new AtomicLong();
+
+    private volatile long lastRebuildMillis;
+
+    /**
+     * 应用启动完成后构建
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * 定期重建，纳入其它节点的变更
+     */
+    @Scheduled(fixedDelayString = "${search.rebuild-interval:300000}", initialDelayString = "${search.rebuild-interval:300000}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    /**
+     * 重新构建索引
+     */
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            synchronized (swapLock) {
+                pendingExamIds = new HashSet<>();
+                pendingNoticeIds = new HashSet<>();
+            }
+            List<Exam> examList = examMapper.selectList(null);
+            List<Notice> noticeList = noticeMapper.selectList(null);
+
+            NgramIndex nextExamIndex = new NgramIndex();
+            Map<Long, Exam> nextExams = new ConcurrentHashMap<>();
+            examList.forEach(exam -> indexExam(nextExamIndex, nextExams, exam));
+            NgramIndex nextNoticeIndex = new NgramIndex();
+            Map<Long, Notice> nextNotices = new ConcurrentHashMap<>();
+            noticeList.forEach(notice -> indexNotice(nextNoticeIndex, nextNotices, notice));
+
+            // 补上重建期间的变更，直到没有新的变更后在锁内切换
+            while (true) {
+                Set<Long> examIds;
+                Set<Long> noticeIds;
+                synchronized (swapLock) {
+                    if (pendingExamIds.isEmpty() && pendingNoticeIds.isEmpty()) {
+                        examIndex = nextExamIndex;
+                        exams = nextExams;
+                        noticeIndex = nextNoticeIndex;
+                        notices = nextNotices;
+                        pendingExamIds = null;
+                        pendingNoticeIds = null;
+                        break;
+                    }
+                    examIds = pendingExamIds;
+                    noticeIds = pendingNoticeIds;
+                    pendingExamIds = new HashSet<>();
+                    pendingNoticeIds = new HashSet<>();
+                }
+                for (Long examId : examIds) {
+                    applyExam(nextExamIndex, nextExams, examId, examMapper.selectById(examId));
+                }
+                for (Long noticeId : noticeIds) {
+                    applyNotice(nextNoticeIndex, nextNotices, noticeId, noticeMapper.selectById(noticeId));
+                }
+            }
+
+            lastRebuildMillis = System.currentTimeMillis() - start;
+            log.info("检索索引构建完成，考试{}条，公告{}条，耗时{}ms", exams.size(), notices.size(), lastRebuildMillis);
+        } catch (Exception e) {
+            log.error("检索索引构建失败", e);
+        } finally {
+            synchronized (swapLock) {
+                pendingExamIds = null;
+                pendingNoticeIds = null;
+            }
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * 检索考试
+     *
+     * @param includeDraft 是否包含草稿（管理员）
+     */
+    public PageResult<Exam> searchExams(String keyword, long current, long size, boolean includeDraft) {
+        Map<Long, Exam> documents = exams;
+        LongPredicate filter = includeDraft ? null : id -> {
+            Exam exam = documents.get(id);
+            return exam != null && exam.getStatus() != null && exam.getStatus() != 1;
+        };
+        return page(examIndex.search(keyword, filter), documents, current, size);
+    }
+
+    /**
+     * 检索公告
+     *
+     * @param includeOffline 是否包含已下架（管理员）
+     */
+    public PageResult<Notice> searchNotices(String keyword, long current, long size, boolean includeOffline) {
+        Map<Long, Notice> documents = notices;
+        LongPredicate filter = includeOffline ? null : id -> {
+            Notice notice = documents.get(id);
+            return notice != null && Integer.valueOf(1).equals(notice.getStatus());
+        };
+        return page(noticeIndex.search(keyword, filter), documents, current, size);
+    }
+
+    /**
+     * 考试变更后增量更新（事务提交后执行）
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExamChanged(ExamChangedEvent event) {
+        Long examId = event.getExamId();
+        Exam exam = event.getAction() == ExamChangedEvent.Action.DELETED ? null : examMapper.selectById(examId);
+        synchronized (swapLock) {
+            applyExam(examIndex, exams, examId, exam);
+            if (pendingExamIds != null) {
+                pendingExamIds.add(examId);
+            }
+        }
+    }
+
+    /**
+     * 公告变更后增量更新（事务提交后执行）
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNoticeChanged(NoticeChangedEvent event) {
+        Long noticeId = event.getNoticeId();
+        Notice notice = event.getAction() == NoticeChangedEvent.Action.DELETED ? null : noticeMapper.selectById(noticeId);
+        synchronized (swapLock) {
+            applyNotice(noticeIndex, notices, noticeId, notice);
+            if (pendingNoticeIds != null) {
+                pendingNoticeIds.add(noticeId);
+            }
+        }
+    }
+
+    /**
+     * 索引统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("examCount", examIndex.size());
+        stats.put("examTermCount", examIndex.termCount());
+        stats.put("noticeCount", noticeIndex.size());
+        stats.put("noticeTermCount", noticeIndex.termCount());
+        stats.put("searchCount", searchCount.get());
+        stats.put("lastRebuildMillis", lastRebuildMillis);
+        return stats;
+    }
+
+    /**
+     * 更新或移除（exam 为 null 时）索引中的考试
+     */
+    private static void applyExam(NgramIndex index, Map<Long, Exam> documents, Long examId, Exam exam) {
+        if (exam == null) {
+            index.remove(examId);
+            documents.remove(examId);
+        } else {
+            indexExam(index, documents, exam);
+        }
+    }
+
+    private static void applyNotice(NgramIndex index, Map<Long, Notice> documents, Long noticeId, Notice notice) {
+        if (notice == null) {
+            index.remove(noticeId);
+            documents.remove(noticeId);
+        } else {
+            indexNotice(index, documents, notice);
+        }
+    }
+
+    private static void indexExam(NgramIndex index, Map<Long, Exam> documents, Exam exam) {
+        documents.put(exam.getId(), exam);
+        index.put(exam.getId(),
+                new NgramIndex.Field(exam.getExamName(), WEIGHT_TITLE),
+                new NgramIndex.Field(exam.getExamType(), WEIGHT_TYPE));
+    }
+
+    private static void indexNotice(NgramIndex index, Map<Long, Notice> documents, Notice notice) {
+        documents.put(notice.getId(), notice);
+        index.put(notice.getId(),
+                new NgramIndex.Field(notice.getTitle(), WEIGHT_TITLE),
+                NgramIndex.Field.html(notice.getContent(), WEIGHT_BODY));
+    }
+
+    private <T> PageResult<T> page(List<Long> ids, Map<Long, T> documents, long current, long size) {
+        searchCount.incrementAndGet();
+        long pageSize = Math.max(1, size);
+        long pageNo = Math.max(1, current);
+        int from = (int) Math.min(ids.size(), (pageNo - 1) * pageSize);
+        int to = (int) Math.min(ids.size(), from + pageSize);
+        List<T> records = new ArrayList<>(to - from);
+        for (Long id : ids.subList(from, to)) {
+            T document = documents.get(id);
+            if (document != null) {
+                records.add(document);
+            }
+        }
+        return PageResult.of(records, (long) ids.size(), pageNo, pageSize);
+    }
+}
@@ -0,0 +1,272 @@
+package com.exam.service;
+
+import com.exam.dto.SeatAssignment;
+import com.exam.entity.Exam;
+import com.exam.event.ExamChangedEvent;
+import com.exam.exception.BusinessException;
+import com.exam.mapper.ExamMapper;
+import com.exam.mapper.RegistrationMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 考场座位分配服务
+ * 报名结束后把考试中审核通过且已缴费的报名流式读入内存，按考点分组后在 ForkJoin 线程池中并行分配：
+ * 仍符合条件的报名保留原考场座位；新增的报名以考试ID与考点ID为种子打乱顺序（同一批报名重复执行结果相同），
+ * 先填补退费等释放的空座，再依次编排到后面的考场，只把变化的座位以 CASE 批量 UPDATE 写回。
+ * 可重复执行：新增缴费或退费后重新运行即可，已不符合条件的报名会清除座位，其余考生的座位不受影响。
+ * 分配完成后重新生成准考证。
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Slf4j
+@Service
+public class SeatAssignmentService {
+
+    @Autowired
+    private ExamMapper examMapper;
+
+    @Autowired
+    private RegistrationMapper registrationMapper;
+
+    @Autowired
+    private TicketGenerationService ticketGenerationService;
+
+    /**
+     * 每个考场的座位数
+     */
+    @Value("${exam.seat-assignment.room-size:30}")
+    private int roomSize;
+
+    /**
+     * 每条 UPDATE 语句更新的行数
+     */
+    @Value("${exam.seat-assignment.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * 并行分配的线程数（同时占用的数据库连接数），0 表示按CPU核数（最多8）
+     */
+    @Value("${exam.seat-assignment.parallelism:0}")
+    private int parallelism;
+
+    /**
+     * 报名结束时自动分配
+     */
+    @Value("${exam.seat-assignment.auto-assign:true}")
+    private boolean autoAssign;
+
+    private ForkJoinPool pool;
+
+    private final ExecutorService autoExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "seat-assignment");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+
+    private final Map<Long, Map<String, Object>> lastResults = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        int threads = parallelism > 0 ? parallelism : Math.min(8, Runtime.getRuntime().availableProcessors());
+        pool = new ForkJoinPool(threads);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        autoExecutor.shutdownNow();
+        pool.shutdown();
+    }
+
+    /**
+     * 报名结束后自动分配（事务提交后在后台线程执行）
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExamChanged(ExamChangedEvent event) {
+        if (!autoAssign || event.getAction() != ExamChangedEvent.Action.REGISTRATION_CLOSED) {
+            return;
+        }
+        Long examId = event.getExamId();
+        autoExecutor.execute(() -> {
+            try {
+                assign(examId);
+            } catch (Exception e) {
+                log.error("考试{}自动分配考场座位失败", examId, e);
+            }
+        });
+    }
+
+    /**
+     * 为考试分配考场与座位
+     *
+     * @param examId 考试ID
+     * @return 分配结果统计
+     */
+    public Map<String, Object> assign(Long examId) {
+        Exam exam = examMapper.selectById(examId);
+        if (exam == null) {
+            throw new BusinessException(404, "考试不存在");
+        }
+        if (!Integer.valueOf(4).equals(exam.getStatus())) {
+            throw new BusinessException("报名结束后才能分配考场座位");
+        }
+        if (!running.add(examId)) {
+            throw new BusinessException("该考试正在分配考场座位，请稍后再试");
+        }
+        Map<String, Object> result;
+        try {
+            result = doAssign(examId);
+        } finally {
+            running.remove(examId);
+        }
+        ticketGenerationService.startAfterSeatAssignment(examId);
+        return result;
+    }
+
+    /**
+     * 最近一次分配结果
+     */
+    public List<Map<String, Object>> getLastResults() {
+        return new ArrayList<>(lastResults.values());
+    }
+
+    private Map<String, Object> doAssign(Long examId) {
+        long start = System.currentTimeMillis();
+
+        // 结果按考点、报名ID排序，顺序切分即可按考点分组
+        List<List<SeatAssignment>> sites = new ArrayList<>();
+        registrationMapper.streamSeatCandidates(examId, context -> {
+            SeatAssignment candidate = context.getResultObject();
+            if (candidate.getExamSiteId() == null) {
+                return;
+            }
+            List<SeatAssignment> current = sites.isEmpty() ? null : sites.get(sites.size() - 1);
+            if (current == null || !current.get(0).getExamSiteId().equals(candidate.getExamSiteId())) {
+                current = new ArrayList<>();
+                sites.add(current);
+            }
+            current.add(candidate);
+        });
+        long loadMillis = System.currentTimeMillis() - start;
+
+        int cleared = registrationMapper.clearIneligibleSeats(examId);
+        int candidateCount = 0;
+        for (List<SeatAssignment> candidates : sites) {
+            candidateCount += candidates.size();
+        }
+        int assigned;
+        try {
+            assigned = pool.submit(() -> sites.parallelStream()
+                    .mapToInt(candidates -> assignSite(examId, candidates))
+                    .sum()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("分配考场座位被中断", e);
+        } catch (ExecutionException e) {
+            throw new BusinessException("分配考场座位失败：" + e.getCause().getMessage(), e.getCause());
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("examId", examId);
+        result.put("siteCount", sites.size());
+        result.put("assignedCount", assigned);
+        result.put("keptCount", candidateCount - assigned);
+        result.put("clearedCount", cleared);
+        result.put("roomSize", roomSize);
+        result.put("loadMillis", loadMillis);
+        result.put("elapsedMillis", System.currentTimeMillis() - start);
+        result.put("finishTime", LocalDateTime.now().toString());
+        lastResults.put(examId, result);
+        log.info("考试{}考场座位分配完成：考点{}个，新分配{}人，保留{}人，清除{}人，耗时{}ms",
+                examId, sites.size(), assigned, result.get("keptCount"), cleared, result.get("elapsedMillis"));
+        return result;
+    }
+
+    private int assignSite(Long examId, List<SeatAssignment> candidates) {
+        List<SeatAssignment> changed = arrange(examId, candidates, roomSize);
+        for (int from = 0; from < changed.size(); from += batchSize) {
+            registrationMapper.batchUpdateSeats(changed.subList(from, Math.min(changed.size(), from + batchSize)));
+        }
+        return changed.size();
+    }
+
+    /**
+     * 编排考点内的考场与座位（考场号3位、座位号2位，从1开始）
+     * 已有有效且不冲突座位的报名保持不变；其余报名打乱顺序后按座位序号从小到大填入空座，
+     * 即先填补释放的座位，再排到末尾
+     *
+     * @return 新分配座位的报名
+     */
+    static List<SeatAssignment> arrange(Long examId, List<SeatAssignment> candidates, int roomSize) {
+        if (candidates.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Set<Integer> taken = new HashSet<>();
+        List<SeatAssignment> unseated = new ArrayList<>();
+        for (SeatAssignment candidate : candidates) {
+            int index = seatIndex(candidate, roomSize);
+            // 座位无效、超出当前考场容量或与先出现的报名重复时重新分配
+            if (index < 0 || !taken.add(index)) {
+                unseated.add(candidate);
+            }
+        }
+        if (unseated.isEmpty()) {
+            return unseated;
+        }
+
+        Long siteId = candidates.get(0).getExamSiteId();
+        Collections.shuffle(unseated, new Random(examId * 1_000_003L + siteId));
+        int index = 0;
+        for (SeatAssignment candidate : unseated) {
+            while (taken.contains(index)) {
+                index++;
+            }
+            candidate.setExamRoom(String.format("%03d", index / roomSize + 1));
+            candidate.setSeatNo(String.format("%02d", index % roomSize + 1));
+            index++;
+        }
+        return unseated;
+    }
+
+    /**
+     * 已有座位的序号（从0开始），没有座位或座位无效时返回 -1
+     */
+    private static int seatIndex(SeatAssignment candidate, int roomSize) {
+        if (candidate.getExamRoom() == null || candidate.getSeatNo() == null) {
+            return -1;
+        }
+        try {
+            int room = Integer.parseInt(candidate.getExamRoom());
+            int seat = Integer.parseInt(candidate.getSeatNo());
+            if (room < 1 || seat < 1 || seat > roomSize) {
+                return -1;
+            }
+            return (room - 1) * roomSize + seat - 1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
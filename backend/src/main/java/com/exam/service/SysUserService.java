@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.extension.service.IService;
 import com.exam.entity.SysUser;
 import com.exam.dto.LoginRequest;
 import com.exam.dto.RegisterRequest;
+import com.exam.dto.TokenResponse;
 import com.exam.dto.UserUpdateRequest;
 
 /**
@@ -20,9 +21,24 @@ public interface SysUserService extends IService<SysUser> {
     SysUser register(RegisterRequest request);
 
     /**
-     * 用户登录
+     * 用户登录，签发访问令牌与刷新令牌
      */
-    String login(LoginRequest request);
+    TokenResponse login(LoginRequest request, String loginIp);
+
+    /**
+     * 使用刷新令牌换取新的访问令牌与刷新令牌
+     */
+    TokenResponse refreshToken(String refreshToken);
+
+    /**
+     * 退出登录，吊销当前访问令牌与刷新令牌
+     */
+    void logout(String accessToken, String refreshToken);
+
+    /**
+     * 强制用户下线（管理员），该用户已签发的令牌全部失效
+     */
+    boolean forceLogout(Long userId);
 
     /**
      * 根据用户名查询用户
@@ -44,11 +60,21 @@ public interface SysUserService extends IService<SysUser> {
      */
     boolean resetPassword(String username, String newPassword);
 
+    /**
+     * 更新账号状态(1-正常 2-禁用)
+     */
+    boolean updateStatus(Long userId, Integer status);
+
     /**
      * 检查用户名是否存在
      */
     boolean existsByUsername(String username);
 
+    /**
+     * 用户名是否可注册（优先使用布隆过滤器判断），同一IP请求过于频繁时拒绝
+     */
+    boolean isUsernameAvailable(String username, String clientIp);
+
     /**
      * 更新登录信息
      */
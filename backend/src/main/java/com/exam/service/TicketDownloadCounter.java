@@ -0,0 +1,121 @@
+package com.exam.service;
+
+import com.exam.mapper.RegistrationMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 准考证下载次数缓冲计数器
+ * 下载时只在内存中累加，定时用一条 UPDATE ... CASE 批量写回增量并记录首次下载时间，
+ * 打印准考证当天下载请求不会逐次 UPDATE 占用数据库连接与行锁。写回时取走计数项，内存只保留两次写回之间有下载的报名。
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Slf4j
+@Service
+public class TicketDownloadCounter {
+
+    @Autowired
+    private RegistrationMapper registrationMapper;
+
+    /**
+     * 单条 UPDATE 语句最多包含的报名数
+     */
+    @Value("${exam.ticket.download-counter.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * 待写回的下载次数（merge/remove 在 ConcurrentHashMap 的桶锁内原子执行，取走与累加互不丢失）
+     */
+    private final Map<Long, Long> pending = new ConcurrentHashMap<>();
+
+    private final AtomicLong downloadCount = new AtomicLong();
+
+    private final AtomicLong writtenCount = new AtomicLong();
+
+    private final AtomicLong batchCount = new AtomicLong();
+
+    /**
+     * 记录一次下载
+     */
+    public void increment(Long registrationId) {
+        downloadCount.incrementAndGet();
+        pending.merge(registrationId, 1L, Long::sum);
+    }
+
+    /**
+     * 定时批量写回
+     */
+    @Scheduled(fixedDelayString = "${exam.ticket.download-counter.flush-interval:5000}")
+    public synchronized void flush() {
+        Map<Long, Long> batch = new LinkedHashMap<>();
+        for (Long registrationId : pending.keySet()) {
+            // 取走增量，写回期间到达的下载会重新计入
+            Long delta = pending.remove(registrationId);
+            if (delta == null) {
+                continue;
+            }
+            batch.put(registrationId, delta);
+            if (batch.size() >= batchSize) {
+                write(batch);
+                batch = new LinkedHashMap<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    /**
+     * 停机前写回剩余计数
+     */
+    @PreDestroy
+    public void destroy() {
+        flush();
+    }
+
+    /**
+     * 计数统计
+     */
+    public Map<String, Object> getStats() {
+        long pendingDownloads = 0;
+        for (Long delta : pending.values()) {
+            pendingDownloads += delta;
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("pendingRegistrations", pending.size());
+        stats.put("pendingDownloads", pendingDownloads);
+        stats.put("downloadCount", downloadCount.get());
+        stats.put("writtenCount", writtenCount.get());
+        stats.put("batchCount", batchCount.get());
+        return stats;
+    }
+
+    private void write(Map<Long, Long> batch) {
+        try {
+            registrationMapper.batchIncrementDownloadCount(batch);
+        } catch (Exception e) {
+            // 写回失败时把增量放回，下次重试
+            log.warn("批量写回准考证下载次数失败，共{}条: {}", batch.size(), e.getMessage());
+            batch.forEach((registrationId, delta) -> pending.merge(registrationId, delta, Long::sum));
+            return;
+        }
+        long written = 0;
+        for (Long delta : batch.values()) {
+            written += delta;
+        }
+        writtenCount.addAndGet(written);
+        batchCount.incrementAndGet();
+    }
+}
@@ -0,0 +1,441 @@
+package com.exam.service;
+
+import com.exam.dto.TicketData;
+import com.exam.entity.Exam;
+import com.exam.exception.BusinessException;
+import com.exam.mapper.ExamMapper;
+import com.exam.mapper.RegistrationMapper;
+import com.exam.utils.AESUtil;
+import com.exam.utils.FileUtils;
+import com.exam.utils.TicketPdfTemplate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 准考证批量生成服务
+ * 座位分配完成后为考试中已分配座位的报名预生成准考证 PDF，考生下载时直接读取文件。
+ * 模板启动时预编译，渲染只需拼接字段；每批按报名ID键集分页读取固定数量的报名，在 ForkJoin 线程池中并行渲染，
+ * 每个线程复用一块直接缓冲区，内存占用与考生人数无关。文件先写临时文件再原子改名，
+ * 每批完成后把进度写入考试目录下的进度文件，中断后再次执行从上次完成的位置继续。
+ * 座位分配完成时若该考试仍在生成，登记一次待重新生成，当前任务结束后按最新座位从头生成。
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Slf4j
+@Service
+public class TicketGenerationService {
+
+    private static final String PROGRESS_FILE = ".progress";
+
+    private static final String STATE_RUNNING = "RUNNING";
+
+    private static final String STATE_COMPLETED = "COMPLETED";
+
+    private static final String STATE_FAILED = "FAILED";
+
+    /**
+     * 每个字段的最大字符数，超出部分截断
+     */
+    private static final int MAX_FIELD_CHARS = 64;
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy年MM月dd日");
+
+    private static final TicketPdfTemplate TEMPLATE = TicketPdfTemplate.builder(595, 842)
+            .rect(50, 380, 495, 420, 1.5)
+            .text(247, 750, 24, "准 考 证")
+            .field(70, 712, 14, "examName")
+            .line(50, 695, 545, 695, 0.8)
+            .rect(425, 545, 100, 130, 0.8)
+            .text(455, 605, 12, "照片")
+            .text(70, 660, 12, "准考证号：")
+            .field(150, 660, 12, "ticketNo")
+            .text(70, 630, 12, "姓    名：")
+            .field(150, 630, 12, "realName")
+            .text(70, 600, 12, "身份证号：")
+            .field(150, 600, 12, "idCard")
+            .text(70, 570, 12, "报考科目：")
+            .field(150, 570, 12, "subject")
+            .text(70, 540, 12, "考试日期：")
+            .field(150, 540, 12, "examDate")
+            .text(70, 510, 12, "考试时间：")
+            .field(150, 510, 12, "examTime")
+            .text(70, 480, 12, "考    点：")
+            .field(150, 480, 12, "siteName")
+            .text(70, 450, 12, "考点地址：")
+            .field(150, 450, 12, "siteAddress")
+            .text(70, 420, 12, "考 场 号：")
+            .field(150, 420, 12, "examRoom")
+            .text(300, 420, 12, "座 位 号：")
+            .field(380, 420, 12, "seatNo")
+            .text(50, 350, 10, "注意事项：请携带本准考证及有效身份证件，按时到达考点，对号入座。")
+            .build();
+
+    @Autowired
+    private ExamMapper examMapper;
+
+    @Autowired
+    private RegistrationMapper registrationMapper;
+
+    @Autowired
+    private FileUtils fileUtils;
+
+    /**
+     * 每批读取的报名数
+     */
+    @Value("${exam.ticket.batch-size:1000}")
+    private int batchSize;
+
+    /**
+     * 渲染线程数，0 表示按CPU核数
+     */
+    @Value("${exam.ticket.render-threads:0}")
+    private int renderThreads;
+
+    /**
+     * 座位分配完成后自动生成
+     */
+    @Value("${exam.ticket.auto-generate:true}")
+    private boolean autoGenerate;
+
+    private ForkJoinPool pool;
+
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "ticket-generation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 每个渲染线程复用的直接缓冲区
+     */
+    private final ThreadLocal<ByteBuffer> buffers =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(TEMPLATE.estimateSize(MAX_FIELD_CHARS)));
+
+    private final Map<Long, Progress> progresses = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        pool = new ForkJoinPool(renderThreads > 0 ? renderThreads : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        coordinator.shutdownNow();
+        pool.shutdown();
+    }
+
+    /**
+     * 座位分配完成后重新生成（未开启自动生成时忽略）
+     * 正在生成时不丢弃本次请求：标记待重新生成，当前任务结束后立即从头生成
+     */
+    public void startAfterSeatAssignment(Long examId) {
+        if (!autoGenerate) {
+            return;
+        }
+        try {
+            start(examId, true, true);
+        } catch (BusinessException e) {
+            log.warn("考试{}准考证未自动生成: {}", examId, e.getMessage());
+        }
+    }
+
+    /**
+     * 开始生成准考证（后台执行）
+     *
+     * @param examId  考试ID
+     * @param restart true 时忽略已有进度重新生成全部准考证，false 时从上次完成的位置继续
+     * @return 生成进度
+     */
+    public Map<String, Object> start(Long examId, boolean restart) {
+        return start(examId, restart, false);
+    }
+
+    /**
+     * @param queueIfRunning 正在生成时标记待重新生成并返回当前进度，而不是报错
+     */
+    private Map<String, Object> start(Long examId, boolean restart, boolean queueIfRunning) {
+        Exam exam = examMapper.selectById(examId);
+        if (exam == null) {
+            throw new BusinessException(404, "考试不存在");
+        }
+        Progress progress = new Progress(examId);
+        // 与任务结束时的检查在同一个键上串行执行：要么在任务结束前登记，要么看到任务已结束直接开始
+        Progress previous = progresses.compute(examId, (id, current) -> {
+            if (current != null && STATE_RUNNING.equals(current.state)) {
+                if (queueIfRunning) {
+                    current.restartPending = true;
+                }
+                return current;
+            }
+            return progress;
+        });
+        if (previous != progress) {
+            if (queueIfRunning) {
+                log.info("考试{}的准考证正在生成，当前任务结束后重新生成", examId);
+                return previous.toMap();
+            }
+            throw new BusinessException("该考试的准考证正在生成，请稍后再试");
+        }
+        coordinator.execute(() -> {
+            run(exam, restart, progress);
+            restartIfPending(progress);
+        });
+        return progress.toMap();
+    }
+
+    /**
+     * 任务结束后执行期间登记的重新生成
+     */
+    private void restartIfPending(Progress progress) {
+        boolean[] pending = new boolean[1];
+        progresses.computeIfPresent(progress.examId, (id, current) -> {
+            pending[0] = current == progress && progress.restartPending;
+            return current;
+        });
+        if (!pending[0]) {
+            return;
+        }
+        try {
+            start(progress.examId, true, true);
+        } catch (RuntimeException e) {
+            log.warn("考试{}准考证重新生成失败: {}", progress.examId, e.getMessage());
+        }
+    }
+
+    /**
+     * 生成进度，未生成过时返回 null
+     */
+    public Map<String, Object> getProgress(Long examId) {
+        Progress progress = progresses.get(examId);
+        return progress == null ? null : progress.toMap();
+    }
+
+    /**
+     * 全部考试的生成进度
+     */
+    public List<Map<String, Object>> getAllProgress() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Progress progress : progresses.values()) {
+            result.add(progress.toMap());
+        }
+        return result;
+    }
+
+    private void run(Exam exam, boolean restart, Progress progress) {
+        Long examId = exam.getId();
+        long start = System.currentTimeMillis();
+        try {
+            Path directory = fileUtils.getTicketDirectory(examId);
+            Files.createDirectories(directory);
+            Path progressFile = directory.resolve(PROGRESS_FILE);
+            long afterId = 0;
+            if (restart) {
+                Files.deleteIfExists(progressFile);
+            } else {
+                afterId = readProgress(progressFile);
+            }
+            progress.resumedAfterId = afterId;
+            progress.total = registrationMapper.countTicketCandidates(examId);
+
+            Map<String, String> examFields = new HashMap<>();
+            examFields.put("examName", exam.getExamName());
+            examFields.put("examDate", exam.getExamDate() == null ? null : exam.getExamDate().format(DATE_FORMAT));
+            examFields.put("examTime", exam.getExamTime());
+
+            while (true) {
+                List<TicketData> batch = registrationMapper.selectTicketBatch(examId, afterId, batchSize);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                Long failedId = pool.submit(() -> batch.parallelStream()
+                        .map(data -> render(examId, examFields, data, progress) ? null : data.getRegistrationId())
+                        .filter(Objects::nonNull)
+                        .min(Long::compare)
+                        .orElse(null)).get();
+                if (failedId != null) {
+                    // 只推进到第一个失败的报名之前，下次继续时从失败处重新渲染
+                    long checkpoint = failedId - 1;
+                    if (checkpoint > afterId) {
+                        writeProgress(progressFile, checkpoint);
+                    }
+                    progress.lastId = Math.max(afterId, checkpoint);
+                    progress.finish(STATE_FAILED, "报名" + failedId + "的准考证生成失败，可继续执行重试", start);
+                    return;
+                }
+                afterId = batch.get(batch.size() - 1).getRegistrationId();
+                progress.lastId = afterId;
+                writeProgress(progressFile, afterId);
+            }
+            progress.finish(STATE_COMPLETED, null, start);
+            log.info("考试{}准考证生成完成，共{}份，耗时{}ms", examId, progress.rendered.get(), progress.elapsedMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            progress.finish(STATE_FAILED, "生成被中断", start);
+        } catch (IOException | ExecutionException | RuntimeException e) {
+            log.error("考试{}准考证生成失败", examId, e);
+            progress.finish(STATE_FAILED, e.getMessage(), start);
+        }
+    }
+
+    /**
+     * 渲染并写出一份准考证
+     *
+     * @return 是否成功
+     */
+    private boolean render(Long examId, Map<String, String> examFields, TicketData data, Progress progress) {
+        Map<String, String> values = new HashMap<>(examFields);
+        values.put("ticketNo", data.getAdmissionTicketNo());
+        values.put("realName", data.getRealName());
+        values.put("idCard", maskIdCard(data.getIdCard()));
+        values.put("subject", data.getSubject());
+        values.put("siteName", data.getSiteName());
+        values.put("siteAddress", data.getSiteAddress());
+        values.put("examRoom", data.getExamRoom());
+        values.put("seatNo", data.getSeatNo());
+        values.replaceAll((key, value) -> value != null && value.length() > MAX_FIELD_CHARS
+                ? value.substring(0, MAX_FIELD_CHARS) : value);
+
+        ByteBuffer buffer = buffers.get();
+        TEMPLATE.render(values, buffer);
+        try {
+            writeAtomically(fileUtils.getTicketFile(examId, data.getRegistrationId()), buffer);
+            progress.rendered.incrementAndGet();
+            return true;
+        } catch (IOException e) {
+            log.warn("写入准考证失败，registrationId={}: {}", data.getRegistrationId(), e.getMessage());
+            progress.failed.incrementAndGet();
+            return false;
+        }
+    }
+
+    /**
+     * 先写同目录下的临时文件，再原子替换目标文件，下载方不会读到写了一半的文件
+     */
+    private static void writeAtomically(Path target, ByteBuffer buffer) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void writeProgress(Path file, long lastId) throws IOException {
+        writeAtomically(file, ByteBuffer.wrap(Long.toString(lastId).getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    /**
+     * 读取进度文件中最后完成的报名ID，没有进度时返回 0
+     */
+    private static long readProgress(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(new String(Files.readAllBytes(file), StandardCharsets.US_ASCII).trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static String maskIdCard(String encryptedIdCard) {
+        if (encryptedIdCard == null) {
+            return null;
+        }
+        try {
+            return AESUtil.maskIdCard(AESUtil.decrypt(encryptedIdCard));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * 单个考试的生成进度
+     */
+    private static final class Progress {
+
+        private final Long examId;
+
+        private final LocalDateTime startTime = LocalDateTime.now();
+
+        private final AtomicInteger rendered = new AtomicInteger();
+
+        private final AtomicInteger failed = new AtomicInteger();
+
+        private volatile int total;
+
+        private volatile long lastId;
+
+        /**
+         * 本次从该报名ID之后继续生成（0 表示从头生成）
+         */
+        private volatile long resumedAfterId;
+
+        private volatile String state = STATE_RUNNING;
+
+        /**
+         * 生成期间座位又有变化，结束后需要重新生成
+         */
+        private volatile boolean restartPending;
+
+        private volatile String message;
+
+        private volatile long elapsedMillis;
+
+        private Progress(Long examId) {
+            this.examId = examId;
+        }
+
+        private void finish(String state, String message, long start) {
+            this.elapsedMillis = System.currentTimeMillis() - start;
+            this.message = message;
+            this.state = state;
+        }
+
+        private Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("examId", examId);
+            map.put("state", state);
+            map.put("restartPending", restartPending);
+            map.put("total", total);
+            map.put("rendered", rendered.get());
+            map.put("failed", failed.get());
+            map.put("resumedAfterId", resumedAfterId);
+            map.put("lastRegistrationId", lastId);
+            map.put("startTime", startTime.toString());
+            map.put("elapsedMillis", elapsedMillis);
+            map.put("message", message);
+            return map;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.exam.service;
+
+import com.exam.mapper.SysUserMapper;
+import com.exam.utils.BloomFilter;
+import com.exam.utils.TransactionUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 用户名布隆过滤器
+ * 启动时从 sys_user 流式加载全部用户名，注册成功后追加。过滤器判定"不存在"时用户名一定可用，
+ * 注册页的可用性探测大多无需访问数据库；判定"可能存在"时再查库确认。
+ * 其它节点新注册的用户名只在定期重建后可见，最终以 uk_username 唯一索引为准。
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@Slf4j
+@Service
+public class UsernameBloomFilter {
+
+    @Autowired
+    private SysUserMapper userMapper;
+
+    /**
+     * 最小容量，实际容量为当前用户数的两倍与该值中的较大者
+     */
+    @Value("${user.username-filter.min-capacity:100000}")
+    private long minCapacity;
+
+    @Value("${user.username-filter.fpp:0.001}")
+    private double fpp;
+
+    private volatile BloomFilter filter;
+
+    /**
+     * 重建中的新过滤器，重建期间注册的用户名同时写入新旧两个过滤器，切换时不丢失
+     */
+    private volatile BloomFilter building;
+
+    private volatile long capacity;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    /**
+     * 追加后超出容量，等待定时任务重建
+     */
+    private final AtomicBoolean overflowed = new AtomicBoolean();
+
+    private final AtomicLong probeCount = new AtomicLong();
+
+    private final AtomicLong filteredCount = new AtomicLong();
+
+    /**
+     * 应用启动完成后构建
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * 定期重建，纳入其它节点注册的用户名并按用户数调整容量
+     */
+    @Scheduled(cron = "${user.username-filter.rebuild-cron:0 30 3 * * ?}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    /**
+     * 超出容量时重建，由调度线程执行，不在注册请求中另起线程
+     */
+    @Scheduled(fixedDelayString = "${user.username-filter.overflow-check-interval:10000}")
+    public void rebuildIfOverflowed() {
+        if (overflowed.compareAndSet(true, false)) {
+            rebuild();
+        }
+    }
+
+    /**
+     * 重新构建过滤器
+     */
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            Long total = userMapper.selectCount(null);
+            long size = Math.max(minCapacity, (total == null ? 0 : total) * 2);
+            BloomFilter next = new BloomFilter(size, fpp);
+            building = next;
+            userMapper.streamUsernames(context -> next.put(context.getResultObject()));
+            filter = next;
+            capacity = size;
+            log.info("用户名布隆过滤器构建完成，用户数{}，容量{}，占用{}KB，耗时{}ms",
+                    next.getCount(), size, next.getSizeInBytes() / 1024, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("用户名布隆过滤器构建失败", e);
+        } finally {
+            building = null;
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * 用户名是否可能已存在，过滤器尚未构建时返回 true（需查库确认）
+     */
+    public boolean mightExist(String username) {
+        probeCount.incrementAndGet();
+        BloomFilter current = filter;
+        if (current == null || current.mightContain(username)) {
+            return true;
+        }
+        filteredCount.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * 注册事务提交后追加用户名
+     */
+    public void addAfterCommit(String username) {
+        TransactionUtils.afterCommit(() -> add(username));
+    }
+
+    /**
+     * 追加用户名，超出容量时标记重建以控制误判率
+     */
+    public void add(String username) {
+        // 先读重建中的过滤器再读当前过滤器：读到 building 为空时，之后开始的重建必然在注册提交之后扫描
+        BloomFilter next = building;
+        BloomFilter current = filter;
+        if (next != null && next != current) {
+            next.put(username);
+        }
+        if (current == null) {
+            return;
+        }
+        current.put(username);
+        if (current.getCount() > capacity) {
+            overflowed.set(true);
+        }
+    }
+
+    /**
+     * 过滤器统计
+     */
+    public Map<String, Object> getStats() {
+        BloomFilter current = filter;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("ready", current != null);
+        stats.put("count", current == null ? 0 : current.getCount());
+        stats.put("capacity", capacity);
+        stats.put("rebuilding", rebuilding.get());
+        stats.put("sizeInBytes", current == null ? 0 : current.getSizeInBytes());
+        stats.put("probeCount", probeCount.get());
+        stats.put("filteredCount", filteredCount.get());
+        return stats;
+    }
+}
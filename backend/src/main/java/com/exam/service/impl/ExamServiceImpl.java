@@ -8,12 +8,17 @@ import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.exam.dto.ExamCreateRequest;
 import com.exam.dto.ExamUpdateRequest;
 import com.exam.entity.Exam;
+import com.exam.event.ExamChangedEvent;
 import com.exam.exception.BusinessException;
 import com.exam.mapper.ExamMapper;
+import com.exam.service.AvailableExamIndex;
 import com.exam.service.ExamService;
+import com.exam.service.ExamSnapshot;
+import com.exam.service.ExamSnapshotCache;
 import com.exam.common.PageResult;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,6 +34,15 @@ import java.time.LocalDateTime;
 @Service
 public class ExamServiceImpl extends ServiceImpl<ExamMapper, Exam> implements ExamService {
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private AvailableExamIndex availableExamIndex;
+
+    @Autowired
+    private ExamSnapshotCache examSnapshotCache;
+
     @Override
     public PageResult<Exam> getExamPage(Integer current, Integer size, String examName, String examType, Integer status) {
         Page<Exam> page = new Page<>(current, size);
@@ -38,9 +52,13 @@ public class ExamServiceImpl extends ServiceImpl<ExamMapper, Exam> implements Ex
 
     @Override
     public PageResult<Exam> getAvailableExamPage(Integer current, Integer size, String examName, String examType) {
-        Page<Exam> page = new Page<>(current, size);
-        IPage<Exam> result = baseMapper.selectAvailableExamPage(page, examName, examType, LocalDateTime.now());
-        return PageResult.of(result.getRecords(), result.getTotal(), result.getCurrent(), result.getSize());
+        // 从内存索引分页，报名开始/结束时刻自动滚动，考试变更后失效重建
+        return availableExamIndex.page(current, size, examName, examType);
+    }
+
+    @Override
+    public String getAvailableExamVersion() {
+        return availableExamIndex.getVersion();
     }
 
     @Override
@@ -67,6 +85,7 @@ public class ExamServiceImpl extends ServiceImpl<ExamMapper, Exam> implements Ex
         exam.setCurrentCount(0);
 
         save(exam);
+        publishChanged(exam.getId(), ExamChangedEvent.Action.CREATED);
         log.info("创建考试成功: {}", request.getExamName());
         return exam;
     }
@@ -94,6 +113,7 @@ public class ExamServiceImpl extends ServiceImpl<ExamMapper, Exam> implements Ex
         }
 
         BeanUtil.copyProperties(request, exam, "id", "createBy", "createTime", "currentCount");
+        publishChanged(examId, ExamChangedEvent.Action.UPDATED);
         return updateById(exam);
     }
 
@@ -110,6 +130,7 @@ public class ExamServiceImpl extends ServiceImpl<ExamMapper, Exam> implements Ex
         }
 
         exam.setStatus(2); // 已发布
+        publishChanged(examId, ExamChangedEvent.Action.PUBLISHED);
         return updateById(exam);
     }
 
@@ -126,6 +147,7 @@ public class ExamServiceImpl extends ServiceImpl<ExamMapper, Exam> implements Ex
         }
 
         exam.setStatus(1); // 草稿
+        publishChanged(examId, ExamChangedEvent.Action.UNPUBLISHED);
         return updateById(exam);
     }
 
@@ -141,6 +163,7 @@ public class ExamServiceImpl extends ServiceImpl<ExamMapper, Exam> implements Ex
             throw new BusinessException("已有报名的考试不能删除");
         }
 
+        publishChanged(examId, ExamChangedEvent.Action.DELETED);
         return removeById(examId);
     }
 
@@ -158,7 +181,7 @@ public class ExamServiceImpl extends ServiceImpl<ExamMapper, Exam> implements Ex
 
     @Override
     public boolean canRegister(Long examId) {
-        Exam exam = getById(examId);
+        ExamSnapshot exam = examSnapshotCache.get(examId);
         if (exam == null) {
             return false;
         }
@@ -166,20 +189,27 @@ public class ExamServiceImpl extends ServiceImpl<ExamMapper, Exam> implements Ex
         LocalDateTime now = LocalDateTime.now();
         
         // 检查考试状态
-        if (exam.getStatus() != 2 && exam.getStatus() != 3) {
+        if (!exam.isOpenStatus()) {
             return false;
         }
 
         // 检查报名时间
-        if (now.isBefore(exam.getRegistrationStart()) || now.isAfter(exam.getRegistrationEnd())) {
+        if (exam.isBeforeRegistration(now) || exam.isAfterRegistration(now)) {
             return false;
         }
 
-        // 检查报名名额
+        // 检查报名名额（快照中的报名人数可能略有滞后，仅作预判）
         if (exam.getTotalQuota() != null && exam.getCurrentCount() >= exam.getTotalQuota()) {
             return false;
         }
 
         return true;
     }
+
+    /**
+     * 发布考试变更事件，监听方在事务提交后处理
+     */
+    private void publishChanged(Long examId, ExamChangedEvent.Action action) {
+        eventPublisher.publishEvent(new ExamChangedEvent(this, examId, action));
+    }
 }
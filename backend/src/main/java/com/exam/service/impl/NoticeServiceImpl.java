@@ -4,10 +4,14 @@ import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.exam.entity.Notice;
+import com.exam.event.NoticeChangedEvent;
 import com.exam.mapper.NoticeMapper;
 import com.exam.service.NoticeService;
+import com.exam.service.NoticeViewCounter;
 import com.exam.common.PageResult;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,10 +28,17 @@ import java.util.List;
 @Service
 public class NoticeServiceImpl extends ServiceImpl<NoticeMapper, Notice> implements NoticeService {
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private NoticeViewCounter noticeViewCounter;
+
     @Override
     public PageResult<Notice> getNoticePage(Integer current, Integer size, String title, String type, Integer status) {
         Page<Notice> page = new Page<>(current, size);
         IPage<Notice> result = baseMapper.selectNoticePage(page, title, type, status);
+        noticeViewCounter.applyPending(result.getRecords());
         return PageResult.of(result.getRecords(), result.getTotal(), result.getCurrent(), result.getSize());
     }
 
@@ -35,12 +46,15 @@ public class NoticeServiceImpl extends ServiceImpl<NoticeMapper, Notice> impleme
     public PageResult<Notice> getPublishedNoticePage(Integer current, Integer size, String type) {
         Page<Notice> page = new Page<>(current, size);
         IPage<Notice> result = baseMapper.selectPublishedNoticePage(page, type);
+        noticeViewCounter.applyPending(result.getRecords());
         return PageResult.of(result.getRecords(), result.getTotal(), result.getCurrent(), result.getSize());
     }
 
     @Override
     public List<Notice> getTopNotices() {
-        return baseMapper.selectTopNotices();
+        List<Notice> notices = baseMapper.selectTopNotices();
+        noticeViewCounter.applyPending(notices);
+        return notices;
     }
 
     @Override
@@ -64,13 +78,43 @@ public class NoticeServiceImpl extends ServiceImpl<NoticeMapper, Notice> impleme
         }
 
         save(notice);
+        publishChanged(notice.getId(), NoticeChangedEvent.Action.CREATED);
         log.info("创建公告成功: {}", notice.getTitle());
         return notice;
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
+    public boolean updateNotice(Notice notice) {
+        boolean success = updateById(notice);
+        if (success) {
+            publishChanged(notice.getId(), NoticeChangedEvent.Action.UPDATED);
+        }
+        return success;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean deleteNotice(Long noticeId) {
+        boolean success = removeById(noticeId);
+        if (success) {
+            noticeViewCounter.remove(noticeId);
+            publishChanged(noticeId, NoticeChangedEvent.Action.DELETED);
+        }
+        return success;
+    }
+
+    @Override
     public boolean incrementViewCount(Long noticeId) {
-        return baseMapper.incrementViewCount(noticeId) > 0;
+        // 只在内存中累加，由 NoticeViewCounter 定时批量写回
+        noticeViewCounter.increment(noticeId);
+        return true;
+    }
+
+    /**
+     * 发布公告变更事件，监听方在事务提交后处理
+     */
+    private void publishChanged(Long noticeId, NoticeChangedEvent.Action action) {
+        eventPublisher.publishEvent(new NoticeChangedEvent(this, noticeId, action));
     }
 }
@@ -4,24 +4,35 @@ import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.crypto.SecureUtil;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.exam.dto.LoginRequest;
 import com.exam.dto.RegisterRequest;
+import com.exam.dto.TokenResponse;
 import com.exam.dto.UserUpdateRequest;
 import com.exam.entity.SysUser;
 import com.exam.exception.BusinessException;
+import com.exam.exception.ServiceUnavailableException;
 import com.exam.mapper.SysUserMapper;
 import com.exam.security.JwtTokenProvider;
+import com.exam.security.LoginAttemptTracker;
+import com.exam.security.PasswordHashService;
+import com.exam.security.PrincipalCache;
+import com.exam.service.LoginRecordWriter;
 import com.exam.service.SysUserService;
+import com.exam.service.UsernameBloomFilter;
+import io.jsonwebtoken.Claims;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Map;
 
 /**
  * 用户服务实现类
@@ -34,26 +45,41 @@ import java.time.format.DateTimeFormatter;
 public class SysUserServiceImpl extends ServiceImpl<SysUserMapper, SysUser> implements SysUserService {
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashService passwordHashService;
 
     @Autowired
     private JwtTokenProvider jwtTokenProvider;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private LoginAttemptTracker loginAttemptTracker;
+
+    @Autowired
+    private LoginRecordWriter loginRecordWriter;
+
+    @Autowired
+    private UsernameBloomFilter usernameBloomFilter;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * 不开启事务：BCrypt 在哈希线程池中排队执行，期间不占用数据库连接，保存用户是单条插入
+     */
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public SysUser register(RegisterRequest request) {
-        // 检查用户名是否已存在
-        if (existsByUsername(request.getUsername())) {
+        // 一次查询检查用户名、手机号、身份证号是否已存在
+        Map<String, Object> duplicates = baseMapper.countDuplicates(request.getUsername(),
+                encrypt(request.getPhone()), encrypt(request.getIdCard()));
+        if (countOf(duplicates, "usernameCount") > 0) {
             throw new BusinessException("用户名已存在");
         }
-
-        // 检查手机号是否已存在
-        if (StrUtil.isNotBlank(request.getPhone()) && existsByPhone(request.getPhone())) {
+        if (countOf(duplicates, "phoneCount") > 0) {
             throw new BusinessException("手机号已被注册");
         }
-
-        // 检查身份证号是否已存在
-        if (StrUtil.isNotBlank(request.getIdCard()) && existsByIdCard(request.getIdCard())) {
+        if (countOf(duplicates, "idCardCount") > 0) {
             throw new BusinessException("身份证号已被注册");
         }
 
@@ -62,7 +88,7 @@ public class SysUserServiceImpl extends ServiceImpl<SysUserMapper, SysUser> impl
         BeanUtil.copyProperties(request, user);
         
         // 加密密码
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHashService.encode(request.getPassword()));
         
         // 加密敏感信息
         if (StrUtil.isNotBlank(request.getIdCard())) {
@@ -82,17 +108,34 @@ public class SysUserServiceImpl extends ServiceImpl<SysUserMapper, SysUser> impl
             user.setBirthday(LocalDate.parse(request.getBirthday(), DateTimeFormatter.ofPattern("yyyy-MM-dd")));
         }
 
-        // 保存用户
-        save(user);
+        // 保存用户，并发注册同一用户名时以 uk_username 唯一索引为准
+        try {
+            save(user);
+        } catch (DuplicateKeyException e) {
+            throw new BusinessException("用户名已存在");
+        }
+        usernameBloomFilter.addAfterCommit(user.getUsername());
         log.info("用户注册成功: {}", request.getUsername());
         
         return user;
     }
 
     @Override
-    public String login(LoginRequest request) {
+    public TokenResponse login(LoginRequest request, String loginIp) {
+        // 同一IP失败次数过多时直接拒绝，不再查询数据库和校验密码
+        if (loginAttemptTracker.isIpBlocked(loginIp)) {
+            throw new BusinessException(429, "登录尝试过于频繁，请稍后再试");
+        }
+
+        // 内存中已锁定的账号无需查询数据库
+        if (loginAttemptTracker.getLockUntil(request.getUsername()) != null) {
+            throw new BusinessException("账号已被锁定，请稍后再试");
+        }
+
         SysUser user = getByUsername(request.getUsername());
         if (user == null) {
+            // 用户名不存在时只计入IP窗口，由IP限流兜底
+            loginAttemptTracker.recordIpFailure(loginIp);
             throw new BusinessException("用户名或密码错误");
         }
 
@@ -101,27 +144,103 @@ public class SysUserServiceImpl extends ServiceImpl<SysUserMapper, SysUser> impl
             throw new BusinessException("账号已被禁用");
         }
 
-        // 检查账号是否被锁定
-        if (isAccountLocked(user.getId())) {
+        // 检查账号是否被锁定（内存状态或其它节点写入的锁定时间）
+        if (loginAttemptTracker.isLocked(user.getUsername(), user.getLockUntil())) {
             throw new BusinessException("账号已被锁定，请稍后再试");
         }
 
         // 验证密码
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
-            incrementLoginFailCount(user.getId());
+        if (!passwordHashService.matches(request.getPassword(), user.getPassword())) {
+            // 失败次数只记在内存中，触发锁定时才写库
+            LocalDateTime lockUntil = loginAttemptTracker.recordFailure(user.getUsername(), loginIp);
+            if (lockUntil != null) {
+                baseMapper.lockUser(user.getId(), lockUntil, loginAttemptTracker.getMaxFailures());
+                principalCache.invalidate(user.getUsername());
+                throw new BusinessException("密码错误次数过多，账号已被锁定，请稍后再试");
+            }
             throw new BusinessException("用户名或密码错误");
         }
 
-        // 登录成功，重置失败次数
-        resetLoginFailCount(user.getId());
+        // 登录成功，清除失败记录；最后登录时间/IP与失败次数清零交给异步写入器合并批量写库
+        loginAttemptTracker.recordSuccess(user.getUsername());
+        boolean resetFailCount = (user.getLoginFailCount() != null && user.getLoginFailCount() > 0)
+                || user.getLockUntil() != null;
+        loginRecordWriter.record(user.getId(), loginIp, resetFailCount);
+
+        // 哈希强度低于当前强度时透明重新加密
+        rehashIfNeeded(user, request.getPassword());
         
         // 生成JWT Token
-        String token = jwtTokenProvider.generateToken(user.getUsername(), user.getRole());
+        TokenResponse token = issueTokens(user);
         
         log.info("用户登录成功: {}", request.getUsername());
         return token;
     }
 
+    @Override
+    public TokenResponse refreshToken(String refreshToken) {
+        Claims claims = jwtTokenProvider.parseToken(refreshToken);
+        if (claims == null || !JwtTokenProvider.TYPE_REFRESH.equals(claims.get(JwtTokenProvider.CLAIM_TYPE, String.class))
+                || jwtTokenProvider.isRevoked(claims)) {
+            throw new BusinessException(401, "刷新令牌无效或已过期");
+        }
+
+        SysUser user = getById(claims.get(JwtTokenProvider.CLAIM_USER_ID, Long.class));
+        if (user == null || user.getStatus() != 1) {
+            throw new BusinessException(401, "账号不存在或已被禁用");
+        }
+
+        // 禁用、修改密码后版本号递增，旧的刷新令牌不再可用
+        Integer version = claims.get(JwtTokenProvider.CLAIM_VERSION, Integer.class);
+        if (version == null || version != JwtTokenProvider.tokenVersionOf(user)) {
+            throw new BusinessException(401, "登录状态已失效，请重新登录");
+        }
+
+        // 刷新令牌一次性使用，换发后吊销旧令牌
+        jwtTokenProvider.revoke(claims);
+        return issueTokens(user);
+    }
+
+    @Override
+    public void logout(String accessToken, String refreshToken) {
+        Claims access = jwtTokenProvider.parseToken(accessToken);
+        if (access != null) {
+            revoke(access);
+        }
+        Claims refresh = jwtTokenProvider.parseToken(refreshToken);
+        if (refresh != null) {
+            revoke(refresh);
+        }
+    }
+
+    /**
+     * 吊销令牌；旧版令牌没有 jti，改为设置该用户的版本号下限
+     */
+    private void revoke(Claims claims) {
+        if (claims.getId() != null) {
+            jwtTokenProvider.revoke(claims);
+            return;
+        }
+        SysUser user = getByUsername(claims.getSubject());
+        if (user != null) {
+            jwtTokenProvider.revokeLegacy(user.getId(), JwtTokenProvider.tokenVersionOf(user), claims);
+        }
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean forceLogout(Long userId) {
+        SysUser user = getById(userId);
+        if (user == null) {
+            throw new BusinessException("用户不存在");
+        }
+
+        bumpTokenVersion(user);
+        principalCache.invalidateAfterCommit(user.getUsername());
+        log.info("强制下线用户: {}", user.getUsername());
+        return updateById(user);
+    }
+
     @Override
     public SysUser getByUsername(String username) {
         return baseMapper.selectByUsername(username);
@@ -165,11 +284,14 @@ public class SysUserServiceImpl extends ServiceImpl<SysUserMapper, SysUser> impl
             user.setBirthday(LocalDate.parse(request.getBirthday(), DateTimeFormatter.ofPattern("yyyy-MM-dd")));
         }
 
+        principalCache.invalidateAfterCommit(user.getUsername());
         return updateById(user);
     }
 
+    /**
+     * 校验与加密在事务外完成，事务只包含重新读取与写入
+     */
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public boolean changePassword(Long userId, String oldPassword, String newPassword) {
         SysUser user = getById(userId);
         if (user == null) {
@@ -177,27 +299,125 @@ public class SysUserServiceImpl extends ServiceImpl<SysUserMapper, SysUser> impl
         }
 
         // 验证旧密码
-        if (!passwordEncoder.matches(oldPassword, user.getPassword())) {
+        if (!passwordHashService.matches(oldPassword, user.getPassword())) {
             throw new BusinessException("原密码错误");
         }
 
         // 更新密码
-        user.setPassword(passwordEncoder.encode(newPassword));
+        String encoded = passwordHashService.encode(newPassword);
+        String verifiedHash = user.getPassword();
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            SysUser current = getById(userId);
+            if (current == null) {
+                throw new BusinessException("用户不存在");
+            }
+            // 校验旧密码期间密码已被其它请求修改
+            if (!verifiedHash.equals(current.getPassword())) {
+                throw new BusinessException("密码已被修改，请重试");
+            }
+            return updatePassword(current, encoded);
+        }));
+    }
+
+    /**
+     * 加密在事务外完成，事务只包含重新读取与写入
+     */
+    @Override
+    public boolean resetPassword(String username, String newPassword) {
+        String encoded = passwordHashService.encode(newPassword);
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            SysUser user = getByUsername(username);
+            if (user == null) {
+                throw new BusinessException("用户不存在");
+            }
+            return updatePassword(user, encoded);
+        }));
+    }
+
+    private boolean updatePassword(SysUser user, String encodedPassword) {
+        user.setPassword(encodedPassword);
+        bumpTokenVersion(user);
+        principalCache.invalidateAfterCommit(user.getUsername());
         return updateById(user);
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
-    public boolean resetPassword(String username, String newPassword) {
-        SysUser user = getByUsername(username);
+    public boolean updateStatus(Long userId, Integer status) {
+        if (status == null || (status != 1 && status != 2)) {
+            throw new BusinessException("状态参数错误");
+        }
+
+        SysUser user = getById(userId);
         if (user == null) {
             throw new BusinessException("用户不存在");
         }
 
-        user.setPassword(passwordEncoder.encode(newPassword));
+        if (status == 2) {
+            bumpTokenVersion(user);
+        }
+        user.setStatus(status);
+        principalCache.invalidateAfterCommit(user.getUsername());
+        log.info("更新用户状态: {}, status={}", user.getUsername(), status);
         return updateById(user);
     }
 
+    /**
+     * 按当前BCrypt强度重新加密密码，只更新密码列，不递增令牌版本号；
+     * 哈希线程池繁忙时跳过，下次登录再处理
+     */
+    private void rehashIfNeeded(SysUser user, String rawPassword) {
+        if (!passwordHashService.upgradeEncoding(user.getPassword())) {
+            return;
+        }
+        try {
+            String encoded = passwordHashService.rehash(rawPassword);
+            baseMapper.update(null, new LambdaUpdateWrapper<SysUser>()
+                    .set(SysUser::getPassword, encoded)
+                    .eq(SysUser::getId, user.getId())
+                    .eq(SysUser::getPassword, user.getPassword()));
+        } catch (ServiceUnavailableException e) {
+            log.debug("哈希线程池繁忙，跳过密码重新加密: {}", user.getUsername());
+        }
+    }
+
+    private static long countOf(Map<String, Object> counts, String key) {
+        Object value = counts == null ? null : counts.get(key);
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+
+    /**
+     * 签发访问令牌与刷新令牌
+     */
+    private TokenResponse issueTokens(SysUser user) {
+        return new TokenResponse(
+                jwtTokenProvider.generateAccessToken(user),
+                jwtTokenProvider.generateRefreshToken(user),
+                jwtTokenProvider.getAccessExpiration(),
+                "Bearer");
+    }
+
+    /**
+     * 递增令牌安全版本号，使已签发的刷新令牌失效，并吊销该用户尚未过期的访问令牌
+     */
+    private void bumpTokenVersion(SysUser user) {
+        int version = JwtTokenProvider.tokenVersionOf(user) + 1;
+        user.setTokenVersion(version);
+        jwtTokenProvider.revokeUserBefore(user.getId(), version);
+    }
+
+    @Override
+    public boolean isUsernameAvailable(String username, String clientIp) {
+        if (!loginAttemptTracker.tryUsernameProbe(clientIp)) {
+            throw new BusinessException(429, "请求过于频繁，请稍后再试");
+        }
+        // 布隆过滤器判定不存在时一定可用，无需查库
+        if (!usernameBloomFilter.mightExist(username)) {
+            return true;
+        }
+        return !existsByUsername(username);
+    }
+
     @Override
     public boolean existsByUsername(String username) {
         return count(new LambdaQueryWrapper<SysUser>().eq(SysUser::getUsername, username)) > 0;
@@ -225,11 +445,7 @@ public class SysUserServiceImpl extends ServiceImpl<SysUserMapper, SysUser> impl
             return false;
         }
         
-        if (user.getLockUntil() != null) {
-            return user.getLockUntil().isAfter(LocalDateTime.now());
-        }
-        
-        return false;
+        return loginAttemptTracker.isLocked(user.getUsername(), user.getLockUntil());
     }
 
     /**
@@ -0,0 +1,101 @@
+package com.exam.utils;
+
+import cn.hutool.core.lang.hash.MurmurHash;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 线程安全的布隆过滤器
+ * 按预期元素数量与误判率计算位数组大小和哈希次数，使用 MurmurHash 128 位结果做双重哈希。
+ * 只会误判"可能存在"，不会漏判，需配合精确集合或数据库确认。
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+
+    private final long bitSize;
+
+    private final int hashCount;
+
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * @param expectedInsertions 预期元素数量
+     * @param fpp                期望误判率(0~1)
+     */
+    public BloomFilter(long expectedInsertions, double fpp) {
+        if (expectedInsertions <= 0) {
+            expectedInsertions = 1;
+        }
+        if (fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("误判率必须在0和1之间");
+        }
+        long size = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.max(1, (size + 63) >>> 6);
+        this.bits = new AtomicLongArray(words);
+        this.bitSize = (long) words << 6;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+    }
+
+    /**
+     * 添加元素
+     */
+    public void put(CharSequence value) {
+        long[] hash = MurmurHash.hash128(value);
+        long combined = hash[0];
+        for (int i = 0; i < hashCount; i++) {
+            setBit((combined & Long.MAX_VALUE) % bitSize);
+            combined += hash[1];
+        }
+        count.increment();
+    }
+
+    /**
+     * 元素是否可能存在，返回 false 时一定不存在
+     */
+    public boolean mightContain(CharSequence value) {
+        long[] hash = MurmurHash.hash128(value);
+        long combined = hash[0];
+        for (int i = 0; i < hashCount; i++) {
+            if (!getBit((combined & Long.MAX_VALUE) % bitSize)) {
+                return false;
+            }
+            combined += hash[1];
+        }
+        return true;
+    }
+
+    /**
+     * 已添加的元素数量（重复添加会重复计数）
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * 位数组占用的字节数
+     */
+    public long getSizeInBytes() {
+        return bitSize >>> 3;
+    }
+
+    private void setBit(long index) {
+        int word = (int) (index >>> 6);
+        long mask = 1L << index;
+        long current;
+        do {
+            current = bits.get(word);
+            if ((current & mask) != 0) {
+                return;
+            }
+        } while (!bits.compareAndSet(word, current, current | mask));
+    }
+
+    private boolean getBit(long index) {
+        return (bits.get((int) (index >>> 6)) & (1L << index)) != 0;
+    }
+}
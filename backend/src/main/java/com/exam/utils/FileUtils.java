@@ -10,6 +10,11 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 
@@ -74,8 +79,27 @@ public class FileUtils {
             throw new IllegalArgumentException("文件不能为空");
         }
 
+        String extension = validateUpload(file.getOriginalFilename(), file.getSize(), type);
+
+        // 保存文件
+        String relativePath = newRelativePath(subPath, type, id, extension);
+        file.transferTo(new File(uploadPath + relativePath));
+
+        log.info("文件上传成功: {}", relativePath);
+        
+        return relativePath;
+    }
+
+    /**
+     * 校验上传文件名与大小
+     *
+     * @param originalFilename 原始文件名
+     * @param size             文件大小
+     * @param type             文件类型（avatar/material/exam/ticket）
+     * @return 文件扩展名
+     */
+    public String validateUpload(String originalFilename, long size, String type) {
         // 获取文件扩展名
-        String originalFilename = file.getOriginalFilename();
         if (StrUtil.isBlank(originalFilename)) {
             throw new IllegalArgumentException("文件名不能为空");
         }
@@ -91,29 +115,50 @@ public class FileUtils {
         }
 
         // 验证文件大小
-        if (!isAllowedFileSize(file.getSize(), type)) {
+        if (size <= 0 || !isAllowedFileSize(size, type)) {
             throw new IllegalArgumentException("文件大小超出限制");
         }
+        return extension;
+    }
 
-        // 生成文件名
-        String fileName = generateFileName(type, id, extension);
-
-        // 创建目录
+    /**
+     * 生成新文件的相对路径（子目录/yyyy/MM/dd/文件名）并创建所在目录
+     */
+    private String newRelativePath(String subPath, String type, Long id, String extension) {
         String datePath = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy/MM/dd"));
-        String fullPath = uploadPath + subPath + datePath + "/";
-        FileUtil.mkdir(fullPath);
-
-        // 保存文件
-        String filePath = fullPath + fileName;
-        file.transferTo(new File(filePath));
+        FileUtil.mkdir(uploadPath + subPath + datePath + "/");
+        return subPath + datePath + "/" + generateFileName(type, id, extension);
+    }
 
-        // 返回相对路径
-        String relativePath = subPath + datePath + "/" + fileName;
-        log.info("文件上传成功: {}", relativePath);
-        
+    /**
+     * 把分片上传组装完成的文件移动到正式目录（与上传目录同一文件系统，只改目录项不复制内容）
+     *
+     * @param source    已组装的文件
+     * @param type      文件类型（material/exam）
+     * @param id        归属ID（用户ID或考试ID）
+     * @param extension 扩展名
+     * @return 相对路径
+     */
+    public String moveToUploadPath(Path source, String type, Long id, String extension) throws IOException {
+        String subPath = "exam".equals(type) ? examFilePath : materialPath;
+        String relativePath = newRelativePath(subPath, type, id, extension);
+        Path target = Paths.get(uploadPath + relativePath);
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target);
+        }
+        log.info("分片上传文件组装完成: {}", relativePath);
         return relativePath;
     }
 
+    /**
+     * 分片上传的临时目录（位于上传目录下，保证组装后可原子移动）
+     */
+    public Path getChunkDirectory() {
+        return Paths.get(uploadPath, ".chunks");
+    }
+
     /**
      * 生成文件名
      */
@@ -185,6 +230,84 @@ public class FileUtils {
         return false;
     }
 
+    /**
+     * 考试准考证目录（按考试分目录存放预生成的准考证）
+     */
+    public Path getTicketDirectory(Long examId) {
+        return Paths.get(uploadPath, ticketPath, String.valueOf(examId));
+    }
+
+    /**
+     * 预生成的准考证文件
+     */
+    public Path getTicketFile(Long examId, Long registrationId) {
+        return getTicketDirectory(examId).resolve(registrationId + ".pdf");
+    }
+
+    /**
+     * 把相对路径解析为上传目录下的文件，规范化后超出上传目录（如包含 ..）时返回 null
+     */
+    public Path resolveUploadFile(String relativePath) {
+        if (StrUtil.isBlank(relativePath)) {
+            return null;
+        }
+        Path root = getUploadRoot();
+        Path file = root.resolve(relativePath).normalize();
+        return file.startsWith(root) && !file.equals(root) ? file : null;
+    }
+
+    /**
+     * 根据规范化后的文件相对上传目录的第一级子目录判断文件类型（avatar/material/exam/ticket），无法识别时返回 null
+     * 必须传入 {@link #resolveUploadFile} 的结果：按原始路径的前缀判断时，exam-files/../materials/... 会被误判为考试文件
+     */
+    public String getUploadType(Path file) {
+        if (file == null) {
+            return null;
+        }
+        Path relative = getUploadRoot().relativize(file.toAbsolutePath().normalize());
+        if (relative.getNameCount() < 2) {
+            return null;
+        }
+        String directory = relative.getName(0).toString();
+        if (directory.equals(directoryName(avatarPath))) {
+            return "avatar";
+        }
+        if (directory.equals(directoryName(materialPath))) {
+            return "material";
+        }
+        if (directory.equals(directoryName(examFilePath))) {
+            return "exam";
+        }
+        // 准考证固定为 tickets/{考试ID}/{报名ID}.pdf
+        if (directory.equals(directoryName(ticketPath)) && relative.getNameCount() == 3) {
+            return "ticket";
+        }
+        return null;
+    }
+
+    private Path getUploadRoot() {
+        return Paths.get(uploadPath).toAbsolutePath().normalize();
+    }
+
+    private static String directoryName(String subPath) {
+        return StrUtil.removeSuffix(StrUtil.removePrefix(subPath, "/"), "/");
+    }
+
+    /**
+     * 从上传文件名（类型_ID_时间戳_随机串.扩展名）中解析归属ID，格式不符时返回 null
+     */
+    public static Long parseOwnerId(String fileName, String type) {
+        String[] parts = fileName.split("_");
+        if (parts.length < 3 || !parts[0].equals(type)) {
+            return null;
+        }
+        try {
+            return Long.valueOf(parts[1]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     /**
      * 获取文件完整路径
      */
@@ -0,0 +1,186 @@
+package com.exam.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.IntPredicate;
+
+/**
+ * 经纬度 k-d 树
+ * 经纬度换算为单位球面上的三维坐标后建树，弦长与球面距离单调一致，跨经度 180° 与高纬度地区无需特殊处理。
+ * 节点按中位数隐式存放在数组中（区间中点为根），建树后不可变，可并发查询。
+ * 查询 K 近邻时通过过滤条件跳过不可用的点（如已满考点），剪枝仍然有效。
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+public class GeoKdTree {
+
+    /**
+     * 地球平均半径，单位：千米
+     */
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    /**
+     * 按树序排列的三维坐标 [x0, y0, z0, x1, ...]
+     */
+    private final double[] coords;
+
+    /**
+     * 树序下标 -> 建树时的原始下标
+     */
+    private final int[] indexes;
+
+    /**
+     * @param latitudes  纬度（度）
+     * @param longitudes 经度（度）
+     */
+    public GeoKdTree(double[] latitudes, double[] longitudes) {
+        if (latitudes.length != longitudes.length) {
+            throw new IllegalArgumentException("经纬度数量不一致");
+        }
+        int n = latitudes.length;
+        double[][] points = new double[n][];
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            points[i] = toUnitVector(latitudes[i], longitudes[i]);
+            order[i] = i;
+        }
+        build(order, points, 0, n, 0);
+
+        this.coords = new double[n * 3];
+        this.indexes = new int[n];
+        for (int i = 0; i < n; i++) {
+            indexes[i] = order[i];
+            System.arraycopy(points[order[i]], 0, coords, i * 3, 3);
+        }
+    }
+
+    public int size() {
+        return indexes.length;
+    }
+
+    /**
+     * 查询距离给定位置最近的 k 个点（按距离升序）
+     *
+     * @param latitude  纬度（度）
+     * @param longitude 经度（度）
+     * @param k         数量
+     * @param accept    按原始下标过滤，返回 false 的点不参与结果
+     * @return 近邻列表
+     */
+    public List<Neighbor> nearest(double latitude, double longitude, int k, IntPredicate accept) {
+        if (k <= 0 || indexes.length == 0) {
+            return Collections.emptyList();
+        }
+        double[] target = toUnitVector(latitude, longitude);
+        // 大顶堆，堆顶为当前第 k 近（最远）的候选
+        PriorityQueue<double[]> heap = new PriorityQueue<>(k + 1, (a, b) -> Double.compare(b[0], a[0]));
+        search(0, indexes.length, 0, target, k, accept, heap);
+
+        List<Neighbor> result = new ArrayList<>(heap.size());
+        for (double[] entry : heap) {
+            result.add(new Neighbor((int) entry[1], chordToKm(Math.sqrt(entry[0]))));
+        }
+        result.sort(Comparator.comparingDouble(Neighbor::getDistanceKm));
+        return result;
+    }
+
+    /**
+     * 两点间的球面距离，单位：千米
+     */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double[] a = toUnitVector(lat1, lon1);
+        double[] b = toUnitVector(lat2, lon2);
+        double dx = a[0] - b[0];
+        double dy = a[1] - b[1];
+        double dz = a[2] - b[2];
+        return chordToKm(Math.sqrt(dx * dx + dy * dy + dz * dz));
+    }
+
+    private void search(int from, int to, int axis, double[] target, int k, IntPredicate accept,
+                        PriorityQueue<double[]> heap) {
+        if (from >= to) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        int base = mid * 3;
+        double dx = coords[base] - target[0];
+        double dy = coords[base + 1] - target[1];
+        double dz = coords[base + 2] - target[2];
+        double dist = dx * dx + dy * dy + dz * dz;
+        if (accept == null || accept.test(indexes[mid])) {
+            if (heap.size() < k) {
+                heap.add(new double[]{dist, indexes[mid]});
+            } else if (dist < heap.peek()[0]) {
+                heap.poll();
+                heap.add(new double[]{dist, indexes[mid]});
+            }
+        }
+
+        double diff = target[axis] - coords[base + axis];
+        int next = (axis + 1) % 3;
+        if (diff < 0) {
+            search(from, mid, next, target, k, accept, heap);
+            if (heap.size() < k || diff * diff < heap.peek()[0]) {
+                search(mid + 1, to, next, target, k, accept, heap);
+            }
+        } else {
+            search(mid + 1, to, next, target, k, accept, heap);
+            if (heap.size() < k || diff * diff < heap.peek()[0]) {
+                search(from, mid, next, target, k, accept, heap);
+            }
+        }
+    }
+
+    private static void build(Integer[] order, double[][] points, int from, int to, int axis) {
+        if (to - from <= 1) {
+            return;
+        }
+        Arrays.sort(order, from, to, Comparator.comparingDouble(i -> points[i][axis]));
+        int mid = (from + to) >>> 1;
+        int next = (axis + 1) % 3;
+        build(order, points, from, mid, next);
+        build(order, points, mid + 1, to, next);
+    }
+
+    private static double[] toUnitVector(double latitude, double longitude) {
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        double cosLat = Math.cos(lat);
+        return new double[]{cosLat * Math.cos(lon), cosLat * Math.sin(lon), Math.sin(lat)};
+    }
+
+    private static double chordToKm(double chord) {
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, chord / 2));
+    }
+
+    /**
+     * 近邻结果
+     */
+    public static final class Neighbor {
+
+        private final int index;
+
+        private final double distanceKm;
+
+        private Neighbor(int index, double distanceKm) {
+            this.index = index;
+            this.distanceKm = distanceKm;
+        }
+
+        /**
+         * 建树时的原始下标
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        public double getDistanceKm() {
+            return distanceKm;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.exam.utils;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * HTTP 条件请求工具类
+ * 公开只读接口使用基于版本的强 ETag：版本来自缓存内容版本或内存索引代数，
+ * 无需渲染响应体即可判断 If-None-Match，命中时直接返回 304。
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+public class HttpCacheUtils {
+
+    /**
+     * 允许浏览器与代理缓存，但每次使用前必须携带 ETag 重新校验
+     */
+    private static final String PUBLIC_REVALIDATE = CacheControl.noCache().cachePublic().getHeaderValue();
+
+    private HttpCacheUtils() {
+    }
+
+    /**
+     * 生成强 ETag
+     */
+    public static String etag(String resource, long version) {
+        return etag(resource, Long.toHexString(version));
+    }
+
+    public static String etag(String resource, String version) {
+        return "\"" + resource + "-" + version + "\"";
+    }
+
+    /**
+     * 设置 Cache-Control 与 ETag，并校验 If-None-Match
+     *
+     * @return 客户端缓存仍有效（已设置 304）时返回 true，调用方应直接返回 null
+     */
+    public static boolean checkNotModified(ServletWebRequest request, String etag) {
+        HttpServletResponse response = request.getResponse();
+        if (response != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, PUBLIC_REVALIDATE);
+        }
+        return request.checkNotModified(etag);
+    }
+}
@@ -0,0 +1,177 @@
+package com.exam.utils;
+
+/**
+ * long 基本类型哈希集合
+ * 开放寻址 + 线性探测，元素直接存放在 long 数组中，没有装箱与节点对象，
+ * 每个槽位只占 8 字节，适合保存大量用户ID等主键。删除时向前回填探测链，不留墓碑。
+ * 非线程安全，由调用方加锁。
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+public class LongHashSet {
+
+    private static final long EMPTY = 0L;
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private long[] table;
+
+    private int mask;
+
+    private int size;
+
+    /**
+     * 0 与空槽标记相同，单独记录
+     */
+    private boolean containsZero;
+
+    public LongHashSet() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize 预期元素数量
+     */
+    public LongHashSet(int expectedSize) {
+        int capacity = tableSizeFor((int) Math.min(1 << 30, (long) (Math.max(expectedSize, 1) / LOAD_FACTOR) + 1));
+        this.table = new long[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * 添加元素
+     *
+     * @return 原先不存在时返回 true
+     */
+    public boolean add(long value) {
+        if (value == EMPTY) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+        int index = indexOf(value);
+        while (table[index] != EMPTY) {
+            if (table[index] == value) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        table[index] = value;
+        if (++size > (table.length * LOAD_FACTOR)) {
+            resize(table.length << 1);
+        }
+        return true;
+    }
+
+    public boolean contains(long value) {
+        if (value == EMPTY) {
+            return containsZero;
+        }
+        int index = indexOf(value);
+        while (table[index] != EMPTY) {
+            if (table[index] == value) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * 删除元素
+     *
+     * @return 原先存在时返回 true
+     */
+    public boolean remove(long value) {
+        if (value == EMPTY) {
+            if (!containsZero) {
+                return false;
+            }
+            containsZero = false;
+            size--;
+            return true;
+        }
+        int index = indexOf(value);
+        while (table[index] != value) {
+            if (table[index] == EMPTY) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        shiftBack(index);
+        size--;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 数组占用的字节数（近似内存占用）
+     */
+    public long getSizeInBytes() {
+        return (long) table.length * Long.BYTES;
+    }
+
+    /**
+     * 删除 gap 位置的元素后，把探测链上后续元素前移，保证查找不会提前遇到空槽
+     */
+    private void shiftBack(int gap) {
+        int index = gap;
+        while (true) {
+            index = (index + 1) & mask;
+            long value = table[index];
+            if (value == EMPTY) {
+                break;
+            }
+            int home = indexOf(value);
+            // home 不在 (gap, index] 区间内时，该元素可以移到 gap
+            boolean movable = gap <= index ? (home <= gap || home > index) : (home <= gap && home > index);
+            if (movable) {
+                table[gap] = value;
+                gap = index;
+            }
+        }
+        table[gap] = EMPTY;
+    }
+
+    private void resize(int capacity) {
+        long[] old = table;
+        table = new long[capacity];
+        mask = capacity - 1;
+        for (long value : old) {
+            if (value != EMPTY) {
+                int index = indexOf(value);
+                while (table[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                table[index] = value;
+            }
+        }
+    }
+
+    private int indexOf(long value) {
+        // MurmurHash3 fmix64，打散连续的自增ID
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    private static int tableSizeFor(int n) {
+        int capacity = Integer.highestOneBit(Math.max(n - 1, 1)) << 1;
+        return Math.max(16, capacity);
+    }
+}
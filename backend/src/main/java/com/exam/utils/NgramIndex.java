@@ -0,0 +1,246 @@
+package com.exam.utils;
+
+import cn.hutool.http.HtmlUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * 内存 n-gram 倒排索引
+ * 文本按字母/数字连续片段切分，片段内生成二元组（bigram）与单字（unigram），中文无需分词即可检索。
+ * 多个查询词元之间为"与"关系（近似子串匹配），得分为各词元的字段权重 × 逆文档频率之和。
+ * 读写锁保护，适合文档数在十万以内、更新远少于查询的场景。
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+public class NgramIndex {
+
+    /**
+     * 单个字段出现次数的计分上限，避免长正文刷分
+     */
+    private static final int MAX_TERM_FREQUENCY = 5;
+
+    /**
+     * 词元 -> (文档ID -> 权重)
+     */
+    private final Map<String, Map<Long, Float>> postings = new HashMap<>();
+
+    /**
+     * 文档ID -> 词元集合（用于更新和删除）
+     */
+    private final Map<Long, Set<String>> documents = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 索引字段
+     */
+    public static final class Field {
+
+        private final String text;
+
+        private final float weight;
+
+        public Field(String text, float weight) {
+            this.text = text;
+            this.weight = weight;
+        }
+
+        /**
+         * 去除 HTML 标签后的富文本字段
+         */
+        public static Field html(String html, float weight) {
+            return new Field(html == null ? null : HtmlUtil.unescape(HtmlUtil.cleanHtmlTag(html)), weight);
+        }
+    }
+
+    /**
+     * 添加或替换文档
+     */
+    public void put(long docId, Field... fields) {
+        Map<String, Float> weights = new HashMap<>();
+        for (Field field : fields) {
+            if (field == null || field.text == null) {
+                continue;
+            }
+            Map<String, Integer> frequencies = new HashMap<>();
+            for (String term : tokenize(field.text, false)) {
+                frequencies.merge(term, 1, Integer::sum);
+            }
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                float weight = field.weight * Math.min(entry.getValue(), MAX_TERM_FREQUENCY);
+                weights.merge(entry.getKey(), weight, Float::sum);
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(docId);
+            for (Map.Entry<String, Float> entry : weights.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), key -> new HashMap<>()).put(docId, entry.getValue());
+            }
+            documents.put(docId, weights.keySet());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除文档
+     */
+    public void remove(long docId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(docId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 检索
+     *
+     * @param query  查询文本
+     * @param filter 文档过滤条件，为 null 时不过滤
+     * @return 按得分降序（同分按ID降序）排列的文档ID
+     */
+    public List<Long> search(String query, LongPredicate filter) {
+        List<String> terms = tokenize(query, true);
+        if (terms.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Map<Long, Float>> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Map<Long, Float> list = postings.get(term);
+                if (list == null) {
+                    return Collections.emptyList();
+                }
+                lists.add(list);
+            }
+            // 从最短的倒排表开始求交集
+            lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+            int total = documents.size();
+
+            Map<Long, Float> scores = new HashMap<>();
+            for (Map.Entry<Long, Float> entry : lists.get(0).entrySet()) {
+                long docId = entry.getKey();
+                if (filter != null && !filter.test(docId)) {
+                    continue;
+                }
+                float score = 0;
+                boolean matched = true;
+                for (Map<Long, Float> list : lists) {
+                    Float weight = list.get(docId);
+                    if (weight == null) {
+                        matched = false;
+                        break;
+                    }
+                    score += weight * (float) Math.log(1 + (double) total / list.size());
+                }
+                if (matched) {
+                    scores.put(docId, score);
+                }
+            }
+
+            List<Long> result = new ArrayList<>(scores.keySet());
+            result.sort((a, b) -> {
+                int cmp = Float.compare(scores.get(b), scores.get(a));
+                return cmp != 0 ? cmp : Long.compare(b, a);
+            });
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeInternal(long docId) {
+        Set<String> terms = documents.remove(docId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Long, Float> list = postings.get(term);
+            if (list != null) {
+                list.remove(docId);
+                if (list.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    /**
+     * 切分词元
+     * 文档：每个片段生成全部单字与二元组；查询：长度不小于2的片段只取二元组，单字片段取单字
+     */
+    static List<String> tokenize(String text, boolean query) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String normalized = text.toLowerCase(Locale.ROOT);
+        Set<String> terms = query ? new LinkedHashSet<>() : null;
+        List<String> result = query ? null : new ArrayList<>();
+        int length = normalized.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(normalized.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(normalized.charAt(i))) {
+                i++;
+            }
+            int runLength = i - start;
+            if (runLength == 0) {
+                continue;
+            }
+            if (query) {
+                if (runLength == 1) {
+                    terms.add(normalized.substring(start, i));
+                } else {
+                    for (int j = start; j + 2 <= i; j++) {
+                        terms.add(normalized.substring(j, j + 2));
+                    }
+                }
+            } else {
+                for (int j = start; j < i; j++) {
+                    result.add(normalized.substring(j, j + 1));
+                    if (j + 2 <= i) {
+                        result.add(normalized.substring(j, j + 2));
+                    }
+                }
+            }
+        }
+        return query ? new ArrayList<>(terms) : result;
+    }
+}
@@ -0,0 +1,159 @@
+package com.exam.utils;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 堆外字节缓存
+ * 内容复制到直接内存（DirectByteBuffer）中保存，不占用堆空间，也不参与 GC 标记与复制；
+ * 按字节预算做 LRU 淘汰，淘汰后的直接内存随 ByteBuffer 对象回收释放。
+ * 读取返回只读视图，多个线程可同时写出同一份内容。
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+public class OffHeapLruCache<K> {
+
+    private final long maxBytes;
+
+    /**
+     * 单个条目的最大字节数，超过的内容不缓存
+     */
+    private final long maxEntryBytes;
+
+    private final LinkedHashMap<K, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+    private long usedBytes;
+
+    private long hitCount;
+
+    private long missCount;
+
+    private long evictCount;
+
+    public OffHeapLruCache(long maxBytes, long maxEntryBytes) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = Math.min(maxBytes, maxEntryBytes);
+    }
+
+    /**
+     * 缓存条目（只读）
+     */
+    public static final class Entry {
+
+        private final ByteBuffer buffer;
+
+        private final long version;
+
+        private final long expireAt;
+
+        private Entry(ByteBuffer buffer, long version, long expireAt) {
+            this.buffer = buffer;
+            this.version = version;
+            this.expireAt = expireAt;
+        }
+
+        /**
+         * 内容的只读视图（独立的读写位置）
+         */
+        public ByteBuffer content() {
+            return buffer.duplicate();
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public int size() {
+            return buffer.capacity();
+        }
+    }
+
+    /**
+     * 读取未过期的条目，不存在返回 null
+     */
+    public synchronized Entry get(K key, long now) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+        if (entry.expireAt <= now) {
+            removeEntry(key);
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return entry;
+    }
+
+    /**
+     * 写入内容，超过单条上限时不缓存
+     *
+     * @return 写入后的条目；未缓存时返回包装原数组的条目
+     */
+    public Entry put(K key, byte[] content, long version, long expireAt) {
+        if (content.length > maxEntryBytes) {
+            return new Entry(ByteBuffer.wrap(content).asReadOnlyBuffer(), version, expireAt);
+        }
+        // 在锁外分配并复制直接内存
+        ByteBuffer buffer = ByteBuffer.allocateDirect(content.length);
+        buffer.put(content).flip();
+        Entry entry = new Entry(buffer.asReadOnlyBuffer(), version, expireAt);
+
+        synchronized (this) {
+            removeEntry(key);
+            entries.put(key, entry);
+            usedBytes += content.length;
+            Iterator<Map.Entry<K, Entry>> iterator = entries.entrySet().iterator();
+            while (usedBytes > maxBytes && iterator.hasNext()) {
+                Map.Entry<K, Entry> eldest = iterator.next();
+                if (eldest.getValue() == entry) {
+                    continue;
+                }
+                usedBytes -= eldest.getValue().size();
+                iterator.remove();
+                evictCount++;
+            }
+        }
+        return entry;
+    }
+
+    public synchronized void remove(K key) {
+        removeEntry(key);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        usedBytes = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictCount() {
+        return evictCount;
+    }
+
+    private void removeEntry(K key) {
+        Entry old = entries.remove(key);
+        if (old != null) {
+            usedBytes -= old.size();
+        }
+    }
+}
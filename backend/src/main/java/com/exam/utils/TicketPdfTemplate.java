@@ -0,0 +1,275 @@
+package com.exam.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 预编译的单页 PDF 模板
+ * 固定内容（文件头、页面与字体对象、边框与标签文字）在构建时一次性编码为字节，
+ * 渲染时只需把字段值编码后拼入内容流，并按已知长度计算内容流对象与 xref 表的偏移量，无需任何 PDF 库。
+ * 中文使用阅读器内置的 STSong-Light 字体（UniGB-UCS2-H 编码，不嵌入字体），文字以 UTF-16BE 十六进制串写入。
+ * 模板不可变，可被多个线程同时渲染。
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+public class TicketPdfTemplate {
+
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * 内容流对象编号（位于固定对象之后，偏移量随字段长度变化）
+     */
+    private static final int CONTENT_OBJECT = 7;
+
+    /**
+     * 内容流对象头，Length 先以 10 位 0 占位，内容写完后回填
+     */
+    private static final String CONTENT_OBJECT_START = CONTENT_OBJECT + " 0 obj\n<</Length ";
+
+    private static final byte[] CONTENT_HEADER = ascii(CONTENT_OBJECT_START + "0000000000>>\nstream\n");
+
+    private static final byte[] CONTENT_FOOTER = ascii("\nendstream\nendobj\n");
+
+    private static final byte[] CONTENT_XREF_ENTRY = ascii("0000000000 00000 n \n");
+
+    private static final byte[] TRAILER = ascii("trailer\n<</Size " + (CONTENT_OBJECT + 1) + "/Root 1 0 R>>\nstartxref\n");
+
+    private static final byte[] EOF = ascii("\n%%EOF\n");
+
+    /**
+     * 文件头与固定对象 1-6
+     */
+    private final byte[] prefix;
+
+    /**
+     * 固定对象的 xref 条目（对象 0-6）
+     */
+    private final byte[] xrefHead;
+
+    /**
+     * 内容流中字段之间的固定片段，数量为字段数 + 1
+     */
+    private final byte[][] segments;
+
+    private final List<String> fields;
+
+    private final int staticContentLength;
+
+    private TicketPdfTemplate(Builder builder) {
+        long[] offsets = new long[CONTENT_OBJECT];
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        append(out, "%PDF-1.4\n");
+        // 二进制注释行，提示传输工具按二进制处理
+        out.writeBytes(new byte[]{'%', (byte) 0xE2, (byte) 0xE3, (byte) 0xCF, (byte) 0xD3, '\n'});
+        String[] objects = {
+                "<</Type/Catalog/Pages 2 0 R>>",
+                "<</Type/Pages/Kids[3 0 R]/Count 1>>",
+                "<</Type/Page/Parent 2 0 R/MediaBox[0 0 " + builder.width + " " + builder.height + "]"
+                        + "/Resources<</Font<</F1 4 0 R>>>>/Contents " + CONTENT_OBJECT + " 0 R>>",
+                "<</Type/Font/Subtype/Type0/BaseFont/STSong-Light/Encoding/UniGB-UCS2-H/DescendantFonts[5 0 R]>>",
+                "<</Type/Font/Subtype/CIDFontType0/BaseFont/STSong-Light"
+                        + "/CIDSystemInfo<</Registry(Adobe)/Ordering(GB1)/Supplement 2>>"
+                        + "/FontDescriptor 6 0 R/DW 1000/W[1 95 500]>>",
+                "<</Type/FontDescriptor/FontName/STSong-Light/Flags 6/FontBBox[-25 -254 1000 880]"
+                        + "/ItalicAngle 0/Ascent 880/Descent -120/CapHeight 880/StemV 93>>"
+        };
+        for (int i = 0; i < objects.length; i++) {
+            offsets[i + 1] = out.size();
+            append(out, (i + 1) + " 0 obj\n" + objects[i] + "\nendobj\n");
+        }
+        this.prefix = out.toByteArray();
+
+        StringBuilder xref = new StringBuilder("xref\n0 ").append(CONTENT_OBJECT + 1).append('\n');
+        xref.append("0000000000 65535 f \n");
+        for (int i = 1; i < CONTENT_OBJECT; i++) {
+            xref.append(String.format("%010d 00000 n \n", offsets[i]));
+        }
+        this.xrefHead = ascii(xref.toString());
+
+        List<String> names = new ArrayList<>();
+        List<byte[]> parts = new ArrayList<>();
+        ByteArrayOutputStream current = new ByteArrayOutputStream();
+        for (Op op : builder.ops) {
+            append(current, op.content);
+            if (op.field != null) {
+                parts.add(current.toByteArray());
+                current = new ByteArrayOutputStream();
+                append(current, "> Tj ET\n");
+                names.add(op.field);
+            }
+        }
+        parts.add(current.toByteArray());
+        this.segments = parts.toArray(new byte[0][]);
+        this.fields = Collections.unmodifiableList(names);
+        int length = 0;
+        for (byte[] segment : segments) {
+            length += segment.length;
+        }
+        this.staticContentLength = length;
+    }
+
+    public static Builder builder(int width, int height) {
+        return new Builder(width, height);
+    }
+
+    /**
+     * 模板中的字段名（按出现顺序）
+     */
+    public List<String> getFields() {
+        return fields;
+    }
+
+    /**
+     * 估算渲染结果的最大字节数，用于预分配缓冲区
+     *
+     * @param maxFieldChars 每个字段的最大字符数
+     */
+    public int estimateSize(int maxFieldChars) {
+        return prefix.length + CONTENT_HEADER.length + staticContentLength + fields.size() * maxFieldChars * 4
+                + CONTENT_FOOTER.length + xrefHead.length + CONTENT_XREF_ENTRY.length + TRAILER.length + 32;
+    }
+
+    /**
+     * 渲染为 PDF 字节，写入缓冲区（写入前清空，写入后已 flip，可直接写出到通道）
+     *
+     * @param values 字段值，缺失的字段渲染为空
+     * @param buffer 目标缓冲区，空间不足时抛出 {@link java.nio.BufferOverflowException}
+     */
+    public void render(Map<String, String> values, ByteBuffer buffer) {
+        buffer.clear();
+        buffer.put(prefix);
+
+        int contentOffset = buffer.position();
+        buffer.put(CONTENT_HEADER);
+        int streamStart = buffer.position();
+        int lengthPosition = contentOffset + CONTENT_OBJECT_START.length();
+        for (int i = 0; i < fields.size(); i++) {
+            buffer.put(segments[i]);
+            putHex(values.get(fields.get(i)), buffer);
+        }
+        buffer.put(segments[fields.size()]);
+        int streamLength = buffer.position() - streamStart;
+        putDigits(buffer, lengthPosition, streamLength, 10);
+        buffer.put(CONTENT_FOOTER);
+
+        int xrefOffset = buffer.position();
+        buffer.put(xrefHead);
+        int entryPosition = buffer.position();
+        buffer.put(CONTENT_XREF_ENTRY);
+        putDigits(buffer, entryPosition, contentOffset, 10);
+        buffer.put(TRAILER);
+        int digits = Integer.toString(xrefOffset).length();
+        putDigits(buffer, buffer.position(), xrefOffset, digits);
+        buffer.position(buffer.position() + digits);
+        buffer.put(EOF);
+        buffer.flip();
+    }
+
+    /**
+     * 文字编码为 UTF-16BE 十六进制（超出基本平面的字符以 ? 代替）
+     */
+    private static void putHex(String value, ByteBuffer buffer) {
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (Character.isSurrogate(c)) {
+                c = '?';
+            }
+            buffer.put(HEX[(c >> 12) & 0xF]).put(HEX[(c >> 8) & 0xF]).put(HEX[(c >> 4) & 0xF]).put(HEX[c & 0xF]);
+        }
+    }
+
+    private static void putDigits(ByteBuffer buffer, int position, long value, int width) {
+        for (int i = width - 1; i >= 0; i--) {
+            buffer.put(position + i, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+    }
+
+    private static void append(ByteArrayOutputStream out, String text) {
+        out.writeBytes(ascii(text));
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static String hex(String text) {
+        ByteBuffer buffer = ByteBuffer.allocate(text.length() * 4);
+        putHex(text, buffer);
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * 模板构建器，坐标单位为点（1/72 英寸），原点在页面左下角
+     */
+    public static final class Builder {
+
+        private final int width;
+
+        private final int height;
+
+        private final List<Op> ops = new ArrayList<>();
+
+        private Builder(int width, int height) {
+            this.width = width;
+            this.height = height;
+        }
+
+        /**
+         * 固定文字
+         */
+        public Builder text(int x, int y, int fontSize, String text) {
+            ops.add(new Op("BT /F1 " + fontSize + " Tf " + x + " " + y + " Td <" + hex(text) + "> Tj ET\n", null));
+            return this;
+        }
+
+        /**
+         * 字段（渲染时填入对应的值）
+         */
+        public Builder field(int x, int y, int fontSize, String name) {
+            ops.add(new Op("BT /F1 " + fontSize + " Tf " + x + " " + y + " Td <", name));
+            return this;
+        }
+
+        /**
+         * 矩形边框
+         */
+        public Builder rect(int x, int y, int w, int h, double lineWidth) {
+            ops.add(new Op(lineWidth + " w " + x + " " + y + " " + w + " " + h + " re S\n", null));
+            return this;
+        }
+
+        /**
+         * 直线
+         */
+        public Builder line(int x1, int y1, int x2, int y2, double lineWidth) {
+            ops.add(new Op(lineWidth + " w " + x1 + " " + y1 + " m " + x2 + " " + y2 + " l S\n", null));
+            return this;
+        }
+
+        public TicketPdfTemplate build() {
+            return new TicketPdfTemplate(this);
+        }
+    }
+
+    private static final class Op {
+
+        private final String content;
+
+        private final String field;
+
+        private Op(String content, String field) {
+            this.content = content;
+            this.field = field;
+        }
+    }
+}
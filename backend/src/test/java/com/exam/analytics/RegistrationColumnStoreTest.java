@@ -0,0 +1,130 @@
+package com.exam.analytics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RegistrationColumnStore 单元测试
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+class RegistrationColumnStoreTest {
+
+    private static final String[] CITIES = {"北京市", "上海市", "广州市", "深圳市"};
+
+    private ForkJoinPool pool;
+
+    private List<RegistrationFact> facts;
+
+    private RegistrationColumnStore store;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(4);
+        facts = new ArrayList<>();
+        Random random = new Random(42);
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 9, 0);
+        // 20万行，跨越多个扫描分片，考试ID有序（稠密位图），城市随机分布
+        for (int i = 0; i < 200_000; i++) {
+            RegistrationFact fact = new RegistrationFact();
+            fact.setExamId((long) (i / 50_000 + 1));
+            fact.setExamType(i / 50_000 % 2 == 0 ? "职业资格考试" : "学业水平考试");
+            fact.setProvince(random.nextInt(10) == 0 ? null : "省份" + random.nextInt(3));
+            fact.setCity(CITIES[random.nextInt(CITIES.length)]);
+            fact.setAuditStatus(1 + random.nextInt(3));
+            fact.setPaymentStatus(1 + random.nextInt(2));
+            fact.setCreateTime(base.plusDays(random.nextInt(60)));
+            facts.add(fact);
+        }
+        RegistrationColumnStore.Builder builder = RegistrationColumnStore.builder();
+        facts.forEach(builder::add);
+        store = builder.build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void testSlice_NoFilter_CountsAllRows() {
+        RegistrationColumnStore.SliceResult result = store.slice(null, null, null, null, pool);
+
+        assertEquals(200_000, result.getTotal());
+        assertEquals(1, result.getRows().size());
+    }
+
+    @Test
+    void testSlice_FilterAndGroupBy_MatchesBruteForce() {
+        Map<AnalyticsDimension, Collection<String>> filters = new EnumMap<>(AnalyticsDimension.class);
+        filters.put(AnalyticsDimension.CITY, Arrays.asList("北京市", "上海市"));
+        filters.put(AnalyticsDimension.AUDIT_STATUS, Collections.singletonList("2"));
+        LocalDate from = LocalDate.of(2025, 1, 10);
+        LocalDate to = LocalDate.of(2025, 1, 31);
+
+        RegistrationColumnStore.SliceResult result = store.slice(filters, from, to,
+                Arrays.asList(AnalyticsDimension.EXAM, AnalyticsDimension.CITY), pool);
+
+        // 暴力计算期望值
+        Map<String, Long> expected = new HashMap<>();
+        for (RegistrationFact fact : facts) {
+            LocalDate day = fact.getCreateTime().toLocalDate();
+            if ((fact.getCity().equals("北京市") || fact.getCity().equals("上海市"))
+                    && fact.getAuditStatus() == 2 && !day.isBefore(from) && !day.isAfter(to)) {
+                expected.merge(fact.getExamId() + "|" + fact.getCity(), 1L, Long::sum);
+            }
+        }
+
+        Map<String, Long> actual = new HashMap<>();
+        for (Map<String, Object> row : result.getRows()) {
+            actual.put(row.get("exam") + "|" + row.get("city"), (Long) row.get("count"));
+        }
+        assertEquals(expected, actual);
+        assertEquals(expected.values().stream().mapToLong(Long::longValue).sum(), result.getTotal());
+    }
+
+    @Test
+    void testSlice_GroupByDateAndNullValue() {
+        Map<AnalyticsDimension, Collection<String>> filters = new EnumMap<>(AnalyticsDimension.class);
+        filters.put(AnalyticsDimension.PROVINCE, Collections.singletonList(null));
+
+        RegistrationColumnStore.SliceResult result = store.slice(filters, null, null,
+                Collections.singletonList(AnalyticsDimension.DATE), pool);
+
+        long expected = facts.stream().filter(f -> f.getProvince() == null).count();
+        assertEquals(expected, result.getTotal());
+        assertTrue(result.getRows().stream().allMatch(row -> ((String) row.get("date")).startsWith("2025-")));
+    }
+
+    @Test
+    void testSlice_UnknownValue_ReturnsEmpty() {
+        Map<AnalyticsDimension, Collection<String>> filters = new EnumMap<>(AnalyticsDimension.class);
+        filters.put(AnalyticsDimension.EXAM_TYPE, Collections.singletonList("不存在的类型"));
+
+        RegistrationColumnStore.SliceResult result = store.slice(filters, null, null,
+                Collections.singletonList(AnalyticsDimension.CITY), pool);
+
+        assertEquals(0, result.getTotal());
+        assertTrue(result.getRows().isEmpty());
+    }
+
+    @Test
+    void testBuild_EmptySnapshot() {
+        RegistrationColumnStore empty = RegistrationColumnStore.builder().build();
+
+        RegistrationColumnStore.SliceResult result = empty.slice(null, null, null,
+                Collections.singletonList(AnalyticsDimension.CITY), pool);
+
+        assertEquals(0, empty.getRowCount());
+        assertEquals(0, result.getTotal());
+    }
+}
@@ -0,0 +1,119 @@
+package com.exam.benchmark;
+
+import com.exam.entity.SysUser;
+import com.exam.security.JwtTokenProvider;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT Token 验证吞吐基准测试
+ * 对比原有的两次解析路径（validateToken + getUsernameFromToken）与单次解析、摘要缓存路径。
+ * 运行方式：在 IDE 中执行 main 方法，或 mvn test-compile 后以 test classpath 启动本类。
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JwtValidationBenchmark {
+
+    private static final String SECRET =
+            "exam-registration-system-jwt-secret-key-2024-very-long-secure-key-for-hs512-algorithm-requirement";
+
+    /**
+     * 参与轮询的不同Token数量，模拟活跃用户数
+     */
+    @Param({"1", "1000"})
+    private int tokenCount;
+
+    private JwtTokenProvider cachedProvider;
+
+    private JwtTokenProvider uncachedProvider;
+
+    private String[] tokens;
+
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        cachedProvider = newProvider(true);
+        uncachedProvider = newProvider(false);
+
+        tokens = new String[tokenCount];
+        for (int i = 0; i < tokenCount; i++) {
+            SysUser user = new SysUser();
+            user.setId((long) i);
+            user.setUsername("user" + i);
+            user.setRole("user");
+            tokens[i] = cachedProvider.generateAccessToken(user);
+        }
+    }
+
+    @Benchmark
+    public String validateThenParse() {
+        String token = nextToken();
+        if (uncachedProvider.validateToken(token)) {
+            return uncachedProvider.getUsernameFromToken(token);
+        }
+        return null;
+    }
+
+    @Benchmark
+    public String parseOnce() {
+        Claims claims = uncachedProvider.parseToken(nextToken());
+        return claims == null ? null : claims.getSubject();
+    }
+
+    @Benchmark
+    public String parseOnceCached() {
+        Claims claims = cachedProvider.parseToken(nextToken());
+        return claims == null ? null : claims.getSubject();
+    }
+
+    private String nextToken() {
+        // 多线程下轮询下标存在竞争，仅用于分散Token，不影响结果正确性
+        int index = (cursor++ & Integer.MAX_VALUE) % tokens.length;
+        return tokens[index];
+    }
+
+    private static JwtTokenProvider newProvider(boolean cacheEnabled) {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "secret", SECRET);
+        ReflectionTestUtils.setField(provider, "expiration", 3600L);
+        ReflectionTestUtils.setField(provider, "accessExpiration", 900L);
+        ReflectionTestUtils.setField(provider, "verifiedCacheEnabled", cacheEnabled);
+        ReflectionTestUtils.setField(provider, "verifiedCacheMaxSize", 10000);
+        provider.init();
+        return provider;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtValidationBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
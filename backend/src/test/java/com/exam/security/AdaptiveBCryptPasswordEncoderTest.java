@@ -0,0 +1,47 @@
+package com.exam.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AdaptiveBCryptPasswordEncoder 单元测试
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+class AdaptiveBCryptPasswordEncoderTest {
+
+    @Test
+    void testUpgradeEncoding_OnlyWeakerHashes() {
+        AdaptiveBCryptPasswordEncoder encoder = new AdaptiveBCryptPasswordEncoder("fixed", 5, 0, 4, 6);
+
+        String weaker = new BCryptPasswordEncoder(4).encode("secret");
+        String stronger = new BCryptPasswordEncoder(6).encode("secret");
+        String current = encoder.encode("secret");
+
+        assertTrue(encoder.upgradeEncoding(weaker));
+        // 其它节点校准出的更高强度不降级
+        assertFalse(encoder.upgradeEncoding(stronger));
+        assertFalse(encoder.upgradeEncoding(current));
+        assertFalse(encoder.upgradeEncoding("not-a-bcrypt-hash"));
+    }
+
+    @Test
+    void testMatches_AnyStoredCost() {
+        AdaptiveBCryptPasswordEncoder encoder = new AdaptiveBCryptPasswordEncoder("fixed", 5, 0, 4, 6);
+
+        assertTrue(encoder.matches("secret", new BCryptPasswordEncoder(4).encode("secret")));
+        assertFalse(encoder.matches("wrong", new BCryptPasswordEncoder(6).encode("secret")));
+    }
+
+    @Test
+    void testAdaptive_RespectsStrengthBounds() {
+        // 预算为负时任何强度都超出预算，应退回最小强度
+        AdaptiveBCryptPasswordEncoder encoder = new AdaptiveBCryptPasswordEncoder("adaptive", 10, -1, 4, 6);
+
+        assertEquals(4, encoder.getStrength());
+        assertEquals(4, AdaptiveBCryptPasswordEncoder.costOf(encoder.encode("secret")));
+    }
+}
@@ -0,0 +1,54 @@
+package com.exam.security;
+
+import com.exam.entity.SysUser;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JwtTokenProvider 单元测试
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+class JwtTokenProviderTest {
+
+    private JwtTokenProvider tokenProvider;
+
+    @BeforeEach
+    void setUp() {
+        tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "secret",
+                "exam-registration-system-jwt-secret-key-2024-very-long-secure-key-for-hs512-algorithm-requirement");
+        ReflectionTestUtils.setField(tokenProvider, "expiration", 86400L);
+        ReflectionTestUtils.setField(tokenProvider, "accessExpiration", 900L);
+        ReflectionTestUtils.setField(tokenProvider, "verifiedCacheEnabled", true);
+        ReflectionTestUtils.setField(tokenProvider, "verifiedCacheMaxSize", 100);
+        tokenProvider.init();
+    }
+
+    @Test
+    void testParseToken_CachedClaimsNotShared() {
+        SysUser user = new SysUser();
+        user.setId(1L);
+        user.setUsername("alice");
+        user.setRole("USER");
+        String token = tokenProvider.generateAccessToken(user);
+
+        Claims first = tokenProvider.parseToken(token);
+        // 某个调用方修改了自己拿到的 Claims
+        first.put(JwtTokenProvider.CLAIM_ROLE, "ADMIN");
+        Claims second = tokenProvider.parseToken(token);
+        second.setSubject("mallory");
+        Claims third = tokenProvider.parseToken(token);
+
+        assertNotSame(second, third);
+        assertEquals("alice", third.getSubject());
+        assertEquals("USER", third.get(JwtTokenProvider.CLAIM_ROLE, String.class));
+        assertEquals(1L, third.get(JwtTokenProvider.CLAIM_USER_ID, Long.class));
+        assertEquals(2L, tokenProvider.getVerifiedCacheStats().get("hitCount"));
+    }
+}
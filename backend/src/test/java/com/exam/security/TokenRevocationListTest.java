@@ -0,0 +1,87 @@
+package com.exam.security;
+
+import com.exam.entity.TokenRevocation;
+import com.exam.mapper.TokenRevocationMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * TokenRevocationList 单元测试
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationListTest {
+
+    private static final LocalDateTime EXPIRE_TIME = LocalDateTime.now().plusHours(1);
+
+    private static final long EXP_MILLIS = EXPIRE_TIME.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+    @Mock
+    private TokenRevocationMapper revocationMapper;
+
+    @InjectMocks
+    private TokenRevocationList revocationList;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(revocationList, "bucketMinutes", 360L);
+        ReflectionTestUtils.setField(revocationList, "bucketCapacity", 1000L);
+        ReflectionTestUtils.setField(revocationList, "fpp", 0.01);
+        ReflectionTestUtils.setField(revocationList, "syncOverlapSeconds", 300L);
+    }
+
+    @Test
+    void testSync_LateCommittedRecordPickedUp() {
+        // 首次同步时ID为1的记录尚未提交，只读到ID为2的记录
+        when(revocationMapper.selectList(any()))
+                .thenReturn(Collections.singletonList(record(2L, "jti-2")))
+                .thenReturn(Arrays.asList(record(1L, "jti-1"), record(2L, "jti-2")));
+
+        revocationList.init();
+        assertFalse(revocationList.isRevoked("jti-1", null, null, EXP_MILLIS));
+
+        revocationList.scheduledSync();
+
+        assertTrue(revocationList.isRevoked("jti-1", null, null, EXP_MILLIS));
+        assertTrue(revocationList.isRevoked("jti-2", null, null, EXP_MILLIS));
+        assertEquals(2L, revocationList.getStats().get("lastSyncedId"));
+    }
+
+    @Test
+    void testRevokeUserBefore_LegacyTokensRevoked() {
+        when(revocationMapper.selectList(any())).thenReturn(Collections.emptyList());
+        revocationList.init();
+
+        revocationList.revokeUserBefore(1L, 0, EXP_MILLIS);
+
+        // 旧版令牌不含 jti 与版本号，当前版本的新令牌不受影响
+        assertTrue(revocationList.isRevoked(null, 1L, null, EXP_MILLIS));
+        assertFalse(revocationList.isRevoked("jti-1", 1L, 0, EXP_MILLIS));
+        assertFalse(revocationList.isRevoked(null, 2L, null, EXP_MILLIS));
+        verify(revocationMapper).insert(any(TokenRevocation.class));
+    }
+
+    private static TokenRevocation record(Long id, String jti) {
+        TokenRevocation record = new TokenRevocation();
+        record.setId(id);
+        record.setJti(jti);
+        record.setExpireTime(EXPIRE_TIME);
+        return record;
+    }
+}
@@ -0,0 +1,106 @@
+package com.exam.service;
+
+import com.exam.common.PageResult;
+import com.exam.entity.Exam;
+import com.exam.mapper.ExamMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * AvailableExamIndex 单元测试
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@ExtendWith(MockitoExtension.class)
+class AvailableExamIndexTest {
+
+    @Mock
+    private ExamMapper examMapper;
+
+    @InjectMocks
+    private AvailableExamIndex availableExamIndex;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(availableExamIndex, "ttlSeconds", 3600L);
+        LocalDateTime now = LocalDateTime.now();
+        Exam later = exam(1L, "2025年成人高考", "成人高考", LocalDate.now().plusDays(60),
+                now.minusDays(1), now.plusDays(10));
+        Exam sooner = exam(2L, "2025年教师资格考试", "资格考试", LocalDate.now().plusDays(30),
+                now.minusDays(2), now.plusDays(5));
+        Exam upcoming = exam(3L, "2025年会计资格考试", "资格考试", LocalDate.now().plusDays(20),
+                now.plusDays(1), now.plusDays(8));
+        // selectList 返回的列表会被排序，每次返回新列表
+        lenient().when(examMapper.selectList(any()))
+                .thenAnswer(invocation -> new ArrayList<>(Arrays.asList(later, sooner, upcoming)));
+    }
+
+    @Test
+    void testPage_OnlyOpenExamsSortedByExamDate() {
+        PageResult<Exam> result = availableExamIndex.page(1, 10, null, null);
+
+        assertEquals(2L, result.getTotal());
+        assertEquals(2L, result.getRecords().get(0).getId());
+        assertEquals(1L, result.getRecords().get(1).getId());
+    }
+
+    @Test
+    void testPage_FilterByNameAndType() {
+        PageResult<Exam> byName = availableExamIndex.page(1, 10, "成人", null);
+        PageResult<Exam> byType = availableExamIndex.page(1, 10, null, "资格考试");
+
+        assertEquals(1L, byName.getTotal());
+        assertEquals(1L, byName.getRecords().get(0).getId());
+        assertEquals(1L, byType.getTotal());
+        assertEquals(2L, byType.getRecords().get(0).getId());
+    }
+
+    @Test
+    void testPage_ServedFromMemoryUntilInvalidated() {
+        availableExamIndex.page(1, 10, null, null);
+        availableExamIndex.page(2, 1, null, null);
+        verify(examMapper, times(1)).selectList(any());
+
+        availableExamIndex.invalidate();
+        availableExamIndex.page(1, 10, null, null);
+        verify(examMapper, times(2)).selectList(any());
+    }
+
+    @Test
+    void testGetVersion_StableUntilInvalidated() {
+        String version = availableExamIndex.getVersion();
+        availableExamIndex.page(1, 10, null, null);
+        assertEquals(version, availableExamIndex.getVersion());
+
+        availableExamIndex.invalidate();
+        assertNotEquals(version, availableExamIndex.getVersion());
+    }
+
+    private static Exam exam(Long id, String name, String type, LocalDate examDate,
+                             LocalDateTime start, LocalDateTime end) {
+        Exam exam = new Exam();
+        exam.setId(id);
+        exam.setExamName(name);
+        exam.setExamType(type);
+        exam.setExamDate(examDate);
+        exam.setRegistrationStart(start);
+        exam.setRegistrationEnd(end);
+        exam.setStatus(2);
+        return exam;
+    }
+}
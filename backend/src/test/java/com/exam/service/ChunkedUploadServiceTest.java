@@ -0,0 +1,165 @@
+package com.exam.service;
+
+import com.exam.dto.ChunkUploadInitRequest;
+import com.exam.dto.ChunkUploadStatus;
+import com.exam.entity.SysUser;
+import com.exam.exception.BusinessException;
+import com.exam.security.CustomUserDetails;
+import com.exam.utils.FileUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * ChunkedUploadService 单元测试
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@ExtendWith(MockitoExtension.class)
+class ChunkedUploadServiceTest {
+
+    private static final byte[] CONTENT = "0123456789abcdefghij".getBytes(StandardCharsets.US_ASCII);
+
+    @Mock
+    private FileUtils fileUtils;
+
+    @InjectMocks
+    private ChunkedUploadService chunkedUploadService;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ReflectionTestUtils.setField(chunkedUploadService, "chunkSize", 8);
+        ReflectionTestUtils.setField(chunkedUploadService, "expireHours", 24L);
+        lenient().when(fileUtils.getChunkDirectory()).thenReturn(tempDir.resolve(".chunks"));
+        lenient().when(fileUtils.moveToUploadPath(any(Path.class), eq("material"), anyLong(), anyString()))
+                .thenAnswer(invocation -> {
+                    Files.move(invocation.getArgument(0), tempDir.resolve("material.pdf"));
+                    return "materials/2024/10/20/material.pdf";
+                });
+    }
+
+    @Test
+    void testUpload_OutOfOrderChunksAssembled() throws Exception {
+        ChunkUploadStatus status = chunkedUploadService.init(initRequest(sha256(CONTENT)), user(10L));
+        assertEquals(3, status.getChunkCount());
+        assertEquals(Arrays.asList(0, 1, 2), status.getMissingChunks());
+
+        upload(status.getUploadId(), 2, true);
+        upload(status.getUploadId(), 0, true);
+        status = upload(status.getUploadId(), 1, false);
+        assertEquals(3, status.getReceivedCount());
+        assertTrue(status.getMissingChunks().isEmpty());
+
+        status = chunkedUploadService.complete(status.getUploadId(), user(10L));
+
+        assertEquals("materials/2024/10/20/material.pdf", status.getFilePath());
+        assertArrayEquals(CONTENT, Files.readAllBytes(tempDir.resolve("material.pdf")));
+        // 重复完成返回同一路径
+        assertEquals(status.getFilePath(), chunkedUploadService.complete(status.getUploadId(), user(10L)).getFilePath());
+    }
+
+    @Test
+    void testUploadChunk_ChecksumMismatchRequiresRetry() throws Exception {
+        String uploadId = chunkedUploadService.init(initRequest(null), user(10L)).getUploadId();
+
+        BusinessException e = assertThrows(BusinessException.class, () -> chunkedUploadService.writeChunk(
+                uploadId, 0, new ByteArrayInputStream(chunk(0)), 8, sha256(chunk(1)), user(10L)));
+        assertEquals(400, e.getCode());
+        assertEquals(Arrays.asList(0, 1, 2), chunkedUploadService.getStatus(uploadId, user(10L)).getMissingChunks());
+
+        assertThrows(BusinessException.class, () -> chunkedUploadService.writeChunk(
+                uploadId, 1, new ByteArrayInputStream(Arrays.copyOf(chunk(1), 5)), -1, null, user(10L)));
+        assertThrows(BusinessException.class, () -> chunkedUploadService.complete(uploadId, user(10L)));
+
+        ChunkUploadStatus status = upload(uploadId, 0, true);
+        assertEquals(Arrays.asList(1, 2), status.getMissingChunks());
+    }
+
+    @Test
+    void testUpload_ResumesAfterRestart() throws Exception {
+        String uploadId = chunkedUploadService.init(initRequest(null), user(10L)).getUploadId();
+        upload(uploadId, 0, true);
+        upload(uploadId, 2, true);
+
+        ChunkedUploadService restarted = new ChunkedUploadService();
+        ReflectionTestUtils.setField(restarted, "fileUtils", fileUtils);
+        ReflectionTestUtils.setField(restarted, "chunkSize", 8);
+
+        ChunkUploadStatus status = restarted.getStatus(uploadId, user(10L));
+        assertEquals(Collections.singletonList(1), status.getMissingChunks());
+
+        restarted.writeChunk(uploadId, 1, new ByteArrayInputStream(chunk(1)), 8, null, user(10L));
+        restarted.complete(uploadId, user(10L));
+        assertArrayEquals(CONTENT, Files.readAllBytes(tempDir.resolve("material.pdf")));
+    }
+
+    @Test
+    void testUpload_OtherUserForbidden() throws Exception {
+        String uploadId = chunkedUploadService.init(initRequest(null), user(10L)).getUploadId();
+
+        BusinessException e = assertThrows(BusinessException.class,
+                () -> chunkedUploadService.getStatus(uploadId, user(11L)));
+        assertEquals(403, e.getCode());
+        assertThrows(BusinessException.class, () -> chunkedUploadService.getStatus("../../etc/passwd", user(10L)));
+    }
+
+    private ChunkUploadStatus upload(String uploadId, int index, boolean withChecksum) throws Exception {
+        byte[] data = chunk(index);
+        return chunkedUploadService.writeChunk(uploadId, index, new ByteArrayInputStream(data), data.length,
+                withChecksum ? sha256(data) : null, user(10L));
+    }
+
+    private static byte[] chunk(int index) {
+        return Arrays.copyOfRange(CONTENT, index * 8, Math.min(CONTENT.length, index * 8 + 8));
+    }
+
+    private static ChunkUploadInitRequest initRequest(String sha256) {
+        ChunkUploadInitRequest request = new ChunkUploadInitRequest();
+        request.setType("material");
+        request.setFileName("degree.pdf");
+        request.setFileSize((long) CONTENT.length);
+        request.setSha256(sha256);
+        return request;
+    }
+
+    private static String sha256(byte[] data) throws Exception {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : MessageDigest.getInstance("SHA-256").digest(data)) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private static CustomUserDetails user(Long id) {
+        SysUser user = new SysUser();
+        user.setId(id);
+        user.setUsername("user" + id);
+        user.setRole("USER");
+        user.setStatus(1);
+        return new CustomUserDetails(user);
+    }
+}
@@ -0,0 +1,132 @@
+package com.exam.service;
+
+import com.exam.common.CachedContent;
+import com.exam.common.Result;
+import com.exam.config.CachedContentHttpMessageConverter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ContentCache 单元测试
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+class ContentCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ContentCache contentCache;
+
+    @BeforeEach
+    void setUp() {
+        contentCache = new ContentCache();
+        ReflectionTestUtils.setField(contentCache, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(contentCache, "enabled", true);
+        ReflectionTestUtils.setField(contentCache, "maxBytes", 1024 * 1024L);
+        ReflectionTestUtils.setField(contentCache, "maxEntryBytes", 64 * 1024L);
+        ReflectionTestUtils.setField(contentCache, "ttlSeconds", 60L);
+        contentCache.init();
+    }
+
+    @Test
+    void testGet_ConcurrentMissesLoadOnce() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<CachedContent>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(() -> contentCache.get("exam:1", () -> {
+                    loads.incrementAndGet();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return Collections.singletonMap("id", 1);
+                })));
+            }
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<CachedContent> future : futures) {
+                assertEquals("{\"id\":1}", text(future.get(5, TimeUnit.SECONDS)));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testGet_InvalidatedDuringLoadIsNotCached() {
+        CachedContent stale = contentCache.get("exam:1", () -> {
+            // 加载期间考试被修改
+            contentCache.invalidate("exam:1");
+            return Collections.singletonMap("status", 3);
+        });
+        assertEquals("{\"status\":3}", text(stale));
+
+        CachedContent fresh = contentCache.get("exam:1", () -> Collections.singletonMap("status", 4));
+        assertEquals("{\"status\":4}", text(fresh));
+    }
+
+    @Test
+    void testGetVersion_ChangesOnlyOnInvalidate() {
+        long version = contentCache.getVersion("notice:1");
+        CachedContent content = contentCache.get("notice:1", () -> Collections.singletonMap("id", 1));
+        assertEquals(version, content.getVersion());
+        assertEquals(version, contentCache.getVersion("notice:1"));
+
+        contentCache.invalidate("notice:1");
+
+        long next = contentCache.getVersion("notice:1");
+        assertNotEquals(version, next);
+        assertEquals(next, contentCache.get("notice:1", () -> Collections.singletonMap("id", 1)).getVersion());
+    }
+
+    @Test
+    void testConverter_WritesResultWithCachedData() throws Exception {
+        CachedContent content = contentCache.get("exam:1", () -> Collections.singletonMap("id", 1));
+        Result<CachedContent> result = Result.success(content);
+        Type type = new ParameterizedTypeReference<Result<CachedContent>>() { }.getType();
+        CachedContentHttpMessageConverter converter = new CachedContentHttpMessageConverter(objectMapper);
+        assertTrue(converter.canWrite(type, Result.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(Result.class, MediaType.APPLICATION_JSON));
+
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(result, type, MediaType.APPLICATION_JSON, output);
+
+        JsonNode json = objectMapper.readTree(output.getBodyAsString(StandardCharsets.UTF_8));
+        assertEquals(200, json.get("code").asInt());
+        assertEquals("success", json.get("message").asText());
+        assertEquals(1, json.get("data").get("id").asInt());
+        assertTrue(json.has("timestamp"));
+    }
+
+    private static String text(CachedContent content) {
+        byte[] bytes = new byte[content.getLength()];
+        content.getBody().get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
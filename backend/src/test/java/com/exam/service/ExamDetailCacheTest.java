@@ -0,0 +1,162 @@
+package com.exam.service;
+
+import com.exam.dto.ExamDetailResponse;
+import com.exam.dto.ExamSiteAvailability;
+import com.exam.dto.SiteRecommendation;
+import com.exam.entity.Exam;
+import com.exam.event.ExamChangedEvent;
+import com.exam.mapper.ExamMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * ExamDetailCache 单元测试
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@ExtendWith(MockitoExtension.class)
+class ExamDetailCacheTest {
+
+    @Mock
+    private ExamMapper examMapper;
+
+    @InjectMocks
+    private ExamDetailCache examDetailCache;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(examDetailCache, "ttlSeconds", 3600L);
+        lenient().when(examMapper.selectDetailWithSites(1L)).thenAnswer(invocation -> detail());
+    }
+
+    @Test
+    void testGet_LoadsOnceAndComputesRemainingSeats() {
+        ExamDetailResponse first = examDetailCache.get(1L);
+        ExamDetailResponse second = examDetailCache.get(1L);
+
+        assertEquals(2, first.getSites().size());
+        assertEquals(20, first.getSites().get(0).getRemainingSeats());
+        assertEquals(0, first.getSites().get(1).getRemainingSeats());
+        assertNotSame(first.getExam(), second.getExam());
+        verify(examMapper, times(1)).selectDetailWithSites(1L);
+    }
+
+    @Test
+    void testGet_ExamNotFound() {
+        assertNull(examDetailCache.get(2L));
+        assertNull(examDetailCache.getVersion(2L));
+    }
+
+    @Test
+    void testSeatTakenAndReleased_UpdatesCountsAndVersion() {
+        String version = examDetailCache.getVersion(1L);
+
+        examDetailCache.seatTakenAfterCommit(1L, 10L);
+        examDetailCache.seatTakenAfterCommit(1L, 10L);
+        examDetailCache.seatReleasedAfterCommit(1L, 10L);
+
+        ExamDetailResponse detail = examDetailCache.get(1L);
+        assertEquals(81, detail.getExam().getCurrentCount());
+        assertEquals(81, detail.getSites().get(0).getCurrentCount());
+        assertEquals(19, detail.getSites().get(0).getRemainingSeats());
+        assertNotEquals(version, examDetailCache.getVersion(1L));
+        verify(examMapper, times(1)).selectDetailWithSites(1L);
+    }
+
+    @Test
+    void testOnExamChanged_Reloads() {
+        examDetailCache.get(1L);
+
+        examDetailCache.onExamChanged(new ExamChangedEvent(this, 1L, ExamChangedEvent.Action.UPDATED));
+        examDetailCache.get(1L);
+
+        verify(examMapper, times(2)).selectDetailWithSites(1L);
+    }
+
+    @Test
+    void testGet_ChangedDuringLoadIsNotCached() {
+        when(examMapper.selectDetailWithSites(1L)).thenAnswer(invocation -> {
+            // 读到旧数据后考试被修改并失效
+            examDetailCache.invalidate(1L);
+            return detail();
+        }).thenAnswer(invocation -> {
+            // 读到报名人数后另一报名提交，缓存中尚无聚合可更新
+            ExamDetailResponse stale = detail();
+            examDetailCache.seatTakenAfterCommit(1L, 10L);
+            return stale;
+        }).thenAnswer(invocation -> {
+            ExamDetailResponse fresh = detail();
+            fresh.getExam().setCurrentCount(81);
+            fresh.getSites().get(0).setCurrentCount(81);
+            return fresh;
+        });
+
+        assertEquals(80, examDetailCache.get(1L).getExam().getCurrentCount());
+        assertEquals(80, examDetailCache.get(1L).getExam().getCurrentCount());
+
+        ExamDetailResponse detail = examDetailCache.get(1L);
+        assertEquals(81, detail.getExam().getCurrentCount());
+        assertEquals(19, detail.getSites().get(0).getRemainingSeats());
+        assertEquals(81, examDetailCache.get(1L).getExam().getCurrentCount());
+        verify(examMapper, times(3)).selectDetailWithSites(1L);
+    }
+
+    @Test
+    void testNearestAvailable_SkipsFullSites() {
+        // 考点11（北京）已满，考点10（天津）次近
+        List<SiteRecommendation> result = examDetailCache.nearestAvailable(1L, 39.9, 116.4, 2);
+
+        assertEquals(1, result.size());
+        assertEquals(10L, result.get(0).getId());
+        assertEquals(20, result.get(0).getRemainingSeats());
+        assertTrue(result.get(0).getDistanceKm() > 100);
+
+        // 北京考点有人取消后重新出现在推荐结果的首位
+        examDetailCache.seatReleasedAfterCommit(1L, 11L);
+        result = examDetailCache.nearestAvailable(1L, 39.9, 116.4, 2);
+        assertEquals(11L, result.get(0).getId());
+        assertEquals(2, result.size());
+    }
+
+    private static ExamDetailResponse detail() {
+        Exam exam = new Exam();
+        exam.setId(1L);
+        exam.setExamName("2025年教师资格考试");
+        exam.setCurrentCount(80);
+
+        ExamDetailResponse detail = new ExamDetailResponse();
+        detail.setExamId(1L);
+        detail.setExam(exam);
+        detail.setSites(new ArrayList<>(Arrays.asList(
+                site(10L, 100, 80, "39.1256", "117.1909"),
+                site(11L, 50, 50, "39.9042", "116.4074"))));
+        return detail;
+    }
+
+    private static ExamSiteAvailability site(Long id, int capacity, int currentCount, String lat, String lon) {
+        ExamSiteAvailability site = new ExamSiteAvailability();
+        site.setId(id);
+        site.setExamId(1L);
+        site.setSiteName("考点" + id);
+        site.setCapacity(capacity);
+        site.setCurrentCount(currentCount);
+        site.setLatitude(new BigDecimal(lat));
+        site.setLongitude(new BigDecimal(lon));
+        site.setStatus(1);
+        return site;
+    }
+}
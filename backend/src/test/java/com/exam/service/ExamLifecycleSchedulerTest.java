@@ -0,0 +1,104 @@
+package com.exam.service;
+
+import com.exam.entity.Exam;
+import com.exam.event.ExamChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * ExamLifecycleScheduler 单元测试
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+class ExamLifecycleSchedulerTest {
+
+    private final LocalDateTime now = LocalDateTime.of(2025, 3, 1, 12, 0);
+
+    @Test
+    void testNextTransition_PublishedOpensAtRegistrationStart() {
+        Exam exam = exam(2, now.plusHours(1), now.plusDays(10), LocalDate.of(2025, 4, 1));
+
+        ExamLifecycleScheduler.Transition transition = ExamLifecycleScheduler.nextTransition(exam, now);
+
+        assertNotNull(transition);
+        assertEquals(2, transition.fromStatus);
+        assertEquals(3, transition.toStatus);
+        assertEquals(now.plusHours(1), transition.fireTime);
+    }
+
+    @Test
+    void testNextTransition_OverdueFiresImmediately() {
+        // 停机期间报名已开始
+        Exam opened = exam(2, now.minusHours(1), now.plusDays(10), LocalDate.of(2025, 4, 1));
+        ExamLifecycleScheduler.Transition open = ExamLifecycleScheduler.nextTransition(opened, now);
+        assertEquals(3, open.toStatus);
+        assertEquals(now, open.fireTime);
+
+        // 停机期间报名已结束，跳过报名中
+        Exam closed = exam(2, now.minusDays(10), now.minusDays(1), LocalDate.of(2025, 4, 1));
+        ExamLifecycleScheduler.Transition close = ExamLifecycleScheduler.nextTransition(closed, now);
+        assertEquals(2, close.fromStatus);
+        assertEquals(4, close.toStatus);
+        assertEquals(now, close.fireTime);
+    }
+
+    @Test
+    void testNextTransition_ClosesThenFinishes() {
+        Exam registering = exam(3, now.minusDays(1), now.plusDays(5), LocalDate.of(2025, 4, 1));
+        assertEquals(now.plusDays(5), ExamLifecycleScheduler.nextTransition(registering, now).fireTime);
+
+        Exam closed = exam(4, now.minusDays(10), now.minusDays(1), LocalDate.of(2025, 4, 1));
+        ExamLifecycleScheduler.Transition finish = ExamLifecycleScheduler.nextTransition(closed, now);
+        assertEquals(5, finish.toStatus);
+        assertEquals(LocalDateTime.of(2025, 4, 2, 0, 0), finish.fireTime);
+
+        assertNull(ExamLifecycleScheduler.nextTransition(exam(1, now, now, null), now));
+        assertNull(ExamLifecycleScheduler.nextTransition(exam(5, now, now, null), now));
+    }
+
+    @Test
+    void testPublish_SlowListenerDoesNotBlockCaller() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(2);
+        ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+        doAnswer(invocation -> {
+            // 监听方预加载报名数据耗时较长
+            release.await(5, TimeUnit.SECONDS);
+            delivered.countDown();
+            return null;
+        }).when(eventPublisher).publishEvent(any(ExamChangedEvent.class));
+        ExamLifecycleScheduler scheduler = new ExamLifecycleScheduler();
+        ReflectionTestUtils.setField(scheduler, "eventPublisher", eventPublisher);
+        try {
+            scheduler.publish(new ExamChangedEvent(this, 1L, ExamChangedEvent.Action.REGISTRATION_OPENED));
+            scheduler.publish(new ExamChangedEvent(this, 2L, ExamChangedEvent.Action.REGISTRATION_OPENED));
+            assertEquals(2, delivered.getCount());
+
+            release.countDown();
+            assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        } finally {
+            scheduler.destroy();
+        }
+    }
+
+    private static Exam exam(int status, LocalDateTime start, LocalDateTime end, LocalDate examDate) {
+        Exam exam = new Exam();
+        exam.setId(1L);
+        exam.setStatus(status);
+        exam.setRegistrationStart(start);
+        exam.setRegistrationEnd(end);
+        exam.setExamDate(examDate);
+        return exam;
+    }
+}
@@ -0,0 +1,70 @@
+package com.exam.service;
+
+import com.exam.entity.Exam;
+import com.exam.mapper.ExamMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * ExamSnapshotCache 单元测试
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@ExtendWith(MockitoExtension.class)
+class ExamSnapshotCacheTest {
+
+    @Mock
+    private ExamMapper examMapper;
+
+    @InjectMocks
+    private ExamSnapshotCache examSnapshotCache;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(examSnapshotCache, "ttlSeconds", 60L);
+    }
+
+    @Test
+    void testGet_CachedUntilInvalidated() {
+        when(examMapper.selectById(1L)).thenReturn(exam(2));
+
+        assertTrue(examSnapshotCache.get(1L).isOpenStatus());
+        assertTrue(examSnapshotCache.get(1L).isOpenStatus());
+        verify(examMapper, times(1)).selectById(1L);
+
+        examSnapshotCache.invalidate(1L);
+        examSnapshotCache.get(1L);
+        verify(examMapper, times(2)).selectById(1L);
+    }
+
+    @Test
+    void testGet_InvalidatedDuringLoadIsNotCached() {
+        when(examMapper.selectById(1L)).thenAnswer(invocation -> {
+            // 读到旧数据后考试被修改并失效
+            examSnapshotCache.invalidate(1L);
+            return exam(2);
+        }).thenReturn(exam(4));
+
+        assertTrue(examSnapshotCache.get(1L).isOpenStatus());
+
+        assertFalse(examSnapshotCache.get(1L).isOpenStatus());
+        verify(examMapper, times(2)).selectById(1L);
+    }
+
+    private static Exam exam(int status) {
+        Exam exam = new Exam();
+        exam.setId(1L);
+        exam.setExamName("2025年教师资格考试");
+        exam.setStatus(status);
+        return exam;
+    }
+}
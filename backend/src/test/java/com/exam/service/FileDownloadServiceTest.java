@@ -0,0 +1,262 @@
+package com.exam.service;
+
+import com.exam.entity.Registration;
+import com.exam.entity.SysUser;
+import com.exam.exception.BusinessException;
+import com.exam.mapper.RegistrationMapper;
+import com.exam.security.CustomUserDetails;
+import com.exam.utils.FileUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * FileDownloadService 单元测试
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@ExtendWith(MockitoExtension.class)
+class FileDownloadServiceTest {
+
+    private static final byte[] CONTENT = "0123456789abcdefghij".getBytes(StandardCharsets.US_ASCII);
+
+    @Mock
+    private FileUtils fileUtils;
+
+    @Mock
+    private RegistrationMapper registrationMapper;
+
+    @Mock
+    private TicketDownloadCounter ticketDownloadCounter;
+
+    @InjectMocks
+    private FileDownloadService fileDownloadService;
+
+    @TempDir
+    Path tempDir;
+
+    private Path ticketFile;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ReflectionTestUtils.setField(fileDownloadService, "sendfile", true);
+        ReflectionTestUtils.setField(fileDownloadService, "maxConcurrentStreams", 4);
+        fileDownloadService.init();
+
+        ticketFile = Files.write(tempDir.resolve("100.pdf"), CONTENT);
+        Registration registration = new Registration();
+        registration.setId(100L);
+        registration.setExamId(1L);
+        registration.setUserId(10L);
+        registration.setAuditStatus(2);
+        registration.setPaymentStatus(2);
+        registration.setAdmissionTicketNo("2025010001");
+        lenient().when(registrationMapper.selectById(100L)).thenReturn(registration);
+        lenient().when(fileUtils.getTicketFile(1L, 100L)).thenReturn(ticketFile);
+    }
+
+    @Test
+    void testParseRange() {
+        assertArrayEquals(new long[]{0, 4}, FileDownloadService.parseRange("bytes=0-4", 20));
+        assertArrayEquals(new long[]{5, 19}, FileDownloadService.parseRange("bytes=5-", 20));
+        assertArrayEquals(new long[]{15, 19}, FileDownloadService.parseRange("bytes=-5", 20));
+        assertArrayEquals(new long[]{0, 19}, FileDownloadService.parseRange("bytes=-50", 20));
+        assertArrayEquals(new long[]{10, 19}, FileDownloadService.parseRange("bytes=10-100", 20));
+        assertSame(FileDownloadService.UNSATISFIABLE, FileDownloadService.parseRange("bytes=20-", 20));
+        assertSame(FileDownloadService.UNSATISFIABLE, FileDownloadService.parseRange("bytes=-0", 20));
+        assertNull(FileDownloadService.parseRange("bytes=5-2", 20));
+        assertNull(FileDownloadService.parseRange("bytes=0-1,5-6", 20));
+        assertNull(FileDownloadService.parseRange("items=0-1", 20));
+        assertNull(FileDownloadService.parseRange("bytes=a-b", 20));
+    }
+
+    @Test
+    void testDownloadTicket_FullContentCountsDownload() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        fileDownloadService.downloadTicket(100L, user(10L, "USER"), new MockHttpServletRequest("GET", "/"), response);
+
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(CONTENT, response.getContentAsByteArray());
+        assertEquals(CONTENT.length, response.getContentLength());
+        assertEquals("application/pdf", response.getContentType());
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertNotNull(response.getHeader(HttpHeaders.ETAG));
+        assertNotNull(response.getHeader(HttpHeaders.LAST_MODIFIED));
+        verify(ticketDownloadCounter).increment(100L);
+    }
+
+    @Test
+    void testDownloadTicket_RangeResumesWithoutCounting() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader(HttpHeaders.RANGE, "bytes=10-");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        fileDownloadService.downloadTicket(100L, user(10L, "USER"), request, response);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 10-19/20", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(Arrays.copyOfRange(CONTENT, 10, 20), response.getContentAsByteArray());
+        verify(ticketDownloadCounter, never()).increment(anyLong());
+    }
+
+    @Test
+    void testDownloadTicket_IfRangeMismatchReturnsFullContent() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader(HttpHeaders.RANGE, "bytes=10-");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"file-old\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        fileDownloadService.downloadTicket(100L, user(10L, "USER"), request, response);
+
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(CONTENT, response.getContentAsByteArray());
+    }
+
+    @Test
+    void testDownloadTicket_NotModified() throws Exception {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        fileDownloadService.downloadTicket(100L, user(10L, "USER"), new MockHttpServletRequest("GET", "/"), first);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, first.getHeader(HttpHeaders.ETAG));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        fileDownloadService.downloadTicket(100L, user(10L, "USER"), request, response);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+        verify(ticketDownloadCounter, times(1)).increment(100L);
+    }
+
+    @Test
+    void testDownloadTicket_UnsatisfiableRange() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader(HttpHeaders.RANGE, "bytes=50-");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        fileDownloadService.downloadTicket(100L, user(10L, "USER"), request, response);
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */20", response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void testDownloadTicket_Sendfile() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.setAttribute(FileDownloadService.SENDFILE_SUPPORT, Boolean.TRUE);
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-4");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        fileDownloadService.downloadTicket(100L, user(10L, "USER"), request, response);
+
+        assertEquals(206, response.getStatus());
+        assertEquals(ticketFile.toRealPath().toString(), request.getAttribute(FileDownloadService.SENDFILE_FILENAME));
+        assertEquals(0L, request.getAttribute(FileDownloadService.SENDFILE_START));
+        assertEquals(5L, request.getAttribute(FileDownloadService.SENDFILE_END));
+        assertEquals(0, response.getContentAsByteArray().length);
+        verify(ticketDownloadCounter).increment(100L);
+    }
+
+    @Test
+    void testDownloadTicket_OtherUserForbidden() {
+        BusinessException e = assertThrows(BusinessException.class, () -> fileDownloadService.downloadTicket(
+                100L, user(11L, "USER"), new MockHttpServletRequest("GET", "/"), new MockHttpServletResponse()));
+
+        assertEquals(403, e.getCode());
+    }
+
+    @Test
+    void testDownloadUpload_MaterialOwnership() throws Exception {
+        useRealFileUtils();
+        String relativePath = "materials/2024/10/20/material_10_1729400000000_ab12cd34.pdf";
+        write(relativePath);
+
+        assertThrows(BusinessException.class, () -> fileDownloadService.downloadUpload(relativePath,
+                user(11L, "USER"), new MockHttpServletRequest("GET", "/"), new MockHttpServletResponse()));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        fileDownloadService.downloadUpload(relativePath, user(10L, "USER"), new MockHttpServletRequest("GET", "/"), response);
+        assertArrayEquals(CONTENT, response.getContentAsByteArray());
+
+        response = new MockHttpServletResponse();
+        fileDownloadService.downloadUpload(relativePath, user(99L, "ADMIN"), new MockHttpServletRequest("GET", "/"), response);
+        assertArrayEquals(CONTENT, response.getContentAsByteArray());
+    }
+
+    @Test
+    void testDownloadUpload_TraversalClassifiedByResolvedPath() throws Exception {
+        useRealFileUtils();
+        write("materials/2024/10/20/material_5_1729400000000_ab12cd34.pdf");
+        write("exam-files/2024/10/20/exam_1_1729400000000_ab12cd34.pdf");
+
+        // 以 exam-files/ 开头但实际指向他人的证明材料
+        BusinessException e = assertThrows(BusinessException.class, () -> fileDownloadService.downloadUpload(
+                "exam-files/../materials/2024/10/20/material_5_1729400000000_ab12cd34.pdf",
+                user(6L, "USER"), new MockHttpServletRequest("GET", "/"), new MockHttpServletResponse()));
+        assertEquals(403, e.getCode());
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        fileDownloadService.downloadUpload("exam-files/2024/10/20/exam_1_1729400000000_ab12cd34.pdf",
+                user(6L, "USER"), new MockHttpServletRequest("GET", "/"), response);
+        assertArrayEquals(CONTENT, response.getContentAsByteArray());
+    }
+
+    @Test
+    void testDownloadUpload_PathOutsideUploadDirectory() throws Exception {
+        useRealFileUtils();
+        Files.write(tempDir.resolve("application.yml"), CONTENT);
+
+        for (String path : Arrays.asList("../application.yml", "exam-files/../../application.yml",
+                ".chunks/abc.part", "tickets/100.pdf")) {
+            BusinessException e = assertThrows(BusinessException.class, () -> fileDownloadService.downloadUpload(
+                    path, user(10L, "USER"), new MockHttpServletRequest("GET", "/"), new MockHttpServletResponse()));
+            assertEquals(403, e.getCode(), path);
+        }
+    }
+
+    /**
+     * 使用真实的 FileUtils，上传目录为 tempDir/uploads
+     */
+    private void useRealFileUtils() {
+        FileUtils realFileUtils = new FileUtils();
+        ReflectionTestUtils.setField(realFileUtils, "uploadPath", tempDir.resolve("uploads") + "/");
+        ReflectionTestUtils.setField(realFileUtils, "avatarPath", "avatar/");
+        ReflectionTestUtils.setField(realFileUtils, "materialPath", "materials/");
+        ReflectionTestUtils.setField(realFileUtils, "examFilePath", "exam-files/");
+        ReflectionTestUtils.setField(realFileUtils, "ticketPath", "tickets/");
+        ReflectionTestUtils.setField(fileDownloadService, "fileUtils", realFileUtils);
+    }
+
+    private void write(String relativePath) throws Exception {
+        Path file = tempDir.resolve("uploads").resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.write(file, CONTENT);
+    }
+
+    private static CustomUserDetails user(Long id, String role) {
+        SysUser user = new SysUser();
+        user.setId(id);
+        user.setUsername("user" + id);
+        user.setRole(role);
+        user.setStatus(1);
+        return new CustomUserDetails(user);
+    }
+}
@@ -0,0 +1,86 @@
+package com.exam.service;
+
+import com.exam.entity.Notice;
+import com.exam.mapper.NoticeMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+/**
+ * NoticeViewCounter 单元测试
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@ExtendWith(MockitoExtension.class)
+class NoticeViewCounterTest {
+
+    @Mock
+    private NoticeMapper noticeMapper;
+
+    @InjectMocks
+    private NoticeViewCounter noticeViewCounter;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(noticeViewCounter, "batchSize", 500);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_WritesDeltasOnce() {
+        for (int i = 0; i < 3; i++) {
+            noticeViewCounter.increment(1L);
+        }
+        noticeViewCounter.increment(2L);
+
+        Notice notice = new Notice();
+        notice.setId(1L);
+        notice.setViewCount(10);
+        noticeViewCounter.applyPending(notice);
+        assertEquals(13, notice.getViewCount());
+
+        noticeViewCounter.flush();
+
+        ArgumentCaptor<Map<Long, Long>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(noticeMapper).batchIncrementViewCount(captor.capture());
+        assertEquals(3L, captor.getValue().get(1L));
+        assertEquals(1L, captor.getValue().get(2L));
+        assertEquals(0, noticeViewCounter.pending(1L));
+
+        // 没有新的浏览时不再写库
+        noticeViewCounter.flush();
+        verifyNoMoreInteractions(noticeMapper);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_FailureKeepsDeltas() {
+        noticeViewCounter.increment(1L);
+        when(noticeMapper.batchIncrementViewCount(anyMap()))
+                .thenThrow(new RuntimeException("Lock wait timeout"))
+                .thenReturn(1);
+
+        noticeViewCounter.flush();
+        assertEquals(1, noticeViewCounter.pending(1L));
+
+        noticeViewCounter.increment(1L);
+        noticeViewCounter.flush();
+
+        ArgumentCaptor<Map<Long, Long>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(noticeMapper, times(2)).batchIncrementViewCount(captor.capture());
+        assertEquals(2L, captor.getValue().get(1L));
+        assertEquals(0, noticeViewCounter.pending(1L));
+    }
+}
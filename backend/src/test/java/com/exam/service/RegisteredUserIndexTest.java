@@ -0,0 +1,83 @@
+package com.exam.service;
+
+import com.exam.mapper.RegistrationMapper;
+import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * RegisteredUserIndex 单元测试
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@ExtendWith(MockitoExtension.class)
+class RegisteredUserIndexTest {
+
+    @Mock
+    private RegistrationMapper registrationMapper;
+
+    @InjectMocks
+    private RegisteredUserIndex registeredUserIndex;
+
+    @AfterEach
+    void tearDown() {
+        registeredUserIndex.destroy();
+    }
+
+    @Test
+    void testMightContain_NotLoadedFallsBackToDatabase() throws Exception {
+        CountDownLatch streaming = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(registrationMapper.countByExamId(1L)).thenReturn(1);
+        doAnswer(invocation -> {
+            streaming.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            stream(invocation.getArgument(1), 10L);
+            return null;
+        }).when(registrationMapper).streamUserIdsByExamId(eq(1L), any());
+
+        // 加载未完成：视为可能已报名，由调用方查库
+        assertTrue(registeredUserIndex.mightContain(1L, 20L));
+        assertTrue(streaming.await(5, TimeUnit.SECONDS));
+
+        // 加载期间提交与取消的报名先缓冲
+        registeredUserIndex.add(1L, 30L);
+        registeredUserIndex.remove(1L, 10L);
+        release.countDown();
+
+        assertEquals(1, registeredUserIndex.preload(1L));
+        assertFalse(registeredUserIndex.mightContain(1L, 20L));
+        assertTrue(registeredUserIndex.mightContain(1L, 30L));
+        assertFalse(registeredUserIndex.mightContain(1L, 10L));
+        verify(registrationMapper, times(1)).streamUserIdsByExamId(eq(1L), any());
+    }
+
+    @Test
+    void testPreload_FailedLoadRetried() {
+        when(registrationMapper.countByExamId(1L)).thenThrow(new IllegalStateException("db down")).thenReturn(0);
+
+        assertThrows(IllegalStateException.class, () -> registeredUserIndex.preload(1L));
+        assertEquals(0, registeredUserIndex.preload(1L));
+        assertFalse(registeredUserIndex.mightContain(1L, 20L));
+    }
+
+    private static void stream(ResultHandler<Long> handler, Long userId) {
+        DefaultResultContext<Long> context = new DefaultResultContext<>();
+        context.nextResultObject(userId);
+        handler.handleResult(context);
+    }
+}
@@ -14,6 +14,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
 
 import java.time.LocalDateTime;
 
@@ -42,6 +43,15 @@ class RegistrationServiceTest {
     @Mock
     private PaymentOrderService paymentOrderService;
 
+    @Mock
+    private ExamSnapshotCache examSnapshotCache;
+
+    @Mock
+    private RegisteredUserIndex registeredUserIndex;
+
+    @Mock
+    private ExamDetailCache examDetailCache;
+
     @InjectMocks
     private RegistrationService registrationService;
 
@@ -77,9 +87,9 @@ class RegistrationServiceTest {
     @Test
     void testSubmitRegistration_Success() {
         // Mock 数据
-        when(examMapper.selectById(1L)).thenReturn(mockExam);
+        when(examSnapshotCache.get(1L)).thenReturn(ExamSnapshot.from(mockExam));
         when(examSiteMapper.selectById(1L)).thenReturn(mockSite);
-        when(registrationMapper.selectByUserIdAndExamId(1L, 1L)).thenReturn(null);
+        when(registeredUserIndex.mightContain(1L, 1L)).thenReturn(false);
         when(registrationMapper.insert(any(Registration.class))).thenReturn(1);
 
         // 执行测试
@@ -91,7 +101,7 @@ class RegistrationServiceTest {
         assertTrue(result.getMessage().contains("成功"));
 
         // 验证方法调用
-        verify(examMapper, times(1)).selectById(1L);
+        verify(examSnapshotCache, times(1)).get(1L);
         verify(examSiteMapper, times(1)).selectById(1L);
         verify(registrationMapper, times(1)).insert(any(Registration.class));
     }
@@ -99,7 +109,7 @@ class RegistrationServiceTest {
     @Test
     void testSubmitRegistration_ExamNotFound() {
         // Mock 考试不存在
-        when(examMapper.selectById(1L)).thenReturn(null);
+        when(examSnapshotCache.get(1L)).thenReturn(null);
 
         // 执行测试
         Result result = registrationService.submitRegistration(mockRequest);
@@ -117,7 +127,7 @@ class RegistrationServiceTest {
     void testSubmitRegistration_ExamNotOpen() {
         // Mock 考试状态不是报名中
         mockExam.setStatus(1); // 草稿状态
-        when(examMapper.selectById(1L)).thenReturn(mockExam);
+        when(examSnapshotCache.get(1L)).thenReturn(ExamSnapshot.from(mockExam));
 
         // 执行测试
         Result result = registrationService.submitRegistration(mockRequest);
@@ -132,7 +142,7 @@ class RegistrationServiceTest {
     void testSubmitRegistration_RegistrationNotStarted() {
         // Mock 报名未开始
         mockExam.setRegistrationStart(LocalDateTime.now().plusDays(1));
-        when(examMapper.selectById(1L)).thenReturn(mockExam);
+        when(examSnapshotCache.get(1L)).thenReturn(ExamSnapshot.from(mockExam));
 
         // 执行测试
         Result result = registrationService.submitRegistration(mockRequest);
@@ -147,7 +157,7 @@ class RegistrationServiceTest {
     void testSubmitRegistration_RegistrationEnded() {
         // Mock 报名已结束
         mockExam.setRegistrationEnd(LocalDateTime.now().minusDays(1));
-        when(examMapper.selectById(1L)).thenReturn(mockExam);
+        when(examSnapshotCache.get(1L)).thenReturn(ExamSnapshot.from(mockExam));
 
         // 执行测试
         Result result = registrationService.submitRegistration(mockRequest);
@@ -164,7 +174,8 @@ class RegistrationServiceTest {
         Registration existingReg = new Registration();
         existingReg.setId(1L);
 
-        when(examMapper.selectById(1L)).thenReturn(mockExam);
+        when(examSnapshotCache.get(1L)).thenReturn(ExamSnapshot.from(mockExam));
+        when(registeredUserIndex.mightContain(1L, 1L)).thenReturn(true);
         when(registrationMapper.selectByUserIdAndExamId(1L, 1L)).thenReturn(existingReg);
 
         // 执行测试
@@ -179,13 +190,33 @@ class RegistrationServiceTest {
         verify(registrationMapper, never()).insert(any(Registration.class));
     }
 
+    @Test
+    void testSubmitRegistration_DuplicateKeyOnInsert() {
+        // Mock 内存筛查未命中（其它节点刚完成报名），由唯一索引拦截
+        when(examSnapshotCache.get(1L)).thenReturn(ExamSnapshot.from(mockExam));
+        when(registeredUserIndex.mightContain(1L, 1L)).thenReturn(false);
+        when(examSiteMapper.selectById(1L)).thenReturn(mockSite);
+        when(registrationMapper.insert(any(Registration.class)))
+                .thenThrow(new DuplicateKeyException("Duplicate entry for key 'uk_user_exam'"));
+
+        // 执行测试
+        Result result = registrationService.submitRegistration(mockRequest);
+
+        // 验证结果
+        assertNotNull(result);
+        assertEquals(500, result.getCode());
+        assertTrue(result.getMessage().contains("重复报名"));
+        verify(registrationMapper, never()).selectByUserIdAndExamId(anyLong(), anyLong());
+        verify(registeredUserIndex).add(1L, 1L);
+    }
+
     @Test
     void testSubmitRegistration_SiteFull() {
         // Mock 考点已满
         mockSite.setCurrentCount(100); // 容量已满
 
-        when(examMapper.selectById(1L)).thenReturn(mockExam);
-        when(registrationMapper.selectByUserIdAndExamId(1L, 1L)).thenReturn(null);
+        when(examSnapshotCache.get(1L)).thenReturn(ExamSnapshot.from(mockExam));
+        when(registeredUserIndex.mightContain(1L, 1L)).thenReturn(false);
         when(examSiteMapper.selectById(1L)).thenReturn(mockSite);
 
         // 执行测试
@@ -0,0 +1,70 @@
+package com.exam.service;
+
+import com.exam.entity.Exam;
+import com.exam.event.ExamChangedEvent;
+import com.exam.mapper.ExamMapper;
+import com.exam.mapper.NoticeMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * SearchIndex 单元测试
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@ExtendWith(MockitoExtension.class)
+class SearchIndexTest {
+
+    @Mock
+    private ExamMapper examMapper;
+
+    @Mock
+    private NoticeMapper noticeMapper;
+
+    @InjectMocks
+    private SearchIndex searchIndex;
+
+    @Test
+    void testRebuild_ChangesDuringRebuildSurviveSwap() {
+        Exam teacher = exam(1L, "教师资格考试");
+        Exam renamed = exam(1L, "护士执业资格考试");
+        Exam created = exam(2L, "会计专业技术资格考试");
+        when(examMapper.selectList(null)).thenReturn(Collections.singletonList(teacher));
+        when(noticeMapper.selectList(null)).thenAnswer(invocation -> {
+            // 重建读取完考试后，考试1被修改、考试2被创建
+            when(examMapper.selectById(1L)).thenReturn(renamed);
+            when(examMapper.selectById(2L)).thenReturn(created);
+            searchIndex.onExamChanged(new ExamChangedEvent(this, 1L, ExamChangedEvent.Action.UPDATED));
+            searchIndex.onExamChanged(new ExamChangedEvent(this, 2L, ExamChangedEvent.Action.CREATED));
+            return Collections.emptyList();
+        });
+
+        searchIndex.rebuild();
+
+        assertEquals(0L, searchIndex.searchExams("教师", 1, 10, false).getTotal());
+        assertEquals(1L, searchIndex.searchExams("护士", 1, 10, false).getTotal());
+        assertEquals(1L, searchIndex.searchExams("会计", 1, 10, false).getTotal());
+
+        // 重建结束后的变更直接作用于新索引
+        searchIndex.onExamChanged(new ExamChangedEvent(this, 2L, ExamChangedEvent.Action.DELETED));
+        assertEquals(0L, searchIndex.searchExams("会计", 1, 10, false).getTotal());
+    }
+
+    private static Exam exam(Long id, String name) {
+        Exam exam = new Exam();
+        exam.setId(id);
+        exam.setExamName(name);
+        exam.setExamType("资格考试");
+        exam.setStatus(2);
+        return exam;
+    }
+}
@@ -0,0 +1,217 @@
+package com.exam.service;
+
+import com.exam.dto.SeatAssignment;
+import com.exam.entity.Exam;
+import com.exam.exception.BusinessException;
+import com.exam.mapper.ExamMapper;
+import com.exam.mapper.RegistrationMapper;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * SeatAssignmentService 单元测试
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@ExtendWith(MockitoExtension.class)
+class SeatAssignmentServiceTest {
+
+    @Mock
+    private ExamMapper examMapper;
+
+    @Mock
+    private RegistrationMapper registrationMapper;
+
+    @Mock
+    private TicketGenerationService ticketGenerationService;
+
+    @InjectMocks
+    private SeatAssignmentService seatAssignmentService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(seatAssignmentService, "roomSize", 30);
+        ReflectionTestUtils.setField(seatAssignmentService, "batchSize", 100);
+        ReflectionTestUtils.setField(seatAssignmentService, "parallelism", 2);
+        seatAssignmentService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        seatAssignmentService.destroy();
+    }
+
+    @Test
+    void testArrange_UniqueSeatsWithinRoomSize() {
+        List<SeatAssignment> candidates = candidates(5L, 1, 95);
+
+        SeatAssignmentService.arrange(1L, candidates, 30);
+
+        Set<String> seats = new HashSet<>();
+        for (SeatAssignment candidate : candidates) {
+            assertTrue(seats.add(candidate.getExamRoom() + "-" + candidate.getSeatNo()));
+            int seat = Integer.parseInt(candidate.getSeatNo());
+            assertTrue(seat >= 1 && seat <= 30);
+        }
+        assertTrue(seats.contains("004-05"));
+        assertFalse(seats.contains("004-06"));
+    }
+
+    @Test
+    void testArrange_RepeatableAndShuffled() {
+        List<SeatAssignment> first = candidates(5L, 1, 60);
+        List<SeatAssignment> second = candidates(5L, 1, 60);
+
+        assertEquals(60, SeatAssignmentService.arrange(1L, first, 30).size());
+        SeatAssignmentService.arrange(1L, second, 30);
+
+        boolean shuffled = false;
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(seat(first.get(i)), seat(second.get(i)));
+            shuffled |= !seat(first.get(i)).equals(String.format("%03d-%02d", i / 30 + 1, i % 30 + 1));
+        }
+        assertTrue(shuffled);
+    }
+
+    @Test
+    void testArrange_KeepsExistingSeatsAndFillsFreedSeatsFirst() {
+        List<SeatAssignment> initial = candidates(5L, 1, 60);
+        SeatAssignmentService.arrange(1L, initial, 30);
+        Map<Long, String> before = new HashMap<>();
+        for (SeatAssignment candidate : initial) {
+            before.put(candidate.getId(), seat(candidate));
+        }
+
+        // 报名2、3退费，新增报名61~63
+        List<SeatAssignment> rerun = new ArrayList<>();
+        for (SeatAssignment candidate : candidates(5L, 1, 60)) {
+            if (candidate.getId() == 2L || candidate.getId() == 3L) {
+                continue;
+            }
+            String[] seat = before.get(candidate.getId()).split("-");
+            candidate.setExamRoom(seat[0]);
+            candidate.setSeatNo(seat[1]);
+            rerun.add(candidate);
+        }
+        rerun.addAll(candidates(5L, 61, 3));
+
+        List<SeatAssignment> changed = SeatAssignmentService.arrange(1L, rerun, 30);
+
+        assertEquals(3, changed.size());
+        Set<String> seats = new HashSet<>();
+        for (SeatAssignment candidate : rerun) {
+            assertTrue(seats.add(seat(candidate)));
+            if (candidate.getId() <= 60) {
+                assertEquals(before.get(candidate.getId()), seat(candidate));
+            }
+        }
+        // 新报名先填补释放的两个座位，第三人排到末尾
+        Set<String> newSeats = new HashSet<>();
+        for (SeatAssignment candidate : changed) {
+            newSeats.add(seat(candidate));
+        }
+        assertTrue(newSeats.contains(before.get(2L)));
+        assertTrue(newSeats.contains(before.get(3L)));
+        assertTrue(newSeats.contains("003-01"));
+
+        // 再次执行没有变化
+        assertTrue(SeatAssignmentService.arrange(1L, rerun, 30).isEmpty());
+    }
+
+    @Test
+    void testAssign_BatchesPerSite() {
+        Exam exam = new Exam();
+        exam.setId(1L);
+        exam.setStatus(4);
+        when(examMapper.selectById(1L)).thenReturn(exam);
+        List<SeatAssignment> rows = new ArrayList<>(candidates(5L, 1, 250));
+        rows.addAll(candidates(6L, 1001, 40));
+        doAnswer(invocation -> {
+            ResultHandler<SeatAssignment> handler = invocation.getArgument(1);
+            for (SeatAssignment row : rows) {
+                handler.handleResult(context(row));
+            }
+            return null;
+        }).when(registrationMapper).streamSeatCandidates(eq(1L), any());
+
+        Map<String, Object> result = seatAssignmentService.assign(1L);
+
+        assertEquals(2, result.get("siteCount"));
+        assertEquals(290, result.get("assignedCount"));
+        // 考点5: 100 + 100 + 50，考点6: 40
+        verify(registrationMapper, times(4)).batchUpdateSeats(anyList());
+        verify(registrationMapper).clearIneligibleSeats(1L);
+        verify(ticketGenerationService).startAfterSeatAssignment(1L);
+    }
+
+    @Test
+    void testAssign_RegistrationNotClosed() {
+        Exam exam = new Exam();
+        exam.setId(1L);
+        exam.setStatus(3);
+        when(examMapper.selectById(1L)).thenReturn(exam);
+
+        assertThrows(BusinessException.class, () -> seatAssignmentService.assign(1L));
+        verify(registrationMapper, never()).batchUpdateSeats(anyList());
+    }
+
+    private static List<SeatAssignment> candidates(Long siteId, long firstId, int count) {
+        List<SeatAssignment> candidates = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            SeatAssignment candidate = new SeatAssignment();
+            candidate.setId(firstId + i);
+            candidate.setExamSiteId(siteId);
+            candidates.add(candidate);
+        }
+        return candidates;
+    }
+
+    private static String seat(SeatAssignment candidate) {
+        return candidate.getExamRoom() + "-" + candidate.getSeatNo();
+    }
+
+    private static ResultContext<SeatAssignment> context(SeatAssignment row) {
+        return new ResultContext<SeatAssignment>() {
+            @Override
+            public SeatAssignment getResultObject() {
+                return row;
+            }
+
+            @Override
+            public int getResultCount() {
+                return 0;
+            }
+
+            @Override
+            public boolean isStopped() {
+                return false;
+            }
+
+            @Override
+            public void stop() {
+            }
+        };
+    }
+}
@@ -0,0 +1,78 @@
+package com.exam.service;
+
+import com.exam.mapper.RegistrationMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+/**
+ * TicketDownloadCounter 单元测试
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@ExtendWith(MockitoExtension.class)
+class TicketDownloadCounterTest {
+
+    @Mock
+    private RegistrationMapper registrationMapper;
+
+    @InjectMocks
+    private TicketDownloadCounter ticketDownloadCounter;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(ticketDownloadCounter, "batchSize", 500);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_WritesDeltasOnce() {
+        ticketDownloadCounter.increment(1L);
+        ticketDownloadCounter.increment(1L);
+        ticketDownloadCounter.increment(2L);
+
+        ticketDownloadCounter.flush();
+
+        ArgumentCaptor<Map<Long, Long>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(registrationMapper).batchIncrementDownloadCount(captor.capture());
+        assertEquals(2L, captor.getValue().get(1L));
+        assertEquals(1L, captor.getValue().get(2L));
+        assertEquals(0, ticketDownloadCounter.getStats().get("pendingRegistrations"));
+
+        // 没有新的下载时不再写库
+        ticketDownloadCounter.flush();
+        verifyNoMoreInteractions(registrationMapper);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_FailureKeepsDeltas() {
+        ticketDownloadCounter.increment(1L);
+        when(registrationMapper.batchIncrementDownloadCount(anyMap()))
+                .thenThrow(new RuntimeException("Lock wait timeout"))
+                .thenReturn(1);
+
+        ticketDownloadCounter.flush();
+        assertEquals(1L, ticketDownloadCounter.getStats().get("pendingDownloads"));
+
+        ticketDownloadCounter.increment(1L);
+        ticketDownloadCounter.flush();
+
+        ArgumentCaptor<Map<Long, Long>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(registrationMapper, times(2)).batchIncrementDownloadCount(captor.capture());
+        assertEquals(2L, captor.getValue().get(1L));
+        assertEquals(2L, ticketDownloadCounter.getStats().get("writtenCount"));
+    }
+}
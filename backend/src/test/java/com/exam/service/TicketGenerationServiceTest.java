@@ -0,0 +1,170 @@
+package com.exam.service;
+
+import com.exam.dto.TicketData;
+import com.exam.entity.Exam;
+import com.exam.exception.BusinessException;
+import com.exam.mapper.ExamMapper;
+import com.exam.mapper.RegistrationMapper;
+import com.exam.utils.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * TicketGenerationService 单元测试
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@ExtendWith(MockitoExtension.class)
+class TicketGenerationServiceTest {
+
+    @Mock
+    private ExamMapper examMapper;
+
+    @Mock
+    private RegistrationMapper registrationMapper;
+
+    @Mock
+    private FileUtils fileUtils;
+
+    @InjectMocks
+    private TicketGenerationService ticketGenerationService;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(ticketGenerationService, "batchSize", 2);
+        ReflectionTestUtils.setField(ticketGenerationService, "renderThreads", 2);
+        ticketGenerationService.init();
+
+        Exam exam = new Exam();
+        exam.setId(1L);
+        exam.setExamName("2025年教师资格考试");
+        exam.setExamDate(LocalDate.of(2025, 3, 9));
+        exam.setExamTime("09:00-11:00");
+        when(examMapper.selectById(1L)).thenReturn(exam);
+        when(fileUtils.getTicketDirectory(1L)).thenReturn(tempDir);
+        lenient().when(fileUtils.getTicketFile(eq(1L), anyLong()))
+                .thenAnswer(invocation -> tempDir.resolve(invocation.getArgument(1) + ".pdf"));
+        when(registrationMapper.countTicketCandidates(1L)).thenReturn(3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ticketGenerationService.destroy();
+    }
+
+    @Test
+    void testStart_RendersAllInBatches() throws Exception {
+        when(registrationMapper.selectTicketBatch(1L, 0L, 2)).thenReturn(list(data(11L), data(12L)));
+        when(registrationMapper.selectTicketBatch(1L, 12L, 2)).thenReturn(list(data(13L)));
+        when(registrationMapper.selectTicketBatch(1L, 13L, 2)).thenReturn(Collections.emptyList());
+
+        ticketGenerationService.start(1L, true);
+        Map<String, Object> progress = await();
+
+        assertEquals("COMPLETED", progress.get("state"));
+        assertEquals(3, progress.get("rendered"));
+        for (long id = 11; id <= 13; id++) {
+            byte[] pdf = Files.readAllBytes(tempDir.resolve(id + ".pdf"));
+            assertTrue(new String(pdf, 0, 8, StandardCharsets.US_ASCII).startsWith("%PDF-1.4"));
+        }
+        assertFalse(Files.exists(tempDir.resolve("11.pdf.tmp")));
+        assertEquals("13", new String(Files.readAllBytes(tempDir.resolve(".progress")), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void testStart_ResumesFromProgressFile() throws Exception {
+        Files.write(tempDir.resolve(".progress"), "12".getBytes(StandardCharsets.US_ASCII));
+        when(registrationMapper.selectTicketBatch(1L, 12L, 2)).thenReturn(list(data(13L)));
+        when(registrationMapper.selectTicketBatch(1L, 13L, 2)).thenReturn(Collections.emptyList());
+
+        ticketGenerationService.start(1L, false);
+        Map<String, Object> progress = await();
+
+        assertEquals("COMPLETED", progress.get("state"));
+        assertEquals(12L, progress.get("resumedAfterId"));
+        assertEquals(1, progress.get("rendered"));
+        verify(registrationMapper, never()).selectTicketBatch(1L, 0L, 2);
+    }
+
+    @Test
+    void testStartAfterSeatAssignment_QueuedWhileRunning() throws Exception {
+        ReflectionTestUtils.setField(ticketGenerationService, "autoGenerate", true);
+        CountDownLatch firstBatch = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(registrationMapper.selectTicketBatch(1L, 0L, 2)).thenAnswer(invocation -> {
+            firstBatch.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return list(data(11L));
+        });
+        when(registrationMapper.selectTicketBatch(1L, 11L, 2)).thenReturn(Collections.emptyList());
+
+        ticketGenerationService.start(1L, true);
+        assertTrue(firstBatch.await(5, TimeUnit.SECONDS));
+        // 生成期间座位重新分配：不报错，登记待重新生成
+        ticketGenerationService.startAfterSeatAssignment(1L);
+        assertEquals(true, ticketGenerationService.getProgress(1L).get("restartPending"));
+        assertThrows(BusinessException.class, () -> ticketGenerationService.start(1L, true));
+        release.countDown();
+
+        verify(registrationMapper, timeout(5000).times(2)).selectTicketBatch(1L, 0L, 2);
+        Map<String, Object> progress = await();
+        assertEquals("COMPLETED", progress.get("state"));
+        assertEquals(false, progress.get("restartPending"));
+    }
+
+    private Map<String, Object> await() throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            Map<String, Object> progress = ticketGenerationService.getProgress(1L);
+            if (!"RUNNING".equals(progress.get("state"))) {
+                return progress;
+            }
+            Thread.sleep(20);
+        }
+        fail("准考证生成超时");
+        return null;
+    }
+
+    private static List<TicketData> list(TicketData... data) {
+        List<TicketData> list = new ArrayList<>();
+        Collections.addAll(list, data);
+        return list;
+    }
+
+    private static TicketData data(Long registrationId) {
+        TicketData data = new TicketData();
+        data.setRegistrationId(registrationId);
+        data.setAdmissionTicketNo("00010001" + String.format("%06d", registrationId));
+        data.setRealName("张三");
+        data.setSiteName("北京市第一中学");
+        data.setExamRoom("001");
+        data.setSeatNo("05");
+        return data;
+    }
+}
@@ -0,0 +1,82 @@
+package com.exam.service;
+
+import com.exam.mapper.SysUserMapper;
+import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * UsernameBloomFilter 单元测试
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+@ExtendWith(MockitoExtension.class)
+class UsernameBloomFilterTest {
+
+    @Mock
+    private SysUserMapper userMapper;
+
+    @InjectMocks
+    private UsernameBloomFilter usernameBloomFilter;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(usernameBloomFilter, "minCapacity", 1000L);
+        ReflectionTestUtils.setField(usernameBloomFilter, "fpp", 0.001);
+    }
+
+    @Test
+    void testAdd_DuringRebuildSurvivesSwap() {
+        when(userMapper.selectCount(null)).thenReturn(1L);
+        doAnswer(invocation -> {
+            stream(invocation.getArgument(0), "alice");
+            return null;
+        }).doAnswer(invocation -> {
+            stream(invocation.getArgument(0), "alice");
+            // 重建扫描期间另一请求注册成功
+            usernameBloomFilter.add("bob");
+            return null;
+        }).when(userMapper).streamUsernames(any());
+
+        usernameBloomFilter.rebuild();
+        assertFalse(usernameBloomFilter.mightExist("bob"));
+
+        usernameBloomFilter.rebuild();
+
+        assertTrue(usernameBloomFilter.mightExist("alice"));
+        assertTrue(usernameBloomFilter.mightExist("bob"));
+    }
+
+    @Test
+    void testAdd_OverflowRebuiltByScheduler() {
+        when(userMapper.selectCount(null)).thenReturn(0L);
+        usernameBloomFilter.rebuild();
+        usernameBloomFilter.rebuildIfOverflowed();
+        verify(userMapper, times(1)).streamUsernames(any());
+
+        for (int i = 0; i <= 1000; i++) {
+            usernameBloomFilter.add("user" + i);
+        }
+        usernameBloomFilter.rebuildIfOverflowed();
+        usernameBloomFilter.rebuildIfOverflowed();
+
+        verify(userMapper, times(2)).streamUsernames(any());
+    }
+
+    private static void stream(ResultHandler<String> handler, String username) {
+        DefaultResultContext<String> context = new DefaultResultContext<>();
+        context.nextResultObject(username);
+        handler.handleResult(context);
+    }
+}
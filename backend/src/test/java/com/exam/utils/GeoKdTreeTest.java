@@ -0,0 +1,65 @@
+package com.exam.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * GeoKdTree 单元测试
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+class GeoKdTreeTest {
+
+    @Test
+    void testNearest_MatchesBruteForce() {
+        Random random = new Random(7);
+        int n = 500;
+        double[] lats = new double[n];
+        double[] lons = new double[n];
+        for (int i = 0; i < n; i++) {
+            lats[i] = 18 + random.nextDouble() * 35;
+            lons[i] = 73 + random.nextDouble() * 62;
+        }
+        GeoKdTree tree = new GeoKdTree(lats, lons);
+
+        for (int q = 0; q < 50; q++) {
+            double lat = 18 + random.nextDouble() * 35;
+            double lon = 73 + random.nextDouble() * 62;
+            List<GeoKdTree.Neighbor> result = tree.nearest(lat, lon, 5, index -> index % 3 != 0);
+
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                if (i % 3 != 0) {
+                    expected.add(i);
+                }
+            }
+            expected.sort(Comparator.comparingDouble(i -> GeoKdTree.distanceKm(lat, lon, lats[i], lons[i])));
+
+            assertEquals(5, result.size());
+            for (int i = 0; i < 5; i++) {
+                assertEquals((int) expected.get(i), result.get(i).getIndex());
+            }
+        }
+    }
+
+    @Test
+    void testDistance_BeijingToShanghai() {
+        double km = GeoKdTree.distanceKm(39.9042, 116.4074, 31.2304, 121.4737);
+        assertEquals(1067, km, 5);
+    }
+
+    @Test
+    void testNearest_FilterAndEmpty() {
+        GeoKdTree tree = new GeoKdTree(new double[]{39.9, 31.2}, new double[]{116.4, 121.5});
+        assertTrue(tree.nearest(39.9, 116.4, 3, index -> false).isEmpty());
+        assertEquals(2, tree.nearest(39.9, 116.4, 3, null).size());
+        assertTrue(new GeoKdTree(new double[0], new double[0]).nearest(0, 0, 3, null).isEmpty());
+    }
+}
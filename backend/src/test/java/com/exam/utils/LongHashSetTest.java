@@ -0,0 +1,56 @@
+package com.exam.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LongHashSet 单元测试
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+class LongHashSetTest {
+
+    @Test
+    void testAddContainsRemove() {
+        LongHashSet set = new LongHashSet();
+        assertTrue(set.add(42L));
+        assertFalse(set.add(42L));
+        assertTrue(set.add(0L));
+        assertTrue(set.contains(42L));
+        assertTrue(set.contains(0L));
+        assertFalse(set.contains(7L));
+        assertEquals(2, set.size());
+
+        assertTrue(set.remove(42L));
+        assertFalse(set.remove(42L));
+        assertTrue(set.remove(0L));
+        assertTrue(set.isEmpty());
+    }
+
+    @Test
+    void testRandomOperations_MatchesHashSet() {
+        LongHashSet set = new LongHashSet(4);
+        Set<Long> expected = new HashSet<>();
+        Random random = new Random(20241020L);
+        for (int i = 0; i < 200_000; i++) {
+            // 取值范围较小，制造大量冲突与删除后的探测链回填
+            long value = random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), set.remove(value));
+            } else {
+                assertEquals(expected.add(value), set.add(value));
+            }
+        }
+
+        assertEquals(expected.size(), set.size());
+        for (long value = 0; value < 5_000; value++) {
+            assertEquals(expected.contains(value), set.contains(value), "value=" + value);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.exam.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * NgramIndex 单元测试
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+class NgramIndexTest {
+
+    @Test
+    void testSearch_ChineseSubstring() {
+        NgramIndex index = new NgramIndex();
+        index.put(1L, new NgramIndex.Field("2025年成人高考", 3F), new NgramIndex.Field("成人高考", 2F));
+        index.put(2L, new NgramIndex.Field("2025年自学考试", 3F), new NgramIndex.Field("自学考试", 2F));
+        index.put(3L, new NgramIndex.Field("高等教育自学考试报名须知", 3F));
+
+        assertEquals(Collections.singletonList(1L), index.search("成人高考", null));
+        // 单字检索
+        assertEquals(Arrays.asList(1L, 3L), sorted(index.search("高", null)));
+        // 所有词元都需命中
+        assertTrue(index.search("成人自学", null).isEmpty());
+        // 标题与类型同时命中的文档排在前面
+        assertEquals(Arrays.asList(2L, 3L), index.search("自学考试", null));
+    }
+
+    @Test
+    void testPut_ReplaceAndRemove() {
+        NgramIndex index = new NgramIndex();
+        index.put(1L, new NgramIndex.Field("英语四级考试", 3F));
+        index.put(1L, new NgramIndex.Field("英语六级考试", 3F));
+
+        assertTrue(index.search("四级", null).isEmpty());
+        assertEquals(Collections.singletonList(1L), index.search("六级", null));
+
+        index.remove(1L);
+        assertTrue(index.search("六级", null).isEmpty());
+        assertEquals(0, index.size());
+        assertEquals(0, index.termCount());
+    }
+
+    @Test
+    void testSearch_HtmlFieldAndFilter() {
+        NgramIndex index = new NgramIndex();
+        index.put(1L, NgramIndex.Field.html("<p>请携带<strong>身份证</strong>原件</p>", 1F));
+        index.put(2L, NgramIndex.Field.html("<div class=\"strong\">身份证复印件</div>", 1F));
+
+        assertEquals(Arrays.asList(1L, 2L), sorted(index.search("身份证", null)));
+        assertTrue(index.search("strong", null).isEmpty());
+        assertEquals(Collections.singletonList(2L), index.search("身份证", id -> id == 2L));
+    }
+
+    private static List<Long> sorted(List<Long> ids) {
+        ids.sort(null);
+        return ids;
+    }
+}
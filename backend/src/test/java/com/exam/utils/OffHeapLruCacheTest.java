@@ -0,0 +1,71 @@
+package com.exam.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * OffHeapLruCache 单元测试
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+class OffHeapLruCacheTest {
+
+    @Test
+    void testGet_ReturnsIndependentReadOnlyViews() {
+        OffHeapLruCache<String> cache = new OffHeapLruCache<>(1024, 1024);
+        cache.put("notice:1", bytes("{\"code\":200}"), 7L, Long.MAX_VALUE);
+
+        OffHeapLruCache.Entry entry = cache.get("notice:1", System.currentTimeMillis());
+        assertNotNull(entry);
+        assertEquals(7L, entry.getVersion());
+        ByteBuffer first = entry.content();
+        ByteBuffer second = entry.content();
+        assertTrue(first.isDirect());
+        assertTrue(first.isReadOnly());
+        first.get(new byte[first.remaining()]);
+        assertEquals("{\"code\":200}", string(second));
+    }
+
+    @Test
+    void testPut_EvictsLeastRecentlyUsedWithinBudget() {
+        OffHeapLruCache<String> cache = new OffHeapLruCache<>(30, 30);
+        cache.put("a", new byte[10], 1L, Long.MAX_VALUE);
+        cache.put("b", new byte[10], 1L, Long.MAX_VALUE);
+        cache.put("c", new byte[10], 1L, Long.MAX_VALUE);
+        // 访问 a，使 b 成为最久未使用
+        cache.get("a", 0L);
+        cache.put("d", new byte[10], 1L, Long.MAX_VALUE);
+
+        assertNull(cache.get("b", 0L));
+        assertNotNull(cache.get("a", 0L));
+        assertEquals(30, cache.getUsedBytes());
+        assertEquals(1, cache.getEvictCount());
+    }
+
+    @Test
+    void testPut_OversizedAndExpiredEntriesNotServed() {
+        OffHeapLruCache<String> cache = new OffHeapLruCache<>(100, 20);
+        OffHeapLruCache.Entry oversized = cache.put("big", new byte[50], 1L, Long.MAX_VALUE);
+        assertEquals(50, oversized.size());
+        assertEquals(0, cache.size());
+
+        cache.put("short", new byte[5], 1L, 1000L);
+        assertNull(cache.get("short", 1000L));
+        assertEquals(0, cache.getUsedBytes());
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
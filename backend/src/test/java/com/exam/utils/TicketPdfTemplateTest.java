@@ -0,0 +1,85 @@
+package com.exam.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TicketPdfTemplate 单元测试
+ *
+ * @author system
+ * @since 2024-10-20
+ */
+class TicketPdfTemplateTest {
+
+    private final TicketPdfTemplate template = TicketPdfTemplate.builder(595, 842)
+            .rect(40, 400, 515, 400, 1)
+            .text(250, 760, 22, "准考证")
+            .text(60, 700, 12, "姓名：")
+            .field(120, 700, 12, "realName")
+            .text(60, 670, 12, "座位号：")
+            .field(120, 670, 12, "seatNo")
+            .build();
+
+    @Test
+    void testRender_OffsetsAndLength() {
+        Map<String, String> values = new HashMap<>();
+        values.put("realName", "张三");
+        values.put("seatNo", "07");
+        ByteBuffer buffer = ByteBuffer.allocate(template.estimateSize(64));
+
+        template.render(values, buffer);
+        String pdf = new String(buffer.array(), 0, buffer.limit(), StandardCharsets.ISO_8859_1);
+
+        assertTrue(pdf.startsWith("%PDF-1.4\n"));
+        assertTrue(pdf.endsWith("%%EOF\n"));
+        // 张三 = 5F20 4E09
+        assertTrue(pdf.contains("<5F204E09> Tj"));
+        assertTrue(pdf.contains("<00300037> Tj"));
+
+        int xref = Integer.parseInt(match(pdf, "startxref\n(\\d+)\n"));
+        assertTrue(pdf.startsWith("xref\n", xref));
+
+        // 每个对象的 xref 偏移量指向对象头
+        Matcher entries = Pattern.compile("(\\d{10}) 00000 n \n").matcher(pdf.substring(xref));
+        int object = 1;
+        while (entries.find()) {
+            int offset = Integer.parseInt(entries.group(1));
+            assertTrue(pdf.startsWith(object + " 0 obj\n", offset), "object " + object);
+            object++;
+        }
+        assertEquals(8, object);
+
+        int length = Integer.parseInt(match(pdf, "/Length (\\d+)>>"));
+        int streamStart = pdf.indexOf("stream\n") + "stream\n".length();
+        assertEquals("\nendstream", pdf.substring(streamStart + length, streamStart + length + 10));
+    }
+
+    @Test
+    void testRender_ReusesBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocate(template.estimateSize(64));
+        Map<String, String> values = new HashMap<>();
+        values.put("realName", "一个很长很长的名字");
+        template.render(values, buffer);
+        int longSize = buffer.limit();
+
+        values.put("realName", "李");
+        template.render(values, buffer);
+
+        assertTrue(buffer.limit() < longSize);
+        assertEquals(2, template.getFields().size());
+    }
+
+    private static String match(String text, String regex) {
+        Matcher matcher = Pattern.compile(regex).matcher(text);
+        assertTrue(matcher.find());
+        return matcher.group(1);
+    }
+}
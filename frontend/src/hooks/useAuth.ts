@@ -1,6 +1,6 @@
 import { useState, useEffect, useCallback } from 'react';
 import { message } from 'antd';
-import { login, getUserInfo } from '../services/user';
+import { login, logoutApi, getUserInfo } from '../services/user';
 import { TokenUtils, UserUtils, PermissionUtils, logout } from '../utils/auth';
 import type { User, LoginRequest } from '../types';
 
@@ -43,10 +43,11 @@ export const useAuth = () => {
     setLoading(true);
     try {
       const response = await login(loginData);
-      const { token, userInfo } = response.data;
+      const { accessToken, refreshToken } = response.data;
       
-      // 保存token和用户信息
-      TokenUtils.setToken(token);
+      // 保存访问令牌与刷新令牌，登录响应不含用户信息，单独获取
+      TokenUtils.setTokens(accessToken, refreshToken);
+      const userInfo = (await getUserInfo()).data;
       UserUtils.setUserInfo(userInfo);
       
       setUser(userInfo);
@@ -55,6 +56,7 @@ export const useAuth = () => {
       message.success('登录成功');
       return { success: true, user: userInfo };
     } catch (error) {
+      logout();
       message.error('登录失败');
       return { success: false, error };
     } finally {
@@ -64,6 +66,11 @@ export const useAuth = () => {
 
   // 登出
   const handleLogout = useCallback(() => {
+    // 通知服务端吊销令牌，失败不影响本地退出
+    const accessToken = TokenUtils.getToken();
+    if (accessToken) {
+      logoutApi(accessToken, TokenUtils.getRefreshToken()).catch(() => undefined);
+    }
     logout();
     setUser(null);
     setIsLoggedIn(false);
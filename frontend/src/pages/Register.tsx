@@ -2,7 +2,7 @@ import React, { useState } from 'react';
 import { Form, Input, Button, Card, message, Space } from 'antd';
 import { LockOutlined, MobileOutlined, SafetyOutlined } from '@ant-design/icons';
 import { useNavigate } from 'react-router-dom';
-import { sendSmsCode } from '../services/user';
+import { checkUsername, sendSmsCode } from '../services/user';
 import type { RegisterRequest } from '../types';
 
 const Register: React.FC = () => {
@@ -89,9 +89,29 @@ const Register: React.FC = () => {
         >
           <Form.Item
             name="username"
+            validateTrigger="onBlur"
+            validateFirst
             rules={[
               { required: true, message: '请输入手机号' },
-              { pattern: /^1[3-9]\d{9}$/, message: '请输入正确的手机号格式' }
+              { pattern: /^1[3-9]\d{9}$/, message: '请输入正确的手机号格式' },
+              {
+                // 失焦时探测手机号是否已注册，接口异常时不阻塞提交，由注册接口最终校验
+                validator: async (_, value) => {
+                  if (!value) {
+                    return;
+                  }
+                  let available = true;
+                  try {
+                    const response = await checkUsername(value);
+                    available = response.data?.available !== false;
+                  } catch (error) {
+                    console.error('Check username error:', error);
+                  }
+                  if (!available) {
+                    throw new Error('该手机号已注册');
+                  }
+                },
+              },
             ]}
           >
             <Input
@@ -1,10 +1,12 @@
-import axios, { type AxiosInstance, type AxiosResponse } from 'axios';
+import axios, { type AxiosInstance, type AxiosResponse, type InternalAxiosRequestConfig } from 'axios';
 import { message } from 'antd';
-import type { ApiResponse } from '../types';
+import type { ApiResponse, TokenResponse } from '../types';
+
+const baseURL = import.meta.env.VITE_API_BASE_URL || 'http://localhost:8080/api/v1';
 
 // 创建axios实例
 const api: AxiosInstance = axios.create({
-  baseURL: import.meta.env.VITE_API_BASE_URL || 'http://localhost:8080/api/v1',
+  baseURL,
   timeout: 10000,
   headers: {
     'Content-Type': 'application/json',
@@ -26,6 +28,44 @@ api.interceptors.request.use(
   }
 );
 
+// 登录、刷新、退出接口本身的401不触发刷新
+const AUTH_URLS = ['/users/login', '/users/refresh-token', '/users/logout'];
+
+// 同一时刻只发起一次刷新，并发的401请求共用同一个结果
+let refreshing: Promise<string> | null = null;
+
+const refreshAccessToken = (): Promise<string> => {
+  if (!refreshing) {
+    const refreshToken = localStorage.getItem('refreshToken');
+    refreshing = (
+      refreshToken
+        ? // 使用独立实例，避免经过本拦截器形成递归
+          axios.post<ApiResponse<TokenResponse>>(`${baseURL}/users/refresh-token`, { refreshToken })
+        : Promise.reject(new Error('缺少刷新令牌'))
+    )
+      .then(({ data }) => {
+        if (data.code !== 200 || !data.data) {
+          throw new Error(data.message || '刷新令牌失败');
+        }
+        localStorage.setItem('token', data.data.accessToken);
+        localStorage.setItem('refreshToken', data.data.refreshToken);
+        return data.data.accessToken;
+      })
+      .finally(() => {
+        refreshing = null;
+      });
+  }
+  return refreshing;
+};
+
+const redirectToLogin = () => {
+  message.error('登录已过期，请重新登录');
+  localStorage.removeItem('token');
+  localStorage.removeItem('refreshToken');
+  localStorage.removeItem('userInfo');
+  window.location.href = '/login';
+};
+
 // 响应拦截器
 api.interceptors.response.use(
   (response: AxiosResponse<ApiResponse>) => {
@@ -39,18 +79,34 @@ api.interceptors.response.use(
     
     return response;
   },
-  (error) => {
+  async (error) => {
     const { response } = error;
+    const config = error.config as (InternalAxiosRequestConfig & { _retried?: boolean }) | undefined;
     
     if (response) {
       const { status, data } = response;
       
       switch (status) {
         case 401:
-          message.error('登录已过期，请重新登录');
-          localStorage.removeItem('token');
-          localStorage.removeItem('userInfo');
-          window.location.href = '/login';
+          if (AUTH_URLS.includes(config?.url ?? '')) {
+            // 退出时令牌已失效无需提示
+            if (config?.url !== '/users/logout') {
+              message.error(data?.message || '认证失败');
+            }
+            break;
+          }
+          // 访问令牌过期：用刷新令牌换取新令牌后重放原请求，每个请求只重放一次
+          if (config && !config._retried) {
+            config._retried = true;
+            try {
+              const accessToken = await refreshAccessToken();
+              config.headers.Authorization = `Bearer ${accessToken}`;
+              return api(config);
+            } catch {
+              // 刷新失败，回到登录页
+            }
+          }
+          redirectToLogin();
           break;
         case 403:
           message.error('没有权限访问该资源');
@@ -0,0 +1,121 @@
+import api from './api';
+import type { ApiResponse } from '../types';
+
+/**
+ * 文件上传相关API（分片断点续传）
+ */
+
+// ==================== 类型定义 ====================
+
+export interface ChunkUploadStatus {
+  uploadId: string;
+  fileName: string;
+  fileSize: number;
+  chunkSize: number;
+  chunkCount: number;
+  receivedCount: number;
+  missingChunks: number[];
+  filePath?: string;
+}
+
+export interface ChunkUploadOptions {
+  type: 'material' | 'exam';
+  examId?: number;
+  /** 上次未完成的上传ID，传入时只补传缺失的分片 */
+  uploadId?: string;
+  /** 单个分片的最大重试次数 */
+  retries?: number;
+  onProgress?: (status: ChunkUploadStatus) => void;
+}
+
+// ==================== API ====================
+
+export const initChunkedUpload = (data: {
+  type: string;
+  fileName: string;
+  fileSize: number;
+  examId?: number;
+  sha256?: string;
+}): Promise<ApiResponse<ChunkUploadStatus>> => {
+  return api.post('/files/chunked', data);
+};
+
+export const getChunkedUpload = (uploadId: string): Promise<ApiResponse<ChunkUploadStatus>> => {
+  return api.get(`/files/chunked/${uploadId}`);
+};
+
+export const uploadChunk = (
+  uploadId: string,
+  index: number,
+  chunk: Blob,
+  sha256?: string
+): Promise<ApiResponse<ChunkUploadStatus>> => {
+  return api.put(`/files/chunked/${uploadId}/${index}`, chunk, {
+    headers: {
+      'Content-Type': 'application/octet-stream',
+      ...(sha256 ? { 'X-Chunk-Sha256': sha256 } : {}),
+    },
+    timeout: 60000,
+  });
+};
+
+export const completeChunkedUpload = (uploadId: string): Promise<ApiResponse<ChunkUploadStatus>> => {
+  return api.post(`/files/chunked/${uploadId}/complete`);
+};
+
+// ==================== 工具函数 ====================
+
+const sha256Hex = async (data: Blob): Promise<string | undefined> => {
+  // crypto.subtle 仅在 HTTPS 或 localhost 下可用，不可用时不做校验
+  if (!window.crypto?.subtle) {
+    return undefined;
+  }
+  const digest = await window.crypto.subtle.digest('SHA-256', await data.arrayBuffer());
+  return Array.from(new Uint8Array(digest))
+    .map((b) => b.toString(16).padStart(2, '0'))
+    .join('');
+};
+
+/**
+ * 分片上传文件，返回文件相对路径
+ * 每个分片失败后单独重试；传入上次的 uploadId 可在网络中断或页面刷新后续传
+ */
+export const uploadFileInChunks = async (file: File, options: ChunkUploadOptions): Promise<string> => {
+  const retries = options.retries ?? 3;
+  let status: ChunkUploadStatus;
+  if (options.uploadId) {
+    status = (await getChunkedUpload(options.uploadId)).data;
+  } else {
+    status = (
+      await initChunkedUpload({
+        type: options.type,
+        fileName: file.name,
+        fileSize: file.size,
+        examId: options.examId,
+        sha256: await sha256Hex(file),
+      })
+    ).data;
+  }
+  options.onProgress?.(status);
+
+  for (const index of status.missingChunks) {
+    const start = index * status.chunkSize;
+    const chunk = file.slice(start, Math.min(file.size, start + status.chunkSize));
+    const checksum = await sha256Hex(chunk);
+    for (let attempt = 0; ; attempt++) {
+      try {
+        status = (await uploadChunk(status.uploadId, index, chunk, checksum)).data;
+        break;
+      } catch (error) {
+        if (attempt >= retries) {
+          throw error;
+        }
+        await new Promise((resolve) => setTimeout(resolve, 1000 * 2 ** attempt));
+      }
+    }
+    options.onProgress?.(status);
+  }
+
+  status = (await completeChunkedUpload(status.uploadId)).data;
+  return status.filePath as string;
+};
@@ -1,16 +1,29 @@
 import api from './api';
-import type { User, LoginRequest, RegisterRequest, ApiResponse } from '../types';
+import type { User, LoginRequest, RegisterRequest, ApiResponse, TokenResponse } from '../types';
 
 // 用户登录
-export const login = (data: LoginRequest): Promise<ApiResponse<{ token: string; userInfo: User }>> => {
+export const login = (data: LoginRequest): Promise<ApiResponse<TokenResponse>> => {
   return api.post('/users/login', data);
 };
 
+// 退出登录（吊销当前访问令牌与刷新令牌）
+export const logoutApi = (accessToken: string, refreshToken: string | null): Promise<ApiResponse> => {
+  // 显式携带令牌：调用方随后会立即清除本地存储
+  return api.post('/users/logout', refreshToken ? { refreshToken } : undefined, {
+    headers: { Authorization: `Bearer ${accessToken}` },
+  });
+};
+
 // 用户注册
 export const register = (data: RegisterRequest): Promise<ApiResponse<{ token: string; userInfo: User }>> => {
   return api.post('/users/register', data);
 };
 
+// 检查用户名是否可注册
+export const checkUsername = (username: string): Promise<ApiResponse<{ username: string; available: boolean }>> => {
+  return api.get('/users/check-username', { params: { username } });
+};
+
 // 获取用户信息
 export const getUserInfo = (): Promise<ApiResponse<User>> => {
   return api.get('/users/info');
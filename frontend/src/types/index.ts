@@ -147,6 +147,13 @@ export interface LoginRequest {
   password: string;
 }
 
+export interface TokenResponse {
+  accessToken: string;
+  refreshToken: string;
+  expiresIn: number;
+  tokenType: string;
+}
+
 // 注册请求类型定义
 export interface RegisterRequest {
   username: string;
@@ -12,9 +12,21 @@ export const TokenUtils = {
     localStorage.setItem('token', token);
   },
 
+  // 获取刷新令牌
+  getRefreshToken: (): string | null => {
+    return localStorage.getItem('refreshToken');
+  },
+
+  // 保存访问令牌与刷新令牌
+  setTokens: (accessToken: string, refreshToken: string): void => {
+    localStorage.setItem('token', accessToken);
+    localStorage.setItem('refreshToken', refreshToken);
+  },
+
   // 移除token
   removeToken: (): void => {
     localStorage.removeItem('token');
+    localStorage.removeItem('refreshToken');
   },
 
   // 检查token是否存在
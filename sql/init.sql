@@ -33,6 +33,7 @@ CREATE TABLE `sys_user` (
   `last_login_ip` VARCHAR(50) DEFAULT NULL COMMENT '最后登录IP',
   `login_fail_count` INT NOT NULL DEFAULT 0 COMMENT '登录失败次数',
   `lock_until` DATETIME DEFAULT NULL COMMENT '锁定截止时间',
+  `token_version` INT NOT NULL DEFAULT 0 COMMENT '令牌安全版本号(禁用/改密时递增)',
   `create_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
   `update_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
   PRIMARY KEY (`id`),
@@ -203,6 +204,25 @@ CREATE TABLE `notice` (
   KEY `idx_create_time` (`create_time` DESC)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='公告表';
 
+-- ============================================================
+-- 7. 令牌吊销表 (token_revocation)
+-- 说明: 记录主动注销的令牌(jti)及强制下线的用户版本号，过期后自动清理
+-- ============================================================
+DROP TABLE IF EXISTS `token_revocation`;
+
+CREATE TABLE `token_revocation` (
+  `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  `jti` VARCHAR(64) DEFAULT NULL COMMENT '令牌ID(单个令牌吊销)',
+  `user_id` BIGINT NOT NULL COMMENT '用户ID',
+  `token_version` INT DEFAULT NULL COMMENT '强制下线: 低于该版本号的令牌全部失效',
+  `expire_time` DATETIME NOT NULL COMMENT '过期时间(令牌到期后记录失效)',
+  `create_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_jti` (`jti`),
+  KEY `idx_expire_time` (`expire_time`),
+  KEY `idx_create_time` (`create_time`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='令牌吊销表';
+
 -- ============================================================
 -- 初始化数据
 -- ============================================================